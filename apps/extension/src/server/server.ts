@@ -1,4 +1,5 @@
 import {
+  type CancellationToken,
   type CodeAction,
   type CodeActionParams,
   type CompletionItem,
@@ -59,7 +60,13 @@ const connection = createConnection(ProposedFeatures.all);
 const documents = new TextDocuments(TextDocument);
 
 // Initialize providers
-const parser = new RCLParser();
+// The server runs for long sessions against arbitrary input, so keep the prediction caches bounded
+// and stop parses that would block the connection
+const PARSE_TIMEOUT_MS = 2_000;
+const parser = new RCLParser({
+  cacheBudget: { maxDfaStates: 50_000, maxContextEntries: 200_000, checkInterval: 16 },
+  budget: { timeoutMs: PARSE_TIMEOUT_MS },
+});
 const syntaxValidator = new SyntaxValidator();
 const completionProvider = new CompletionProvider(parser);
 const hoverProvider = new HoverProvider(parser);
@@ -232,12 +239,12 @@ documents.onDidChangeContent((change) => {
 });
 
 // Diagnostics
-connection.languages.diagnostics.on(async (params) => {
+connection.languages.diagnostics.on(async (params, token) => {
   const document = documents.get(params.textDocument.uri);
   if (document !== undefined) {
     return {
       kind: DocumentDiagnosticReportKind.Full,
-      items: await validateTextDocument(document),
+      items: await validateTextDocument(document, token),
     } satisfies DocumentDiagnosticReport;
   }
   return {
@@ -246,7 +253,10 @@ connection.languages.diagnostics.on(async (params) => {
   } satisfies DocumentDiagnosticReport;
 });
 
-async function validateTextDocument(textDocument: TextDocument): Promise<Diagnostic[]> {
+async function validateTextDocument(
+  textDocument: TextDocument,
+  token?: CancellationToken,
+): Promise<Diagnostic[]> {
   const settings = await getDocumentSettings(textDocument.uri);
 
   if (!settings.validation.enabled) {
@@ -254,10 +264,13 @@ async function validateTextDocument(textDocument: TextDocument): Promise<Diagnos
   }
 
   try {
+    // Parsing blocks the connection, so the token only skips parses cancelled while the settings
+    // were being fetched; the timeout bounds the rest
     const rclDocument = await parser.parseDocument(
       textDocument.getText(),
       textDocument.uri,
       textDocument.version,
+      { budget: { timeoutMs: PARSE_TIMEOUT_MS, cancellationToken: token } },
     );
     const diagnostics = await diagnosticsProvider.getDiagnostics(rclDocument, settings);
 
@@ -1,9 +1,16 @@
 import * as path from 'node:path';
-import { RCLCompiler } from '@rcs-lang/compiler';
+import {
+  CompileCache,
+  RCLCompiler,
+  chunkedAgentFiles,
+  minimizeOutput,
+  summarizeTreeShake,
+  treeShakeOutput,
+} from '@rcs-lang/compiler';
 import { generateD2Diagram, generateMermaidDiagram } from '@rcs-lang/compiler';
 import type { Result } from '@rcs-lang/core';
 import type { ICompilationResult, IFileSystem } from '@rcs-lang/core';
-import { NodeFileSystem } from '@rcs-lang/file-system';
+import { DiskCacheStore, NodeFileSystem } from '@rcs-lang/file-system';
 import { AntlrRclParser } from '@rcs-lang/parser';
 import chalk from 'chalk';
 
@@ -13,6 +20,11 @@ export interface CompileOptions {
   pretty?: boolean;
   watch?: boolean;
   configPath?: string;
+  cacheDir?: string;
+  treeShake?: boolean;
+  treeShakeReport?: string;
+  chunks?: boolean;
+  minimize?: boolean;
 }
 
 /**
@@ -20,7 +32,10 @@ export interface CompileOptions {
  */
 export async function compileRCL(inputPath: string, options: CompileOptions): Promise<void> {
   const fileSystem = new NodeFileSystem();
-  const compiler = new RCLCompiler({ fileSystem });
+  const cache = options.cacheDir
+    ? new CompileCache(new DiskCacheStore({ directory: options.cacheDir }))
+    : undefined;
+  const compiler = new RCLCompiler({ fileSystem, cache });
 
   // Resolve input path
   const resolvedInput = fileSystem.resolve(inputPath);
@@ -107,8 +122,42 @@ export async function compileRCL(inputPath: string, options: CompileOptions): Pr
     throw error;
   }
 
+  // Drop unreachable states and unused messages
+  let emitted = output;
+  if (options.treeShake || options.treeShakeReport) {
+    const shaken = treeShakeOutput(output);
+    emitted = shaken.output;
+    console.log(chalk.gray(`🌳 ${summarizeTreeShake(shaken.report)}`));
+
+    if (options.treeShakeReport) {
+      const reportPath = fileSystem.resolve(options.treeShakeReport);
+      const writeResult = await fileSystem.writeFile(
+        reportPath,
+        JSON.stringify(shaken.report, null, 2),
+      );
+      if (!writeResult.success) {
+        const error = new Error(
+          `Failed to write tree shaking report: ${(writeResult as any).error.message}`,
+        );
+        (error as any).code = 'OUTPUT_ERROR';
+        throw error;
+      }
+    }
+  }
+
+  // Merge equivalent flow states
+  if (options.minimize) {
+    const minimized = minimizeOutput(emitted);
+    emitted = minimized.output;
+    const merged = Object.values(minimized.aliases).reduce(
+      (total, aliases) => total + Object.keys(aliases).length,
+      0,
+    );
+    console.log(chalk.gray(`🧩 Merged ${merged} equivalent state${merged === 1 ? '' : 's'}`));
+  }
+
   // Emit the output
-  await emitOutput(output, resolvedInput, options, fileSystem);
+  await emitOutput(emitted, resolvedInput, options, fileSystem);
 
   console.log(chalk.green('✓ Compilation successful'));
 }
@@ -207,6 +256,51 @@ async function emitOutput(
 
     console.log(chalk.green(`✅ Generated: ${path.relative(process.cwd(), jsPath)}`));
   }
+
+  // Emit manifest and per-flow chunks
+  if (options.chunks) {
+    const chunkDir = options.output
+      ? `${options.output.replace(/\.(json|js)$/, '')}.chunks`
+      : fileSystem.join(parsed.dir, `${parsed.name}.chunks`);
+
+    const files = chunkedAgentFiles(output);
+    const writeResult = await writeChunks(files, chunkDir, options, fileSystem);
+
+    if (!writeResult.success) {
+      const error = new Error(
+        `Failed to write chunked output: ${(writeResult as any).error.message}`,
+      );
+      (error as any).code = 'OUTPUT_ERROR';
+      throw error;
+    }
+
+    const fileCount = Object.keys(files).length;
+    console.log(
+      chalk.green(`✅ Generated: ${path.relative(process.cwd(), chunkDir)} (${fileCount} files)`),
+    );
+  }
+}
+
+/**
+ * Write chunk files into a directory, creating it if needed
+ */
+async function writeChunks(
+  files: Record<string, unknown>,
+  directory: string,
+  options: CompileOptions,
+  fileSystem: IFileSystem,
+): Promise<Result<void>> {
+  const mkdirResult = await fileSystem.mkdir(directory, true);
+  if (!mkdirResult.success) return mkdirResult;
+
+  for (const [name, content] of Object.entries(files)) {
+    const writeResult = await fileSystem.writeFile(
+      fileSystem.join(directory, name),
+      JSON.stringify(content, null, options.pretty ? 2 : 0),
+    );
+    if (!writeResult.success) return writeResult;
+  }
+  return mkdirResult;
 }
 
 /**
@@ -41,6 +41,11 @@ program
   .option('--no-pretty', 'Disable pretty printing for JSON')
   .option('-w, --watch', 'Watch for changes and recompile')
   .option('-c, --config <path>', 'Path to rcl.config.json')
+  .option('--cache-dir <dir>', 'Reuse parse and compile results cached in this directory')
+  .option('--tree-shake', 'Drop unreachable flow states and messages no state sends')
+  .option('--tree-shake-report <file>', 'Tree shake and write a JSON report of what was removed')
+  .option('--chunks', 'Also write a manifest and per-flow chunks for lazy loading')
+  .option('--minimize', 'Merge equivalent flow states, keeping their names as aliases')
   .exitOverride()
   .action(async (input: string, options: any) => {
     try {
@@ -0,0 +1,138 @@
+import type { Diagnostic, ICompilationResult } from '@rcs-lang/core';
+import { GRAMMAR_VERSION } from '@rcs-lang/parser';
+import { sha256 } from './hash.js';
+
+/**
+ * Text key/value storage behind a {@link CompileCache}. `DiskCacheStore` from
+ * `@rcs-lang/file-system` persists entries in a local directory.
+ */
+export interface CompileCacheStore {
+  get(key: string): Promise<string | undefined>;
+  set(key: string, value: string): Promise<void>;
+}
+
+/**
+ * Parse stage output stored in the cache
+ */
+export interface CachedParse {
+  ast: any;
+  diagnostics: Diagnostic[];
+}
+
+export interface CompileCacheStats {
+  hits: number;
+  misses: number;
+}
+
+/**
+ * Version of the cached compile output. Bump when the transform or validation stages change
+ * their results for the same AST.
+ */
+const OUTPUT_VERSION = '1';
+
+/**
+ * Content-addressed cache of parse and compile results.
+ *
+ * Entries are keyed by the SHA-256 of the source together with {@link GRAMMAR_VERSION} and the
+ * output version, so a hit never needs the lexer or parser and a grammar change invalidates
+ * everything. Values are stored as compact JSON; unreadable entries count as misses.
+ */
+export class CompileCache {
+  private lastSource: string | undefined;
+  private lastKey: Promise<string> | undefined;
+  private hits = 0;
+  private misses = 0;
+
+  constructor(private readonly store: CompileCacheStore) {}
+
+  /**
+   * Content hash identifying `source`. The most recent key is remembered so the compiler and its
+   * parse stage hash each source once.
+   */
+  key(source: string): Promise<string> {
+    if (this.lastKey === undefined || this.lastSource !== source) {
+      this.lastSource = source;
+      this.lastKey = sha256(`${GRAMMAR_VERSION}\u0000${OUTPUT_VERSION}\u0000${source}`);
+    }
+    return this.lastKey;
+  }
+
+  getParse(key: string): Promise<CachedParse | undefined> {
+    return this.read(`${key}.parse`);
+  }
+
+  setParse(key: string, parse: CachedParse): Promise<void> {
+    return this.write(`${key}.parse`, parse);
+  }
+
+  getCompile(key: string): Promise<ICompilationResult | undefined> {
+    return this.read(`${key}.compile`);
+  }
+
+  setCompile(key: string, result: ICompilationResult): Promise<void> {
+    return this.write(`${key}.compile`, result);
+  }
+
+  get stats(): CompileCacheStats {
+    return { hits: this.hits, misses: this.misses };
+  }
+
+  private async read<T>(entry: string): Promise<T | undefined> {
+    try {
+      const content = await this.store.get(entry);
+      if (content !== undefined) {
+        const value = JSON.parse(content) as T;
+        this.hits++;
+        return value;
+      }
+    } catch {
+      // Corrupt or unreadable entries are rebuilt
+    }
+    this.misses++;
+    return undefined;
+  }
+
+  private async write(entry: string, value: unknown): Promise<void> {
+    try {
+      await this.store.set(entry, JSON.stringify(value));
+    } catch {
+      // The cache is an optimization; failing to store an entry is not a compile error
+    }
+  }
+}
+
+/**
+ * In-memory {@link CompileCacheStore} bounded by total characters, evicting least recently used
+ * entries. Useful for long-running processes and for environments without a file system.
+ */
+export class MemoryCacheStore implements CompileCacheStore {
+  private readonly entries = new Map<string, string>();
+  private size = 0;
+
+  constructor(private readonly maxChars = 64 * 1024 * 1024) {}
+
+  async get(key: string): Promise<string | undefined> {
+    const value = this.entries.get(key);
+    if (value !== undefined) {
+      this.entries.delete(key);
+      this.entries.set(key, value);
+    }
+    return value;
+  }
+
+  async set(key: string, value: string): Promise<void> {
+    const previous = this.entries.get(key);
+    if (previous !== undefined) {
+      this.size -= previous.length;
+      this.entries.delete(key);
+    }
+    this.entries.set(key, value);
+    this.size += value.length;
+
+    for (const [oldest, content] of this.entries) {
+      if (this.size <= this.maxChars || oldest === key) break;
+      this.entries.delete(oldest);
+      this.size -= content.length;
+    }
+  }
+}
@@ -0,0 +1,11 @@
+/**
+ * Hex-encoded SHA-256 of the UTF-8 encoding of `text`
+ */
+export async function sha256(text: string): Promise<string> {
+  const digest = await crypto.subtle.digest('SHA-256', new TextEncoder().encode(text));
+  let hex = '';
+  for (const byte of new Uint8Array(digest)) {
+    hex += byte.toString(16).padStart(2, '0');
+  }
+  return hex;
+}
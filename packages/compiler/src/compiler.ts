@@ -6,6 +6,7 @@ import type {
   ICompilerCapabilities,
   IFileSystem,
 } from '@rcs-lang/core';
+import type { CompileCache } from './cache/compileCache.js';
 import { D2Generator, JavaScriptGenerator, MermaidGenerator } from './generators/index.js';
 import { CompilationPipeline } from './pipeline/compilationPipeline.js';
 import { ParseStage, TransformStage, ValidateStage } from './stages/index.js';
@@ -18,6 +19,17 @@ export interface CompilerOptions {
   fileSystem: IFileSystem;
   pipeline?: CompilationPipeline;
   strict?: boolean;
+  /**
+   * Content-addressed cache of parse and compile results. Sources identical to a cached one
+   * skip lexing, parsing and the remaining stages. Only use with the default pipeline or one
+   * whose output depends on the source alone.
+   */
+  cache?: CompileCache;
+  /**
+   * Emit ahead-of-time compiled transition matchers alongside the flows in generated
+   * JavaScript.
+   */
+  compileFlows?: boolean;
 }
 
 export interface CompilerConfig {
@@ -136,6 +148,7 @@ export class RCLCompiler implements ICompiler {
   private jsGenerator: JavaScriptGenerator;
   private d2Generator: D2Generator;
   private mermaidGenerator: MermaidGenerator;
+  private cache: CompileCache | undefined;
 
   constructor(options: CompilerOptions) {
     if (!options.fileSystem) {
@@ -145,18 +158,19 @@ export class RCLCompiler implements ICompiler {
       );
     }
     this.fileSystem = options.fileSystem;
+    this.cache = options.cache;
 
     // Set up pipeline (use provided or create default)
     if (options.pipeline) {
       this.pipeline = options.pipeline;
     } else {
       this.pipeline = new CompilationPipeline();
-      this.pipeline.addStage(new ParseStage());
+      this.pipeline.addStage(new ParseStage(options.cache));
       this.pipeline.addStage(new ValidateStage());
       this.pipeline.addStage(new TransformStage());
     }
 
-    this.jsGenerator = new JavaScriptGenerator();
+    this.jsGenerator = new JavaScriptGenerator({ compileFlows: options.compileFlows });
     this.d2Generator = new D2Generator();
     this.mermaidGenerator = new MermaidGenerator();
   }
@@ -187,6 +201,14 @@ export class RCLCompiler implements ICompiler {
     // Handle new interface
     const input = inputOrSource as ICompilationInput;
     try {
+      const cacheKey = this.cache && !input.ast ? await this.cache.key(input.source) : undefined;
+      if (cacheKey) {
+        const cached = await this.cache!.getCompile(cacheKey);
+        if (cached) {
+          return ok(cached);
+        }
+      }
+
       // Execute pipeline
       const result = await this.pipeline.execute(input);
 
@@ -194,6 +216,10 @@ export class RCLCompiler implements ICompiler {
         return err(result.error);
       }
 
+      if (cacheKey) {
+        await this.cache!.setCompile(cacheKey, result.value);
+      }
+
       return ok(result.value);
     } catch (error) {
       return err(new Error(`Compilation failed: ${error}`));
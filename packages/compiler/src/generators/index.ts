@@ -1,3 +1,3 @@
-export { JavaScriptGenerator } from './javascriptGenerator.js';
+export { JavaScriptGenerator, type JavaScriptGeneratorOptions } from './javascriptGenerator.js';
 export { D2Generator, generateD2Diagram } from './d2Generator.js';
 export { MermaidGenerator, generateMermaidDiagram } from './mermaidGenerator.js';
@@ -1,8 +1,20 @@
 import type { ICompilationOutput } from '@rcs-lang/core';
+import { generateFlowMatcher } from '@rcs-lang/csm';
+
+export interface JavaScriptGeneratorOptions {
+  /**
+   * Also emit ahead-of-time compiled transition matchers for every flow, which
+   * `createAgent` hands to the ConversationalAgent in place of interpreting the flows.
+   */
+  compileFlows?: boolean;
+}
 
 export class JavaScriptGenerator {
+  constructor(private options: JavaScriptGeneratorOptions = {}) {}
+
   generate(output: ICompilationOutput, fileName: string): string {
     const lines: string[] = [];
+    const compileFlows = this.options.compileFlows === true;
 
     // Add header comment
     lines.push(`// Generated from ${fileName}`);
@@ -32,12 +44,27 @@ export class JavaScriptGenerator {
     lines.push('export const csm = ' + JSON.stringify(output.csm, null, 2) + ';');
     lines.push('');
 
+    if (compileFlows) {
+      lines.push('// Ahead-of-time compiled transition matchers');
+      lines.push('export const flowMatchers = {');
+      for (const [flowId, flow] of Object.entries(output.csm.machine.flows)) {
+        lines.push(`  ${JSON.stringify(flowId)}: function (T, h) {`);
+        for (const line of generateFlowMatcher(flow).split('\n')) {
+          lines.push(`    ${line}`);
+        }
+        lines.push('  },');
+      }
+      lines.push('};');
+      lines.push('');
+    }
+
     // Add convenience default export
     lines.push('// Convenience export');
     lines.push('export default {');
     lines.push('  agent,');
     lines.push('  messages,');
     lines.push('  flows,');
+    if (compileFlows) lines.push('  flowMatchers,');
     lines.push('  csm');
     lines.push('};');
     lines.push('');
@@ -49,6 +76,7 @@ export class JavaScriptGenerator {
     lines.push('  ');
     lines.push('  const agent = new ConversationalAgent({');
     lines.push('    id: agent.name,');
+    if (compileFlows) lines.push('    flowMatchers,');
     lines.push('    ...options');
     lines.push('  });');
     lines.push('  ');
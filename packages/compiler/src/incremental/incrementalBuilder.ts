@@ -0,0 +1,298 @@
+import { type RclFile, type Section, isSection } from '@rcs-lang/ast';
+import { type Diagnostic, type Result, err, ok } from '@rcs-lang/core';
+import type { ICompilationResult, IFileSystem } from '@rcs-lang/core';
+import { sha256 } from '../cache/hash.js';
+import { RCLCompiler } from '../compiler.js';
+import { ParseStage } from '../stages/parseStage.js';
+
+/**
+ * What the builder remembers about one file between builds
+ */
+export interface BuildFileRecord {
+  /** SHA-256 of the file content */
+  hash: string;
+  /** SHA-256 of the exported symbols */
+  interfaceHash: string;
+  /** Exported symbols such as `flow OrderFlow` or `message Welcome` */
+  exports: string[];
+  /** Import paths as written, e.g. `shared/messages` */
+  imports: string[];
+  /** Files the imports resolved to */
+  dependencies: string[];
+  /** Whether the last compilation failed; failed files are rebuilt every time */
+  failed: boolean;
+}
+
+/**
+ * Serializable builder state, keyed by absolute file path
+ */
+export interface BuildState {
+  version: number;
+  files: Record<string, BuildFileRecord>;
+}
+
+export interface IncrementalBuildResult {
+  /** Files compiled in this build, in dependency order */
+  compiled: string[];
+  /** Files whose previous output is still valid */
+  reused: string[];
+  /** Files that were part of the previous build but not of this one */
+  removed: string[];
+  /** Compilation results of the compiled files */
+  results: Map<string, ICompilationResult>;
+}
+
+export interface IncrementalBuilderOptions {
+  fileSystem: IFileSystem;
+  /** Directory non-relative imports are resolved against, in addition to the importing file's */
+  projectRoot?: string;
+  /** Compiler used for changed files (default: an RCLCompiler on `fileSystem`) */
+  compiler?: RCLCompiler;
+  /** State saved from a previous build, see {@link IncrementalBuilder.getState} */
+  state?: BuildState;
+}
+
+const STATE_VERSION = 1;
+
+/**
+ * Rebuilds only what a change affects, using the graph formed by `import` statements.
+ *
+ * Each build hashes every file. Files whose content changed are parsed to record their imports
+ * and exported symbols; the rest reuse what the previous build recorded. A file is recompiled when
+ * its content changed, when its imports now resolve to different files, or when a file it imports
+ * changed its exported symbols. Editing the body of a shared message therefore recompiles only
+ * that file, while renaming or removing one also recompiles the files importing it.
+ *
+ * @example
+ * ```typescript
+ * const builder = new IncrementalBuilder({ fileSystem, projectRoot, state: savedState });
+ * const result = await builder.build(files);
+ * if (result.success) {
+ *   await writeOutputs(result.value.results);
+ *   saveState(builder.getState());
+ * }
+ * ```
+ */
+export class IncrementalBuilder {
+  private readonly fileSystem: IFileSystem;
+  private readonly projectRoot: string | undefined;
+  private readonly compiler: RCLCompiler;
+  private readonly parseStage = new ParseStage();
+  private state: BuildState;
+
+  constructor(options: IncrementalBuilderOptions) {
+    this.fileSystem = options.fileSystem;
+    this.projectRoot = options.projectRoot && options.fileSystem.resolve(options.projectRoot);
+    this.compiler = options.compiler ?? new RCLCompiler({ fileSystem: options.fileSystem });
+    this.state =
+      options.state?.version === STATE_VERSION
+        ? options.state
+        : { version: STATE_VERSION, files: {} };
+  }
+
+  /**
+   * State to pass to the next builder, e.g. after persisting it as JSON
+   */
+  getState(): BuildState {
+    return this.state;
+  }
+
+  /**
+   * Files that import `filePath`, as of the last build
+   */
+  dependentsOf(filePath: string): string[] {
+    const target = this.fileSystem.resolve(filePath);
+    return Object.entries(this.state.files)
+      .filter(([, record]) => record.dependencies.includes(target))
+      .map(([path]) => path)
+      .sort();
+  }
+
+  /**
+   * Build the given set of files, which should be every file of the project so imports can be
+   * resolved and removed files detected. The state is only updated when the build succeeds.
+   */
+  async build(files: string[]): Promise<Result<IncrementalBuildResult>> {
+    const paths = [...new Set(files.map((file) => this.fileSystem.resolve(file)))].sort();
+    const previous = this.state.files;
+    const next: Record<string, BuildFileRecord> = {};
+    const parsed = new Map<string, ParsedFile>();
+    const interfaceChanged = new Set<string>();
+
+    // Hash every file and parse the changed ones
+    for (const path of paths) {
+      const read = await this.fileSystem.readFile(path);
+      if (!read.success) return err(read.error);
+
+      const hash = await sha256(read.value);
+      const record = previous[path];
+      if (record && record.hash === hash) {
+        next[path] = record;
+        continue;
+      }
+
+      const parse = await this.parse(read.value, path);
+      if (!parse.success) return err(parse.error);
+
+      const exports = exportedSymbols(parse.value.ast);
+      const interfaceHash = await sha256(exports.join('\n'));
+      next[path] = {
+        hash,
+        interfaceHash,
+        exports,
+        imports: parse.value.ast.imports.map((imp) => imp.importPath.join('/')),
+        dependencies: [],
+        failed: false,
+      };
+      parsed.set(path, parse.value);
+
+      if (!record || record.interfaceHash !== interfaceHash) {
+        interfaceChanged.add(path);
+      }
+    }
+
+    const removed = Object.keys(previous).filter((path) => !(path in next));
+    for (const path of removed) {
+      interfaceChanged.add(path);
+    }
+
+    // Resolve imports against the current file set and collect the files to recompile
+    const lookup = new Map(paths.map((path) => [path.toLowerCase(), path]));
+    const dirty = new Set<string>();
+    for (const path of paths) {
+      const record = next[path];
+      const dependencies = record.imports
+        .map((importPath) => this.resolveImport(importPath, path, lookup))
+        .filter((dependency): dependency is string => dependency !== undefined);
+
+      if (
+        parsed.has(path) ||
+        record.failed ||
+        !sameMembers(record.dependencies, dependencies) ||
+        dependencies.some((dependency) => interfaceChanged.has(dependency))
+      ) {
+        dirty.add(path);
+      }
+      next[path] = { ...record, dependencies };
+    }
+
+    // Compile dependencies before their dependents
+    const compiled = dependencyOrder(dirty, next);
+    const results = new Map<string, ICompilationResult>();
+    for (const path of compiled) {
+      let file = parsed.get(path);
+      if (!file) {
+        const read = await this.fileSystem.readFile(path);
+        if (!read.success) return err(read.error);
+        const parse = await this.parse(read.value, path);
+        if (!parse.success) return err(parse.error);
+        file = parse.value;
+      }
+
+      const compile = await this.compiler.compile({
+        source: file.source,
+        uri: path,
+        ast: file.ast,
+      });
+      if (!compile.success) return err(compile.error);
+
+      const result = {
+        ...compile.value,
+        diagnostics: [...file.diagnostics, ...compile.value.diagnostics],
+      };
+      results.set(path, result);
+      next[path] = { ...next[path], failed: !result.success };
+    }
+
+    this.state = { version: STATE_VERSION, files: next };
+    return ok({
+      compiled,
+      reused: paths.filter((path) => !dirty.has(path)),
+      removed,
+      results,
+    });
+  }
+
+  private async parse(source: string, uri: string): Promise<Result<ParsedFile>> {
+    const result = await this.parseStage.process({ source, uri });
+    if (!result.success) return err(result.error);
+    return ok({ source, ast: result.value.ast, diagnostics: result.value.diagnostics });
+  }
+
+  /**
+   * Resolve an import relative to the importing file, then to the project root. Matching is
+   * case-insensitive, like import resolution in the language service.
+   */
+  private resolveImport(
+    importPath: string,
+    fromFile: string,
+    lookup: Map<string, string>,
+  ): string | undefined {
+    const bases = [this.fileSystem.dirname(fromFile)];
+    if (this.projectRoot) bases.push(this.projectRoot);
+
+    for (const base of bases) {
+      const candidate = this.fileSystem.resolve(base, `${importPath}.rcl`).toLowerCase();
+      const match = lookup.get(candidate);
+      if (match && match !== fromFile) return match;
+    }
+    return undefined;
+  }
+}
+
+interface ParsedFile {
+  source: string;
+  ast: RclFile;
+  diagnostics: Diagnostic[];
+}
+
+/**
+ * Symbols other files can refer to: named sections at the top level and inside agents, and the
+ * messages of each messages section. Flow states are internal to their flow.
+ */
+function exportedSymbols(file: RclFile): string[] {
+  const symbols: string[] = [];
+
+  const visit = (section: Section) => {
+    const name = section.identifier?.value;
+    if (name) symbols.push(`${section.sectionType} ${name}`);
+
+    for (const child of section.body) {
+      if (!isSection(child)) continue;
+      if (section.sectionType === 'agent') {
+        visit(child);
+      } else if (section.sectionType === 'messages' && child.identifier) {
+        symbols.push(`message ${child.identifier.value}`);
+      }
+    }
+  };
+
+  file.sections.forEach(visit);
+  return symbols.sort();
+}
+
+/**
+ * Order `paths` so that files come after the files they import. Cycles are broken arbitrarily.
+ */
+function dependencyOrder(paths: Set<string>, records: Record<string, BuildFileRecord>): string[] {
+  const order: string[] = [];
+  const visited = new Set<string>();
+
+  const visit = (path: string) => {
+    if (visited.has(path)) return;
+    visited.add(path);
+    for (const dependency of records[path].dependencies) {
+      if (paths.has(dependency)) visit(dependency);
+    }
+    order.push(path);
+  };
+
+  [...paths].sort().forEach(visit);
+  return order;
+}
+
+function sameMembers(a: string[], b: string[]): boolean {
+  if (a.length !== b.length) return false;
+  const set = new Set(a);
+  return b.every((item) => set.has(item));
+}
@@ -10,5 +10,65 @@ export * from './stages/index.js';
 // Generator exports
 export * from './generators/index.js';
 
+// Cache exports
+export {
+  CompileCache,
+  MemoryCacheStore,
+  type CachedParse,
+  type CompileCacheStats,
+  type CompileCacheStore,
+} from './cache/compileCache.js';
+
+// Spread resolution exports
+export {
+  SpreadResolver,
+  containsSpreadDirective,
+  type AttributeSet,
+} from './spread/spreadResolver.js';
+
+// Incremental build exports
+export {
+  IncrementalBuilder,
+  type BuildFileRecord,
+  type BuildState,
+  type IncrementalBuildResult,
+  type IncrementalBuilderOptions,
+} from './incremental/incrementalBuilder.js';
+
+// Streaming output exports
+export { JsonWriter, StringSink, type JsonSink } from './output/jsonWriter.js';
+export {
+  StreamingCompiler,
+  type StreamingCompileOptions,
+  type StreamingCompileResult,
+} from './output/streamingCompiler.js';
+export { toBinaryAgent } from './output/binaryOutput.js';
+export { chunkedAgentFiles, toChunkedAgent } from './output/chunkedOutput.js';
+export { minimizeFlow, minimizeOutput, type MinimizeResult } from './output/minimizeFlows.js';
+export {
+  dedupeOutput,
+  expandOutput,
+  type SharedCompilationOutput,
+} from './output/dedupOutput.js';
+export {
+  summarizeTreeShake,
+  treeShakeOutput,
+  type TreeShakeOptions,
+  type TreeShakeReport,
+  type TreeShakeResult,
+} from './output/treeShake.js';
+
+// Parallel compilation exports
+export {
+  ParallelCompiler,
+  type CompileWorker,
+  type CompileWorkerRequest,
+  type CompileWorkerResponse,
+  type ParallelCompileOptions,
+  type ParallelCompileResult,
+} from './parallel/parallelCompiler.js';
+export { splitSource, type CompilePlan, type CompileUnit } from './parallel/sectionSplitter.js';
+export { compileUnit, type UnitResult } from './parallel/unitCompiler.js';
+
 // Extractor exports
 export { extractMessages } from './extractors/message-extractor.js';
@@ -0,0 +1,22 @@
+import type { ICompilationOutput } from '@rcs-lang/core';
+import { type BinaryAgentEncodeOptions, encodeBinaryAgent } from '@rcs-lang/csm';
+
+/**
+ * Encode compilation output in the random-access binary format read by `BinaryAgent` from
+ * `@rcs-lang/csm`.
+ */
+export function toBinaryAgent(
+  output: ICompilationOutput,
+  options: BinaryAgentEncodeOptions = {},
+): Uint8Array {
+  const { machine } = output.csm;
+  return encodeBinaryAgent(
+    {
+      agent: output.bundle.agent,
+      messages: output.bundle.messages.messages ?? {},
+      flows: machine.flows,
+      initialFlow: machine.initialFlow,
+    },
+    options,
+  );
+}
@@ -0,0 +1,24 @@
+import type { ICompilationOutput } from '@rcs-lang/core';
+import { type AgentChunks, CHUNK_MANIFEST, chunkAgent } from '@rcs-lang/csm';
+
+/**
+ * Split compilation output into the manifest and per-flow chunks read lazily by `ChunkedAgent`
+ * from `@rcs-lang/csm`.
+ */
+export function toChunkedAgent(output: ICompilationOutput): AgentChunks {
+  const { machine } = output.csm;
+  return chunkAgent({
+    agent: output.bundle.agent,
+    messages: output.bundle.messages.messages ?? {},
+    flows: machine.flows,
+    initialFlow: machine.initialFlow,
+  });
+}
+
+/**
+ * Files of a chunked agent directory by name, manifest included
+ */
+export function chunkedAgentFiles(output: ICompilationOutput): Record<string, unknown> {
+  const { manifest, chunks } = toChunkedAgent(output);
+  return { [CHUNK_MANIFEST]: manifest, ...chunks };
+}
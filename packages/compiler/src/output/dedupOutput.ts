@@ -0,0 +1,60 @@
+import type { ICompilationOutput } from '@rcs-lang/core';
+import { type DedupeOptions, SharedValueResolver, dedupeValues } from '@rcs-lang/csm';
+
+/**
+ * Compilation output using the shared-payload JSON extension: `bundle.messages.shared` holds
+ * fragments repeated across messages and the agent config, which refer to them with
+ * `{ "$shared": index }` objects.
+ */
+export type SharedCompilationOutput = ICompilationOutput & {
+  bundle: { messages: { shared: unknown[] } };
+};
+
+/**
+ * Store repeated message payload and agent config fragments once. The machine is unchanged.
+ */
+export function dedupeOutput(
+  output: ICompilationOutput,
+  options: DedupeOptions = {},
+): SharedCompilationOutput {
+  const messages = output.bundle.messages.messages ?? {};
+  const ids = Object.keys(messages);
+  const { values, shared } = dedupeValues(
+    [output.bundle.agent, ...ids.map((id) => messages[id])],
+    options,
+  );
+
+  return {
+    ...output,
+    bundle: {
+      agent: values[0] as ICompilationOutput['bundle']['agent'],
+      messages: {
+        messages: Object.fromEntries(ids.map((id, i) => [id, values[i + 1]])) as any,
+        shared,
+      },
+    },
+  };
+}
+
+/**
+ * Expand output produced by {@link dedupeOutput}. Output without a shared table is returned as is.
+ * Shared fragments are materialized once and frozen, so expanded messages share memory.
+ */
+export function expandOutput(output: ICompilationOutput): ICompilationOutput {
+  const { shared } = output.bundle.messages as { shared?: unknown[] };
+  if (!shared) return output;
+
+  const resolver = SharedValueResolver.of(shared);
+  const messages = output.bundle.messages.messages ?? {};
+  return {
+    ...output,
+    bundle: {
+      agent: resolver.resolve(output.bundle.agent),
+      messages: {
+        messages: Object.fromEntries(
+          Object.entries(messages).map(([id, message]) => [id, resolver.resolve(message)]),
+        ) as any,
+      },
+    },
+  };
+}
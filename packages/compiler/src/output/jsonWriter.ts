@@ -0,0 +1,174 @@
+/**
+ * Destination for streamed output. Node writable streams, Bun file writers and
+ * {@link StringSink} all satisfy it.
+ */
+export interface JsonSink {
+  write(chunk: string): unknown;
+}
+
+/**
+ * Sink that collects output in memory, mostly for tests and small agents
+ */
+export class StringSink implements JsonSink {
+  private chunks: string[] = [];
+
+  write(chunk: string): void {
+    this.chunks.push(chunk);
+  }
+
+  toString(): string {
+    const text = this.chunks.join('');
+    this.chunks = [text];
+    return text;
+  }
+}
+
+const OBJECT = 0;
+const ARRAY = 1;
+type Scope = typeof OBJECT | typeof ARRAY;
+
+/**
+ * Forward-only JSON writer.
+ *
+ * Structure is written with begin/end calls; leaf values and small subtrees go through
+ * `value()`. Output is buffered and handed to the sink in chunks of roughly `bufferSize`
+ * characters, so memory use does not depend on the document size.
+ */
+export class JsonWriter {
+  private buffer = '';
+  private scopes: Scope[] = [];
+  /** Whether the innermost container already has an entry */
+  private hasEntry: boolean[] = [];
+  private afterName = false;
+
+  constructor(
+    private readonly sink: JsonSink,
+    private readonly bufferSize = 64 * 1024,
+  ) {}
+
+  beginObject(): this {
+    this.beforeValue();
+    this.buffer += '{';
+    this.scopes.push(OBJECT);
+    this.hasEntry.push(false);
+    return this;
+  }
+
+  endObject(): this {
+    this.end(OBJECT, '}');
+    return this;
+  }
+
+  beginArray(): this {
+    this.beforeValue();
+    this.buffer += '[';
+    this.scopes.push(ARRAY);
+    this.hasEntry.push(false);
+    return this;
+  }
+
+  endArray(): this {
+    this.end(ARRAY, ']');
+    return this;
+  }
+
+  /**
+   * Write an object member name; the next call must write its value
+   */
+  name(key: string): this {
+    if (this.scopes[this.scopes.length - 1] !== OBJECT || this.afterName) {
+      throw new Error(`Unexpected member name '${key}'`);
+    }
+    this.separate();
+    this.buffer += `${JSON.stringify(key)}:`;
+    this.afterName = true;
+    return this;
+  }
+
+  /**
+   * Write a complete value. `undefined` is written as `null`, like JSON.stringify does in
+   * arrays; use {@link property} to skip undefined members instead.
+   */
+  value(value: unknown): this {
+    this.beforeValue();
+    this.buffer += JSON.stringify(value) ?? 'null';
+    this.maybeFlush();
+    return this;
+  }
+
+  /**
+   * Write `key: value`, skipping undefined values as JSON.stringify does
+   */
+  property(key: string, value: unknown): this {
+    if (value === undefined) return this;
+    return this.name(key).value(value);
+  }
+
+  /**
+   * Write already serialized JSON as the next value
+   */
+  raw(json: string): this {
+    this.beforeValue();
+    this.buffer += json;
+    this.maybeFlush();
+    return this;
+  }
+
+  /** Nesting depth of open containers */
+  get depth(): number {
+    return this.scopes.length;
+  }
+
+  /**
+   * Hand buffered output to the sink
+   */
+  flush(): void {
+    if (this.buffer.length > 0) {
+      this.sink.write(this.buffer);
+      this.buffer = '';
+    }
+  }
+
+  /**
+   * Flush and verify the document is complete
+   */
+  close(): void {
+    if (this.scopes.length > 0 || this.afterName) {
+      throw new Error('JSON document is incomplete');
+    }
+    this.flush();
+  }
+
+  private beforeValue(): void {
+    const scope = this.scopes[this.scopes.length - 1];
+    if (scope === OBJECT) {
+      if (!this.afterName) throw new Error('Object members need a name');
+      this.afterName = false;
+    } else if (scope === ARRAY) {
+      this.separate();
+    }
+  }
+
+  private separate(): void {
+    const last = this.hasEntry.length - 1;
+    if (this.hasEntry[last]) {
+      this.buffer += ',';
+    } else {
+      this.hasEntry[last] = true;
+    }
+  }
+
+  private end(scope: Scope, close: string): void {
+    if (this.scopes[this.scopes.length - 1] !== scope || this.afterName) {
+      throw new Error(`Unexpected '${close}'`);
+    }
+    this.scopes.pop();
+    this.hasEntry.pop();
+    this.buffer += close;
+    this.maybeFlush();
+  }
+
+  private maybeFlush(): void {
+    if (this.buffer.length >= this.bufferSize) this.flush();
+  }
+}
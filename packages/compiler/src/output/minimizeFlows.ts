@@ -0,0 +1,196 @@
+import type { ICompilationOutput } from '@rcs-lang/core';
+import type { CSMMachineDefinition, CSMStateDefinition } from '../stages/transformStage.js';
+
+/**
+ * Result of flow minimization
+ */
+export interface MinimizeResult {
+  output: ICompilationOutput;
+  /** Merged state names by flow, mapped to the state that replaced them */
+  aliases: Record<string, Record<string, string>>;
+}
+
+type ResultHandlers = Record<string, { target?: string } | undefined>;
+
+interface FlowInvocationLike {
+  onResult?: ResultHandlers;
+}
+
+/** Stands in for a state reference when comparing the shape of states */
+const STATE_REF = '\u0000state';
+
+/**
+ * Merge equivalent states in every flow. Two states are equivalent when they have the same
+ * metadata (and so send the same message) and the same transitions in the same order, with
+ * state targets leading to equivalent states.
+ *
+ * Merged states are recorded in the flow's `aliases`, which FlowMachine resolves, so existing
+ * state names keep working. A flow's start state always survives a merge.
+ */
+export function minimizeOutput(output: ICompilationOutput): MinimizeResult {
+  const aliases: Record<string, Record<string, string>> = {};
+  const flows: Record<string, CSMMachineDefinition> = {};
+
+  for (const [flowId, flow] of Object.entries(
+    output.csm.machine.flows as Record<string, CSMMachineDefinition>,
+  )) {
+    const minimized = minimizeFlow(flow);
+    flows[flowId] = minimized;
+    if (minimized !== flow) aliases[flowId] = minimized.aliases ?? {};
+  }
+
+  return {
+    output: {
+      ...output,
+      csm: { ...output.csm, machine: { ...output.csm.machine, flows } },
+    },
+    aliases,
+  };
+}
+
+/**
+ * Merge equivalent states of one flow with Hopcroft's partition refinement. Returns the flow
+ * itself when no states are equivalent.
+ */
+export function minimizeFlow(flow: CSMMachineDefinition): CSMMachineDefinition {
+  const names = Object.keys(flow.states);
+  const index = new Map(names.map((name, i) => [name, i]));
+  const stateRef = (target: unknown): number | undefined => {
+    if (typeof target !== 'string') return undefined;
+    return index.get(target.startsWith('state:') ? target.slice(6) : target);
+  };
+
+  // Initial partition: states with the same shape once state targets are abstracted away.
+  // Letters are the positions of state references within a shape.
+  const inverse: Array<Array<[letter: number, from: number]>> = names.map(() => []);
+  const shapes = new Map<string, number[]>();
+  names.forEach((name, from) => {
+    let letter = 0;
+    const shape = JSON.stringify(
+      mapTargets(flow.states[name], (target) => {
+        const to = stateRef(target);
+        if (to === undefined) return target;
+        inverse[to].push([letter++, from]);
+        return target.startsWith('state:') ? `${STATE_REF}:prefixed` : STATE_REF;
+      }),
+    );
+    const block = shapes.get(shape);
+    if (block) block.push(from);
+    else shapes.set(shape, [from]);
+  });
+
+  const blocks = [...shapes.values()];
+  if (blocks.length === names.length) return flow;
+
+  const blockOf = new Int32Array(names.length);
+  blocks.forEach((block, b) => {
+    for (const state of block) blockOf[state] = b;
+  });
+
+  const pending = blocks.map((_, b) => b);
+  const queued = blocks.map(() => true);
+
+  while (pending.length > 0) {
+    const splitter = pending.pop()!;
+    queued[splitter] = false;
+
+    // Predecessors of the splitter by letter
+    const predecessors = new Map<number, number[]>();
+    for (const to of blocks[splitter]) {
+      for (const [letter, from] of inverse[to]) {
+        const list = predecessors.get(letter);
+        if (list) list.push(from);
+        else predecessors.set(letter, [from]);
+      }
+    }
+
+    for (const from of predecessors.values()) {
+      const hits = new Map<number, Set<number>>();
+      for (const state of from) {
+        const b = blockOf[state];
+        const hit = hits.get(b);
+        if (hit) hit.add(state);
+        else hits.set(b, new Set([state]));
+      }
+
+      for (const [b, hit] of hits) {
+        if (hit.size === blocks[b].length) continue;
+
+        const split = blocks.length;
+        blocks.push(blocks[b].filter((state) => hit.has(state)));
+        blocks[b] = blocks[b].filter((state) => !hit.has(state));
+        for (const state of blocks[split]) blockOf[state] = split;
+        queued.push(false);
+
+        // Both halves must split others if the original had yet to; otherwise the smaller suffices
+        const next = queued[b] || blocks[split].length <= blocks[b].length ? split : b;
+        pending.push(next);
+        queued[next] = true;
+      }
+    }
+  }
+
+  if (blocks.length === names.length) return flow;
+
+  // The start state represents its block, otherwise the first state in definition order
+  const initial = index.get(flow.initial);
+  const representative = blocks.map((block, b) =>
+    initial !== undefined && blockOf[initial] === b ? initial : block[0],
+  );
+  const rename = (target: string): string => {
+    const to = stateRef(target);
+    if (to === undefined) return target;
+    const name = names[representative[blockOf[to]]];
+    return target.startsWith('state:') ? `state:${name}` : name;
+  };
+
+  const states: Record<string, CSMStateDefinition> = {};
+  const aliases: Record<string, string> = {};
+  names.forEach((name, i) => {
+    const kept = representative[blockOf[i]];
+    if (kept === i) {
+      states[name] = mapTargets(flow.states[name], rename);
+    } else {
+      aliases[name] = names[kept];
+    }
+  });
+
+  // Earlier aliases now lead to the surviving state
+  for (const [alias, target] of Object.entries(flow.aliases ?? {})) {
+    aliases[alias] = aliases[target] ?? target;
+  }
+
+  return { ...flow, states, aliases };
+}
+
+/**
+ * Copy of a state with every transition and result handler target mapped
+ */
+function mapTargets(
+  state: CSMStateDefinition,
+  map: (target: string) => string,
+): CSMStateDefinition {
+  return {
+    ...state,
+    transitions: state.transitions.map((transition) => {
+      const mapped = { ...transition };
+      if (typeof transition.target === 'string') mapped.target = map(transition.target);
+
+      const invocation = (transition as { flowInvocation?: FlowInvocationLike }).flowInvocation;
+      if (invocation?.onResult) {
+        const onResult: ResultHandlers = {};
+        for (const [result, handler] of Object.entries(invocation.onResult)) {
+          onResult[result] =
+            handler && typeof handler.target === 'string'
+              ? { ...handler, target: map(handler.target) }
+              : handler;
+        }
+        (mapped as { flowInvocation?: FlowInvocationLike }).flowInvocation = {
+          ...invocation,
+          onResult,
+        };
+      }
+      return mapped;
+    }),
+  };
+}
@@ -0,0 +1,99 @@
+import { type Diagnostic, type Result, err, ok } from '@rcs-lang/core';
+import { parseSectionStreamAst } from '@rcs-lang/parser';
+import { containsSpreadDirective } from '../spread/spreadResolver.js';
+import { TransformStage } from '../stages/transformStage.js';
+import { type JsonSink, JsonWriter } from './jsonWriter.js';
+
+export interface StreamingCompileOptions {
+  /** Characters buffered before each write to the sink */
+  bufferSize?: number;
+}
+
+export interface StreamingCompileResult {
+  messages: number;
+  flows: number;
+  diagnostics: Diagnostic[];
+}
+
+/**
+ * Compiles RCL source straight to JSON in the `{ messages, flows, agent }` layout of
+ * examples/simple.json, without building the output object first.
+ *
+ * Each message definition is transformed and written as soon as the parser completes it and is
+ * then dropped from the parse tree, so memory no longer grows with the number of messages.
+ * Flows are serialized as they complete and written after the messages; the agent (attributes,
+ * config and defaults) is written last because defaults may appear anywhere in the file.
+ * Values are the same as those produced by {@link TransformStage}. Semantic validation is not
+ * run; use the regular pipeline for diagnostics beyond syntax errors.
+ *
+ * Sources with spread directives are transformed as a whole once parsed, since a spread may
+ * name a section defined further down the file; the output layout is unchanged.
+ */
+export class StreamingCompiler {
+  constructor(private readonly options: StreamingCompileOptions = {}) {}
+
+  /**
+   * Compile `source` into `sink`. On failure the sink may have received partial output.
+   */
+  compile(source: string, sink: JsonSink): Result<StreamingCompileResult> {
+    const transform = new TransformStage();
+    const writer = new JsonWriter(sink, this.options.bufferSize);
+    const flows: Array<[id: string, json: string]> = [];
+    const streaming = !containsSpreadDirective(source);
+    let messages = 0;
+
+    try {
+      writer.beginObject().name('messages').beginObject();
+
+      const parsed = parseSectionStreamAst(source, {
+        accept: (type, ancestors) => streaming && (isMessage(ancestors) || type === 'flow'),
+        onSection: (section, ancestors) => {
+          if (isMessage(ancestors)) {
+            const message = transform.transformMessage(section);
+            if (message) {
+              writer.name(message.id).value(message.message);
+              messages++;
+            }
+            return;
+          }
+
+          const flow = transform.transformFlow(section);
+          if (flow) {
+            flows.push([flow.id, JSON.stringify(flow)]);
+          }
+        },
+      });
+      if (!parsed.success) {
+        return err(parsed.error);
+      }
+
+      const output = transform.transformRclFile(parsed.value.file);
+      if (!streaming) {
+        for (const [id, message] of Object.entries(output.bundle.messages.messages)) {
+          writer.name(id).value(message);
+          messages++;
+        }
+        for (const [id, flow] of Object.entries(output.csm.machine.flows)) {
+          flows.push([id, JSON.stringify(flow)]);
+        }
+      }
+
+      writer.endObject().name('flows').beginObject();
+      for (const [id, json] of flows) {
+        writer.name(id).raw(json);
+      }
+      writer.endObject();
+
+      writer.name('agent').value(output.bundle.agent).endObject();
+      writer.close();
+
+      return ok({ messages, flows: flows.length, diagnostics: parsed.value.diagnostics });
+    } catch (error) {
+      return err(new Error(`Streaming compilation failed: ${error}`));
+    }
+  }
+}
+
+function isMessage(ancestors: readonly string[]): boolean {
+  return ancestors[ancestors.length - 1] === 'messages';
+}
@@ -0,0 +1,189 @@
+import type { ICompilationOutput } from '@rcs-lang/core';
+
+export interface TreeShakeOptions {
+  /**
+   * Also drop flows never entered from the machine's initial flow. Off by default, since
+   * applications may enter any flow directly.
+   */
+  flows?: boolean;
+  /** Messages sent by application code rather than by a flow state */
+  keepMessages?: readonly string[];
+}
+
+/**
+ * What tree shaking removed
+ */
+export interface TreeShakeReport {
+  /** Removed message IDs */
+  messages: string[];
+  /** Removed state IDs by flow */
+  states: Record<string, string[]>;
+  /** Removed flow IDs */
+  flows: string[];
+  /** Flows kept whole because a transition targets a context variable */
+  dynamicFlows: string[];
+}
+
+export interface TreeShakeResult {
+  output: ICompilationOutput;
+  report: TreeShakeReport;
+}
+
+interface FlowLike {
+  initial: string;
+  states: Record<string, StateLike>;
+}
+
+interface StateLike {
+  transitions: TransitionLike[];
+  meta?: { messageId?: string };
+}
+
+interface TransitionLike {
+  target?: unknown;
+  flowInvocation?: { flowId: string; onResult?: Record<string, { target?: string } | undefined> };
+}
+
+/**
+ * Drop flow states unreachable from their flow's start state and messages no remaining state
+ * sends. Reachability follows state, flow and machine targets, flow invocations and their
+ * result handlers. A flow with a context-variable target (`@next`) keeps all of its states.
+ */
+export function treeShakeOutput(
+  output: ICompilationOutput,
+  options: TreeShakeOptions = {},
+): TreeShakeResult {
+  const { machine } = output.csm;
+  const flows = machine.flows as unknown as Record<string, FlowLike>;
+  const report: TreeShakeReport = { messages: [], states: {}, flows: [], dynamicFlows: [] };
+
+  // Reachable states by flow, filled flow by flow as flows are entered
+  const reached = new Map<string, Set<string> | 'all'>();
+  const pending: string[] = [];
+
+  const enterFlow = (flowId: string) => {
+    if (!reached.has(flowId) && flows[flowId]) {
+      reached.set(flowId, new Set());
+      pending.push(flowId);
+    }
+  };
+
+  const roots =
+    options.flows && machine.initialFlow && flows[machine.initialFlow]
+      ? [machine.initialFlow]
+      : Object.keys(flows);
+  roots.forEach(enterFlow);
+
+  while (pending.length > 0) {
+    const flowId = pending.pop()!;
+    const flow = flows[flowId];
+    const states = reached.get(flowId) as Set<string>;
+
+    // Without a valid start state nothing can be proven unreachable
+    if (!flow.states[flow.initial]) {
+      reached.set(flowId, 'all');
+      continue;
+    }
+
+    let dynamic = false;
+    const queue = [flow.initial];
+    states.add(flow.initial);
+
+    const visit = (target: unknown) => {
+      if (typeof target !== 'string' || target.length === 0) return;
+      if (target.startsWith('@')) {
+        dynamic = true;
+      } else if (target.startsWith('machine:')) {
+        enterFlow(target.slice(8));
+      } else if (target.startsWith('flow:')) {
+        enterFlow(target.slice(5));
+      } else if (!target.startsWith(':')) {
+        const stateId = target.startsWith('state:') ? target.slice(6) : target;
+        if (flow.states[stateId] && !states.has(stateId)) {
+          states.add(stateId);
+          queue.push(stateId);
+        }
+      }
+    };
+
+    for (let i = 0; i < queue.length; i++) {
+      for (const transition of flow.states[queue[i]].transitions) {
+        if (transition.flowInvocation) {
+          enterFlow(transition.flowInvocation.flowId);
+          for (const handler of Object.values(transition.flowInvocation.onResult ?? {})) {
+            visit(handler?.target);
+          }
+        } else {
+          visit(transition.target);
+        }
+      }
+    }
+
+    if (dynamic) {
+      reached.set(flowId, 'all');
+      report.dynamicFlows.push(flowId);
+    }
+  }
+
+  // Rebuild flows in their original order
+  const keptFlows: Record<string, FlowLike> = {};
+  const sent = new Set(options.keepMessages);
+  for (const [flowId, flow] of Object.entries(flows)) {
+    const states = reached.get(flowId);
+    if (!states) {
+      report.flows.push(flowId);
+      continue;
+    }
+
+    const keptStates: Record<string, StateLike> = {};
+    const removed: string[] = [];
+    for (const [stateId, state] of Object.entries(flow.states)) {
+      if (states === 'all' || states.has(stateId)) {
+        keptStates[stateId] = state;
+        if (state.meta?.messageId) sent.add(state.meta.messageId);
+      } else {
+        removed.push(stateId);
+      }
+    }
+
+    if (removed.length > 0) report.states[flowId] = removed;
+    keptFlows[flowId] = removed.length > 0 ? { ...flow, states: keptStates } : flow;
+  }
+
+  const messages = output.bundle.messages.messages ?? {};
+  const keptMessages: Record<string, unknown> = {};
+  for (const [id, message] of Object.entries(messages)) {
+    if (sent.has(id)) {
+      keptMessages[id] = message;
+    } else {
+      report.messages.push(id);
+    }
+  }
+
+  return {
+    output: {
+      ...output,
+      bundle: {
+        ...output.bundle,
+        messages: { ...output.bundle.messages, messages: keptMessages as any },
+      },
+      csm: {
+        ...output.csm,
+        machine: { ...machine, flows: keptFlows as any },
+      },
+    },
+    report,
+  };
+}
+
+/**
+ * One-line summary of a tree shaking report
+ */
+export function summarizeTreeShake(report: TreeShakeReport): string {
+  const states = Object.values(report.states).reduce((total, ids) => total + ids.length, 0);
+  const plural = (count: number, noun: string) => `${count} ${noun}${count === 1 ? '' : 's'}`;
+  return (
+    `Removed ${plural(report.messages.length, 'message')}, ${plural(states, 'state')} ` +
+    `and ${plural(report.flows.length, 'flow')}`
+  );
+}
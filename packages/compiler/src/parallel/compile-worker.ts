@@ -0,0 +1,24 @@
+/**
+ * Worker entry point for parallel compilation: compiles the units it is sent and posts back
+ * their serialized entries. Uses the Web Worker messaging API (Bun, browsers, Deno).
+ */
+import { TransformStage } from '../stages/transformStage.js';
+import type { CompileWorkerRequest, CompileWorkerResponse } from './parallelCompiler.js';
+import { compileUnit } from './unitCompiler.js';
+
+interface WorkerScope {
+  onmessage: ((event: { data: CompileWorkerRequest }) => void) | null;
+  postMessage(message: CompileWorkerResponse): void;
+}
+
+const scope = globalThis as unknown as WorkerScope;
+const transform = new TransformStage();
+
+scope.onmessage = (event) => {
+  const { index, unit } = event.data;
+  try {
+    scope.postMessage({ index, result: compileUnit(unit, transform) });
+  } catch (error) {
+    scope.postMessage({ index, error: error instanceof Error ? error.message : String(error) });
+  }
+};
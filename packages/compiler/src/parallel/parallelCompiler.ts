@@ -0,0 +1,243 @@
+import { type Diagnostic, type Result, err, ok } from '@rcs-lang/core';
+import { parseSectionStreamAst } from '@rcs-lang/parser';
+import { type JsonSink, JsonWriter } from '../output/jsonWriter.js';
+import { StreamingCompiler, type StreamingCompileResult } from '../output/streamingCompiler.js';
+import { TransformStage } from '../stages/transformStage.js';
+import {
+  type CompilePlan,
+  type CompileUnit,
+  mapDiagnosticLines,
+  splitSource,
+} from './sectionSplitter.js';
+import type { UnitResult } from './unitCompiler.js';
+
+export interface CompileWorkerRequest {
+  index: number;
+  unit: CompileUnit;
+}
+
+export interface CompileWorkerResponse {
+  index: number;
+  result?: UnitResult;
+  error?: string;
+}
+
+/**
+ * Minimal view of a Web Worker used by the compiler
+ */
+export interface CompileWorker {
+  postMessage(message: CompileWorkerRequest): void;
+  onmessage: ((event: { data: CompileWorkerResponse }) => void) | null;
+  onerror: ((event: unknown) => void) | null;
+  terminate(): void;
+}
+
+export interface ParallelCompileOptions {
+  /** Number of workers (default: available parallelism minus one, at least 1) */
+  workers?: number;
+  /** Message definitions per unit of work (default: 256) */
+  batchSize?: number;
+  /** Files with fewer units than this compile sequentially (default: 4) */
+  minUnits?: number;
+  /** Characters buffered before each write to the sink */
+  bufferSize?: number;
+  /** Worker factory; defaults to a module Worker running `compile-worker.js` */
+  createWorker?: () => CompileWorker;
+}
+
+export interface ParallelCompileResult extends StreamingCompileResult {
+  /** Units compiled on workers; 0 when the file was compiled sequentially */
+  units: number;
+}
+
+type WorkerConstructor = new (url: URL, options?: { type: 'module' }) => CompileWorker;
+
+function defaultWorker(): CompileWorker {
+  const Worker = (globalThis as { Worker?: WorkerConstructor }).Worker;
+  if (!Worker) {
+    throw new Error('Parallel compilation requires Worker support');
+  }
+  return new Worker(new URL('./compile-worker.js', import.meta.url), { type: 'module' });
+}
+
+function defaultWorkerCount(): number {
+  const cores = (globalThis as { navigator?: { hardwareConcurrency?: number } }).navigator
+    ?.hardwareConcurrency;
+  return Math.max(1, (cores ?? 2) - 1);
+}
+
+/**
+ * Compiles flows and batches of message definitions on a pool of workers.
+ *
+ * The file is split by indentation into independent units (see {@link splitSource}); workers
+ * take the next unit as soon as they finish one, and results are written in source order, so
+ * the output is byte-identical to {@link StreamingCompiler}. Diagnostics of units and the skeleton
+ * are moved back to their source lines and reported in source order. Whenever a unit or the
+ * remaining skeleton does not parse cleanly on its own, the whole file is compiled sequentially
+ * instead, which also keeps error positions exact.
+ *
+ * An instance runs one compilation at a time and keeps its workers between calls; call
+ * {@link dispose} when done.
+ */
+export class ParallelCompiler {
+  private pool: CompileWorker[] = [];
+
+  constructor(private readonly options: ParallelCompileOptions = {}) {}
+
+  async compile(source: string, sink: JsonSink): Promise<Result<ParallelCompileResult>> {
+    const plan = splitSource(source, this.options.batchSize ?? 256);
+    if (!plan || plan.units.length < (this.options.minUnits ?? 4)) {
+      return this.compileSequential(source, sink);
+    }
+
+    // The skeleton (agent attributes, config, defaults) compiles here while workers run
+    const pending = this.runUnits(plan.units);
+    const transform = new TransformStage();
+    let leftovers = 0;
+    const skeleton = parseSectionStreamAst(plan.skeleton, {
+      accept: (type, ancestors) =>
+        type === 'flow' || ancestors[ancestors.length - 1] === 'messages',
+      onSection: () => {
+        leftovers++;
+      },
+    });
+
+    let results: UnitResult[];
+    try {
+      results = await pending;
+    } catch (error) {
+      return err(error instanceof Error ? error : new Error(String(error)));
+    }
+
+    if (
+      !skeleton.success ||
+      leftovers > 0 ||
+      skeleton.value.diagnostics.some((d) => d.severity === 'error') ||
+      results.some((result) => result.failed)
+    ) {
+      return this.compileSequential(source, sink);
+    }
+
+    try {
+      const writer = new JsonWriter(sink, this.options.bufferSize);
+      let messages = 0;
+      let flows = 0;
+
+      writer.beginObject().name('messages').beginObject();
+      plan.units.forEach((unit, i) => {
+        if (unit.kind !== 'messages') return;
+        for (const [id, json] of results[i].entries) writer.name(id).raw(json);
+        messages += results[i].entries.length;
+      });
+
+      writer.endObject().name('flows').beginObject();
+      plan.units.forEach((unit, i) => {
+        if (unit.kind !== 'flow') return;
+        for (const [id, json] of results[i].entries) writer.name(id).raw(json);
+        flows += results[i].entries.length;
+      });
+      writer.endObject();
+
+      const output = transform.transformRclFile(skeleton.value.file);
+      writer.name('agent').value(output.bundle.agent).endObject();
+      writer.close();
+
+      return ok({
+        messages,
+        flows,
+        diagnostics: mergeDiagnostics(plan, skeleton.value.diagnostics, results),
+        units: plan.units.length,
+      });
+    } catch (error) {
+      return err(new Error(`Parallel compilation failed: ${error}`));
+    }
+  }
+
+  /**
+   * Terminate the worker pool. The compiler can still be used; workers are recreated on demand.
+   */
+  dispose(): void {
+    for (const worker of this.pool) worker.terminate();
+    this.pool = [];
+  }
+
+  private compileSequential(source: string, sink: JsonSink): Result<ParallelCompileResult> {
+    const result = new StreamingCompiler({ bufferSize: this.options.bufferSize }).compile(
+      source,
+      sink,
+    );
+    return result.success ? ok({ ...result.value, units: 0 }) : result;
+  }
+
+  private runUnits(units: CompileUnit[]): Promise<UnitResult[]> {
+    const workerCount = Math.min(units.length, this.options.workers ?? defaultWorkerCount());
+    while (this.pool.length < workerCount) {
+      this.pool.push((this.options.createWorker ?? defaultWorker)());
+    }
+
+    const results = new Array<UnitResult>(units.length);
+    let next = 0;
+    let done = 0;
+
+    return new Promise((resolve, reject) => {
+      const fail = (error: Error) => {
+        for (const worker of this.pool) {
+          worker.onmessage = null;
+          worker.onerror = null;
+        }
+        this.dispose();
+        reject(error);
+      };
+
+      const dispatch = (worker: CompileWorker) => {
+        if (next < units.length) {
+          const index = next++;
+          worker.postMessage({ index, unit: units[index] });
+        }
+      };
+
+      for (const worker of this.pool.slice(0, workerCount)) {
+        worker.onmessage = ({ data }) => {
+          if (data.error !== undefined || !data.result) {
+            fail(new Error(`Compile worker failed: ${data.error ?? 'no result'}`));
+            return;
+          }
+          results[data.index] = data.result;
+          if (++done === units.length) {
+            resolve(results);
+          } else {
+            dispatch(worker);
+          }
+        };
+        worker.onerror = (event) => fail(new Error(`Compile worker failed: ${String(event)}`));
+        dispatch(worker);
+      }
+    });
+  }
+}
+
+/**
+ * Diagnostics of the skeleton and every unit, in source order as the sequential compile
+ * reports them
+ */
+function mergeDiagnostics(
+  plan: CompilePlan,
+  skeleton: Diagnostic[],
+  results: UnitResult[],
+): Diagnostic[] {
+  const diagnostics = skeleton.map((diagnostic) =>
+    mapDiagnosticLines(diagnostic, (line) => plan.skeletonLines[line] ?? line),
+  );
+  for (const result of results) diagnostics.push(...result.diagnostics);
+
+  // Stable, so diagnostics at the same position keep unit order; unpositioned ones go last
+  const position = (diagnostic: Diagnostic) =>
+    diagnostic.range
+      ? [diagnostic.range.start.line, diagnostic.range.start.character]
+      : [Number.MAX_SAFE_INTEGER, 0];
+  return diagnostics.sort((a, b) => {
+    const [lineA, charA] = position(a);
+    const [lineB, charB] = position(b);
+    return lineA - lineB || charA - charB;
+  });
+}
@@ -0,0 +1,201 @@
+import type { Diagnostic } from '@rcs-lang/core';
+import { containsSpreadDirective } from '../spread/spreadResolver.js';
+
+/**
+ * A piece of an agent that compiles independently of the rest
+ */
+export interface CompileUnit {
+  kind: 'messages' | 'flow';
+  /** `messages` units: the section header followed by a run of message definitions */
+  text: string;
+  /** Source line (0-based) of the unit's first line */
+  line: number;
+  /** `messages` units: source line of the first message definition, which follows the header */
+  bodyLine?: number;
+}
+
+export interface CompilePlan {
+  /** The source with split-off flows and message definitions removed */
+  skeleton: string;
+  /** Source line (0-based) of each skeleton line */
+  skeletonLines: number[];
+  /** Units in source order */
+  units: CompileUnit[];
+  messageCount: number;
+}
+
+interface Line {
+  text: string;
+  indent: number;
+  /** Blank, comment-only, or inside a multi-line string or code block */
+  opaque: boolean;
+}
+
+const SECTION_HEADER = /^([a-z][a-zA-Z0-9_]*)(?:\s|$)/;
+const BLOCK_STRING_START = /(?:^|\s)(?:\|-?|\+\|\+?)\s*$/;
+const CODE_BLOCK_START = /\$(?:js|ts)?>>>/;
+
+/**
+ * Split a file into its flows and batches of at most `batchSize` message definitions, using
+ * indentation alone. Returns `null` when the layout is not one it can split safely, e.g. a
+ * messages section containing something other than message definitions, or a file using spread
+ * directives, whose targets may live in another unit.
+ *
+ * The split is a plan, not a parse: callers must treat any unit that fails to parse on its own
+ * as a reason to compile the whole file sequentially.
+ */
+export function splitSource(source: string, batchSize: number): CompilePlan | null {
+  if (containsSpreadDirective(source)) return null;
+
+  const lines = scanLines(source);
+  const keep = new Uint8Array(lines.length).fill(1);
+  const units: CompileUnit[] = [];
+  let messageCount = 0;
+
+  for (let i = 0; i < lines.length; i++) {
+    const line = lines[i];
+    if (line.opaque || !keep[i]) continue;
+
+    const type = SECTION_HEADER.exec(line.text.trimStart())?.[1];
+    if (type === 'flow') {
+      const end = sectionEnd(lines, i);
+      units.push({ kind: 'flow', text: joinLines(lines, i, end), line: i });
+      keep.fill(0, i, end);
+      i = end - 1;
+    } else if (type === 'messages') {
+      const end = sectionEnd(lines, i);
+      const messages = splitMessages(lines, i, end);
+      if (!messages) return null;
+
+      for (let m = 0; m < messages.length; m += batchSize) {
+        const batch = messages.slice(m, m + batchSize);
+        const body = batch.map(([from, to]) => joinLines(lines, from, to)).join('');
+        units.push({
+          kind: 'messages',
+          text: `${line.text}\n${body}`,
+          line: i,
+          bodyLine: batch[0][0],
+        });
+      }
+      messageCount += messages.length;
+      keep.fill(0, i + 1, end);
+      i = end - 1;
+    }
+  }
+
+  let skeleton = '';
+  const skeletonLines: number[] = [];
+  for (let i = 0; i < lines.length; i++) {
+    if (keep[i]) {
+      skeleton += `${lines[i].text}\n`;
+      skeletonLines.push(i);
+    }
+  }
+  return { skeleton, skeletonLines, units, messageCount };
+}
+
+/**
+ * Source line of line `line` of a unit's text
+ */
+export function unitSourceLine(unit: CompileUnit, line: number): number {
+  return line === 0 || unit.bodyLine === undefined ? unit.line + line : unit.bodyLine + line - 1;
+}
+
+/**
+ * Copy of a diagnostic reported on a unit or the skeleton, moved to its lines in the source.
+ * Units and the skeleton keep whole source lines, so columns need no mapping.
+ */
+export function mapDiagnosticLines(
+  diagnostic: Diagnostic,
+  sourceLine: (line: number) => number,
+): Diagnostic {
+  const { range } = diagnostic;
+  if (!range) return diagnostic;
+  return {
+    ...diagnostic,
+    range: {
+      start: { line: sourceLine(range.start.line), character: range.start.character },
+      end: { line: sourceLine(range.end.line), character: range.end.character },
+    },
+  };
+}
+
+function scanLines(source: string): Line[] {
+  const lines: Line[] = [];
+  let inTripleQuote = false;
+  let inBlockString = false;
+  let inCode = false;
+
+  for (const text of source.split(/\r\n|\r|\n/)) {
+    const trimmed = text.trim();
+    let indent = 0;
+    while (indent < text.length && (text[indent] === ' ' || text[indent] === '\t')) indent++;
+
+    const opaque =
+      inTripleQuote || inBlockString || inCode || trimmed === '' || trimmed.startsWith('#');
+    lines.push({ text, indent, opaque });
+
+    if (inBlockString) {
+      if (trimmed === '|') inBlockString = false;
+      continue;
+    }
+    if (inCode) {
+      if (text.includes('<$')) inCode = false;
+      continue;
+    }
+    if ((text.split('"""').length - 1) % 2 === 1) {
+      inTripleQuote = !inTripleQuote;
+      continue;
+    }
+    if (inTripleQuote) continue;
+
+    if (CODE_BLOCK_START.test(text) && !text.includes('<$')) {
+      inCode = true;
+    } else if (BLOCK_STRING_START.test(text)) {
+      inBlockString = true;
+    }
+  }
+  return lines;
+}
+
+/**
+ * Index just past the last line belonging to the section whose header is at `start`
+ */
+function sectionEnd(lines: Line[], start: number): number {
+  const indent = lines[start].indent;
+  let end = start + 1;
+  for (let i = start + 1; i < lines.length; i++) {
+    if (lines[i].opaque) continue;
+    if (lines[i].indent <= indent) break;
+    end = i + 1;
+  }
+  return end;
+}
+
+/**
+ * Line ranges of the message definitions in a messages section body
+ */
+function splitMessages(lines: Line[], header: number, end: number): Array<[number, number]> | null {
+  const messages: Array<[number, number]> = [];
+  let childIndent = -1;
+
+  for (let i = header + 1; i < end; i++) {
+    const line = lines[i];
+    if (line.opaque) continue;
+
+    if (childIndent < 0) childIndent = line.indent;
+    if (line.indent < childIndent) return null;
+    if (line.indent > childIndent) continue;
+
+    if (!SECTION_HEADER.test(line.text.trimStart())) return null;
+    if (messages.length > 0) messages[messages.length - 1][1] = i;
+    messages.push([i, end]);
+  }
+  return messages;
+}
+
+function joinLines(lines: Line[], from: number, to: number): string {
+  let text = '';
+  for (let i = from; i < to; i++) text += `${lines[i].text}\n`;
+  return text;
+}
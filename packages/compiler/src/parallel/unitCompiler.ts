@@ -0,0 +1,43 @@
+import { isSection } from '@rcs-lang/ast';
+import type { Diagnostic } from '@rcs-lang/core';
+import { parseSectionFragment } from '@rcs-lang/parser';
+import { TransformStage } from '../stages/transformStage.js';
+import { type CompileUnit, mapDiagnosticLines, unitSourceLine } from './sectionSplitter.js';
+
+export interface UnitResult {
+  /** Serialized `[id, json]` entries in source order */
+  entries: Array<[id: string, json: string]>;
+  /** Parse diagnostics, positioned in the whole source */
+  diagnostics: Diagnostic[];
+  /** The unit did not parse cleanly on its own */
+  failed: boolean;
+}
+
+/**
+ * Compile one unit to serialized entries. Pure, so it gives the same result on any thread.
+ */
+export function compileUnit(unit: CompileUnit, transform = new TransformStage()): UnitResult {
+  const parsed = parseSectionFragment(unit.text);
+  if (!parsed.success || parsed.value.diagnostics.some((d) => d.severity === 'error')) {
+    return { entries: [], diagnostics: [], failed: true };
+  }
+
+  const section = parsed.value.node;
+  const entries: Array<[string, string]> = [];
+
+  if (unit.kind === 'flow') {
+    const flow = transform.transformFlow(section);
+    if (flow) entries.push([flow.id, JSON.stringify(flow)]);
+  } else {
+    for (const element of section.body) {
+      if (!isSection(element)) continue;
+      const message = transform.transformMessage(element);
+      if (message) entries.push([message.id, JSON.stringify(message.message)]);
+    }
+  }
+
+  const diagnostics = parsed.value.diagnostics.map((diagnostic) =>
+    mapDiagnosticLines(diagnostic, (line) => unitSourceLine(unit, line)),
+  );
+  return { entries, diagnostics, failed: false };
+}
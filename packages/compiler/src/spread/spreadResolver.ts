@@ -0,0 +1,183 @@
+import {
+  type Attribute,
+  type RclFile,
+  type Section,
+  type SpreadDirective,
+  isAttribute,
+  isSection,
+  isSpreadDirective,
+} from '@rcs-lang/ast';
+import { type Diagnostic, type RCLError, RCLErrorFactory, errorToDiagnostic } from '@rcs-lang/core';
+
+/**
+ * Flattened attributes of a section, keyed by attribute name. Sets are shared between sections
+ * whenever one adds nothing to what it spreads, so they must not be modified.
+ */
+export type AttributeSet = ReadonlyMap<string, Attribute>;
+
+const EMPTY: AttributeSet = new Map();
+const SPREAD_LINE = /^[ \t]*\.\.\.[A-Z]/m;
+
+/**
+ * Quick textual check for spread directives, for callers that split or stream a file and must
+ * handle spreads on the whole file instead. May report spreads inside multi-line strings.
+ */
+export function containsSpreadDirective(source: string): boolean {
+  return SPREAD_LINE.test(source);
+}
+
+/**
+ * Resolves `...Name` spread directives to flattened attribute sets.
+ *
+ * All sections of the given files are resolved up front in one depth-first pass over the spread
+ * graph, so each section is flattened exactly once, after the sections it spreads, and cycles
+ * are found in O(V + E). Within a section, body order decides: a later attribute or spread
+ * overrides an earlier one with the same name. Spreads that close a cycle or name an undefined
+ * section are reported and then ignored.
+ */
+export class SpreadResolver {
+  private readonly named = new Map<string, Section>();
+  private readonly sections: Section[] = [];
+  private readonly resolved = new Map<Section, AttributeSet>();
+  private readonly order: Section[] = [];
+  private readonly problems: Diagnostic[] = [];
+  private readonly skipped = new Set<SpreadDirective>();
+
+  constructor(files: RclFile | RclFile[]) {
+    const collect = (section: Section) => {
+      this.sections.push(section);
+      const name = section.identifier?.value;
+      if (name && !this.named.has(name)) {
+        this.named.set(name, section);
+      }
+      for (const element of section.body) {
+        if (isSection(element)) collect(element);
+      }
+    };
+    for (const file of Array.isArray(files) ? files : [files]) {
+      file.sections.forEach(collect);
+    }
+
+    for (const section of this.sections) {
+      if (!this.resolved.has(section)) this.visit(section);
+    }
+  }
+
+  /**
+   * Flattened attributes of the section named `name`
+   */
+  attributes(name: string): AttributeSet | undefined {
+    const section = this.named.get(name);
+    return section && this.resolved.get(section);
+  }
+
+  /**
+   * Flattened attributes of a section from the resolved files
+   */
+  attributesOf(section: Section): AttributeSet | undefined {
+    return this.resolved.get(section);
+  }
+
+  /**
+   * Whether a spread directive was ignored because it closes a cycle or names an undefined
+   * section. Callers applying spreads themselves must skip these too.
+   */
+  isSkipped(spread: SpreadDirective): boolean {
+    return this.skipped.has(spread);
+  }
+
+  /**
+   * Names of the sections in resolution order: every section comes after those it spreads
+   */
+  resolutionOrder(): string[] {
+    return this.order
+      .map((section) => section.identifier?.value)
+      .filter((name): name is string => name !== undefined);
+  }
+
+  /**
+   * Undefined spread targets and spread cycles
+   */
+  get diagnostics(): readonly Diagnostic[] {
+    return this.problems;
+  }
+
+  /**
+   * Iterative depth-first traversal from `root`, flattening sections in post-order
+   */
+  private visit(root: Section): void {
+    const stack: Array<{ section: Section; next: number; spreads: SpreadDirective[] }> = [];
+    const onStack = new Map<Section, number>();
+
+    const push = (section: Section) => {
+      onStack.set(section, stack.length);
+      stack.push({ section, next: 0, spreads: section.body.filter(isSpreadDirective) });
+    };
+    push(root);
+
+    while (stack.length > 0) {
+      const frame = stack[stack.length - 1];
+
+      if (frame.next < frame.spreads.length) {
+        const spread = frame.spreads[frame.next++];
+        const targetName = spread.reference.value;
+        const target = this.named.get(targetName);
+        const position = spread.location?.range.start;
+
+        if (!target) {
+          this.report(RCLErrorFactory.undefinedSpreadReference(targetName, position));
+          this.skipped.add(spread);
+        } else if (onStack.has(target)) {
+          const cycle = stack.slice(onStack.get(target)).map((entry) => nameOf(entry.section));
+          this.report(RCLErrorFactory.circularReference(cycle, position));
+          this.skipped.add(spread);
+        } else if (!this.resolved.has(target)) {
+          push(target);
+        }
+        continue;
+      }
+
+      stack.pop();
+      onStack.delete(frame.section);
+      this.resolved.set(frame.section, this.flatten(frame.section));
+      this.order.push(frame.section);
+    }
+  }
+
+  /**
+   * Merge a section's spreads and attributes in body order. Spread targets are already resolved.
+   */
+  private flatten(section: Section): AttributeSet {
+    let base = EMPTY;
+    let own: Map<string, Attribute> | undefined;
+
+    for (const element of section.body) {
+      if (isSpreadDirective(element)) {
+        if (this.skipped.has(element)) continue;
+        const target = this.attributes(element.reference.value);
+        if (!target || target.size === 0) continue;
+
+        if (!own && base.size === 0) {
+          // Share the target's set until this section adds something of its own
+          base = target;
+        } else {
+          own ??= new Map(base);
+          for (const [key, attribute] of target) own.set(key, attribute);
+        }
+      } else if (isAttribute(element)) {
+        own ??= new Map(base);
+        own.set(element.key, element);
+      }
+    }
+
+    return own ?? base;
+  }
+
+  private report(error: RCLError): void {
+    this.problems.push(errorToDiagnostic(error));
+  }
+}
+
+function nameOf(section: Section): string {
+  return section.identifier?.value ?? section.sectionType;
+}
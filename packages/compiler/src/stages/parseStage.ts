@@ -1,6 +1,7 @@
 import { type Result, err, ok } from '@rcs-lang/core';
 import type { ICompilationInput, ICompilationStage } from '@rcs-lang/core';
 import { ParserFactory } from '@rcs-lang/parser';
+import type { CompileCache } from '../cache/compileCache.js';
 
 /**
  * Parse stage - converts source text to AST
@@ -8,6 +9,11 @@ import { ParserFactory } from '@rcs-lang/parser';
 export class ParseStage implements ICompilationStage {
   readonly name = 'parse';
 
+  /**
+   * @param cache - Reuse ASTs of previously parsed sources with identical content
+   */
+  constructor(private readonly cache?: CompileCache) {}
+
   async process(input: ICompilationInput): Promise<Result<any>> {
     try {
       // Skip if AST already provided
@@ -19,6 +25,18 @@ export class ParseStage implements ICompilationStage {
         });
       }
 
+      const cacheKey = this.cache ? await this.cache.key(input.source) : undefined;
+      if (cacheKey) {
+        const cached = await this.cache!.getParse(cacheKey);
+        if (cached) {
+          return ok({
+            ...input,
+            ast: cached.ast,
+            diagnostics: cached.diagnostics,
+          });
+        }
+      }
+
       // Create parser
       const parserResult = await ParserFactory.create();
       if (!parserResult.success) {
@@ -40,6 +58,10 @@ export class ParseStage implements ICompilationStage {
         return err(new Error('Parsing failed - no AST produced'));
       }
 
+      if (cacheKey) {
+        await this.cache!.setParse(cacheKey, { ast, diagnostics });
+      }
+
       return ok({
         ...input,
         ast,
@@ -43,6 +43,7 @@ import {
   isPropertyAccess,
   isSection,
   isSimpleTransition,
+  isSpreadDirective,
   isStringLiteral,
   isTypeTag,
   isValue,
@@ -50,6 +51,11 @@ import {
 } from '@rcs-lang/ast';
 import { type IASTNode, type Result, err, ok } from '@rcs-lang/core';
 import type { ICompilationOutput, ICompilationStage } from '@rcs-lang/core';
+import { TypeTagRegistry } from '@rcs-lang/parser';
+import { type AttributeSet, SpreadResolver } from '../spread/spreadResolver.js';
+
+/** Shared across compilations so recurring tag values are parsed once */
+const typeTags = TypeTagRegistry.createDefault();
 
 interface TransformInput {
   ast: IASTNode;
@@ -60,7 +66,7 @@ interface TransformInput {
 }
 
 // CSM-compliant interfaces
-interface CSMTransition {
+export interface CSMTransition {
   pattern?: string;
   target: string;
   context?: Record<string, any>;
@@ -69,7 +75,7 @@ interface CSMTransition {
   meta?: Record<string, any>;
 }
 
-interface CSMStateDefinition {
+export interface CSMStateDefinition {
   transitions: CSMTransition[];
   meta?: {
     messageId?: string;
@@ -79,10 +85,12 @@ interface CSMStateDefinition {
   };
 }
 
-interface CSMMachineDefinition {
+export interface CSMMachineDefinition {
   id: string;
   initial: string;
   states: Record<string, CSMStateDefinition>;
+  /** States merged away by minimization, mapped to the state that replaced them */
+  aliases?: Record<string, string>;
   meta?: {
     name?: string;
     description?: string;
@@ -107,6 +115,8 @@ interface BuildOutput {
 export class TransformStage implements ICompilationStage {
   readonly name = 'transform';
   private defaults: Record<string, any> = {};
+  private spreads: SpreadResolver | undefined;
+  private spreadValueCache = new WeakMap<AttributeSet, Record<string, any>>();
 
   async process(input: TransformInput): Promise<Result<any>> {
     try {
@@ -145,13 +155,14 @@ export class TransformStage implements ICompilationStage {
 
       // Transform AST to output structure
       const output = this.transformRclFile(rclFile);
+      const spreadDiagnostics = this.spreads?.diagnostics ?? [];
 
       return ok({
         ...input,
         ast: input.ast,
         output,
-        success: true,
-        diagnostics: input.diagnostics || [],
+        success: spreadDiagnostics.length === 0,
+        diagnostics: [...(input.diagnostics || []), ...spreadDiagnostics],
       });
     } catch (error) {
       console.error('Transform stage error:', error);
@@ -181,7 +192,10 @@ export class TransformStage implements ICompilationStage {
   /**
    * Transform RclFile to compilation output
    */
-  private transformRclFile(file: RclFile): ICompilationOutput {
+  transformRclFile(file: RclFile): ICompilationOutput {
+    this.spreads = new SpreadResolver(file);
+    this.spreadValueCache = new WeakMap();
+
     let agentName = 'Agent';
     let initialFlow = '';
 
@@ -394,7 +408,18 @@ export class TransformStage implements ICompilationStage {
    * Process flow section
    */
   private processFlowSection(section: Section, output: BuildOutput): void {
-    if (!section.identifier) return;
+    const flow = this.transformFlow(section);
+    if (flow) {
+      // Store CSM-compliant flow
+      output.flows[flow.id] = flow;
+    }
+  }
+
+  /**
+   * Transform a single flow section into its CSM machine definition
+   */
+  transformFlow(section: Section): CSMMachineDefinition | undefined {
+    if (!section.identifier) return undefined;
 
     const flowName = section.identifier.value;
 
@@ -419,8 +444,7 @@ export class TransformStage implements ICompilationStage {
       }
     }
 
-    // Store CSM-compliant flow
-    output.flows[flowName] = csmFlow;
+    return csmFlow;
   }
 
   /**
@@ -430,60 +454,71 @@ export class TransformStage implements ICompilationStage {
     // Messages are typically defined as sub-sections
     for (const element of section.body) {
       if (isSection(element)) {
-        const messageType = element.sectionType;
-        const messageName = element.identifier?.value;
+        const message = this.transformMessage(element);
+        if (message) {
+          output.messages[message.id] = message.message;
+        }
+      }
+    }
+  }
 
-        if (messageName) {
-          const message: any = {
-            type: messageType,
-          };
+  /**
+   * Transform a single message definition (a section inside a messages section)
+   */
+  transformMessage(element: Section): { id: string; message: Record<string, any> } | undefined {
+    const messageType = element.sectionType;
+    const messageName = element.identifier?.value;
+    if (!messageName) return undefined;
 
-          // Check for inline parameters (e.g., text Welcome "Hello!")
-          // For inline message definitions, the content is in parameters, not body
-          const params = (element as any).parameters;
-          if (params && Array.isArray(params) && params.length > 0) {
-            for (const param of params) {
-              const value = this.extractValue(param.value);
-              if (param.key) {
-                // Named parameter: key: value
-                message[param.key] = value;
-              } else if (messageType === 'text' && typeof value === 'string') {
-                // Positional parameter for text message - this is the text content
-                message.text = value;
-              } else if (typeof value === 'string') {
-                // For other message types, store as content
-                message.content = value;
-              } else {
-                // Store complex values directly
-                Object.assign(message, value);
-              }
-            }
-          }
+    const message: any = {
+      type: messageType,
+    };
 
-          // Process message body elements (for multi-line message definitions)
-          for (const msgElement of element.body) {
-            if (isAttribute(msgElement)) {
-              // Attribute: key: value
-              message[msgElement.key] = this.extractValue(msgElement.value);
-            } else if (isValue(msgElement)) {
-              // Standalone value - for text messages, this is the text content
-              const value = this.extractValue(msgElement);
-              if (messageType === 'text' && typeof value === 'string') {
-                message.text = value;
-              } else if (typeof value === 'string') {
-                // For other message types, store as content
-                message.content = value;
-              } else {
-                // Store complex values directly
-                Object.assign(message, value);
-              }
-            }
-          }
+    // Check for inline parameters (e.g., text Welcome "Hello!")
+    // For inline message definitions, the content is in parameters, not body
+    const params = (element as any).parameters;
+    if (params && Array.isArray(params) && params.length > 0) {
+      for (const param of params) {
+        const value = this.extractValue(param.value);
+        if (param.key) {
+          // Named parameter: key: value
+          message[param.key] = value;
+        } else if (messageType === 'text' && typeof value === 'string') {
+          // Positional parameter for text message - this is the text content
+          message.text = value;
+        } else if (typeof value === 'string') {
+          // For other message types, store as content
+          message.content = value;
+        } else {
+          // Store complex values directly
+          Object.assign(message, value);
+        }
+      }
+    }
 
-          output.messages[messageName] = message;
+    // Process message body elements (for multi-line message definitions)
+    for (const msgElement of element.body) {
+      if (isAttribute(msgElement)) {
+        // Attribute: key: value
+        message[msgElement.key] = this.extractValue(msgElement.value);
+      } else if (isSpreadDirective(msgElement)) {
+        Object.assign(message, this.spreadValues(msgElement));
+      } else if (isValue(msgElement)) {
+        // Standalone value - for text messages, this is the text content
+        const value = this.extractValue(msgElement);
+        if (messageType === 'text' && typeof value === 'string') {
+          message.text = value;
+        } else if (typeof value === 'string') {
+          // For other message types, store as content
+          message.content = value;
+        } else {
+          // Store complex values directly
+          Object.assign(message, value);
         }
       }
     }
+
+    return { id: messageName, message };
   }
 
   /**
@@ -493,6 +528,8 @@ export class TransformStage implements ICompilationStage {
     for (const element of section.body) {
       if (isAttribute(element)) {
         this.defaults[element.key] = this.extractValue(element.value);
+      } else if (isSpreadDirective(element)) {
+        Object.assign(this.defaults, this.spreadValues(element));
       }
     }
   }
@@ -505,10 +542,33 @@ export class TransformStage implements ICompilationStage {
     for (const element of section.body) {
       if (isAttribute(element)) {
         output.agent[element.key] = this.extractValue(element.value);
+      } else if (isSpreadDirective(element)) {
+        Object.assign(output.agent, this.spreadValues(element));
       }
     }
   }
 
+  /**
+   * Values of the attributes a spread directive brings in. Each flattened attribute set is
+   * extracted once, however many sections spread it. Without a resolved file (when transforming
+   * single sections) spreads contribute nothing, and neither do spreads the resolver ignored.
+   */
+  private spreadValues(spread: SpreadDirective): Record<string, any> {
+    if (!this.spreads || this.spreads.isSkipped(spread)) return {};
+    const attributes = this.spreads.attributes(spread.reference.value);
+    if (!attributes) return {};
+
+    let values = this.spreadValueCache.get(attributes);
+    if (!values) {
+      values = {};
+      for (const [key, attribute] of attributes) {
+        values[key] = this.extractValue(attribute.value);
+      }
+      this.spreadValueCache.set(attributes, values);
+    }
+    return values;
+  }
+
   /**
    * Extract value from AST value node
    */
@@ -562,6 +622,11 @@ export class TransformStage implements ICompilationStage {
       if (value.qualifier !== undefined) {
         result.qualifier = value.qualifier;
       }
+      // Structured value for known tag types; unknown or invalid tags keep only the raw value
+      const parsed = typeTags.convertTag(value);
+      if (parsed.success) {
+        result.parsed = parsed.value;
+      }
       return result;
     }
     if (isList(value)) {
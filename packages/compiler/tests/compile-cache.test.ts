@@ -0,0 +1,108 @@
+import { describe, expect, spyOn, test } from 'bun:test';
+import { readFileSync } from 'node:fs';
+import { resolve } from 'node:path';
+import { MemoryFileSystem } from '@rcs-lang/file-system';
+import { ParserFactory } from '@rcs-lang/parser';
+import {
+  CompileCache,
+  type CompileCacheStore,
+  MemoryCacheStore,
+} from '../src/cache/compileCache.js';
+import { RCLCompiler } from '../src/compiler.js';
+import { ParseStage } from '../src/stages/parseStage.js';
+
+const coffeeShop = readFileSync(resolve(import.meta.dir, 'fixtures/coffee-shop.rcl'), 'utf-8');
+
+function createCompiler(cache?: CompileCache) {
+  return new RCLCompiler({ fileSystem: new MemoryFileSystem(), cache });
+}
+
+describe('CompileCache', () => {
+  test('keys depend on content only', async () => {
+    const cache = new CompileCache(new MemoryCacheStore());
+    const key = await cache.key(coffeeShop);
+
+    expect(key).toMatch(/^[0-9a-f]{64}$/);
+    expect(await cache.key(`${coffeeShop}`)).toBe(key);
+    expect(await cache.key(`${coffeeShop}\n`)).not.toBe(key);
+    expect(await new CompileCache(new MemoryCacheStore()).key(coffeeShop)).toBe(key);
+  });
+
+  test('returns cached output without parsing', async () => {
+    const cache = new CompileCache(new MemoryCacheStore());
+    const first = await createCompiler(cache).compile({ source: coffeeShop, uri: 'a.rcl' });
+    expect(first.success).toBe(true);
+
+    const create = spyOn(ParserFactory, 'create');
+    try {
+      const second = await createCompiler(cache).compile({ source: coffeeShop, uri: 'b.rcl' });
+      expect(create).not.toHaveBeenCalled();
+      if (!first.success || !second.success) throw new Error('Compilation failed');
+      expect(second.value).toEqual(JSON.parse(JSON.stringify(first.value)));
+    } finally {
+      create.mockRestore();
+    }
+    expect(cache.stats.hits).toBe(1);
+  });
+
+  test('matches uncached compilation', async () => {
+    const cache = new CompileCache(new MemoryCacheStore());
+    await createCompiler(cache).compile({ source: coffeeShop, uri: 'test.rcl' });
+    const cached = await createCompiler(cache).compile({ source: coffeeShop, uri: 'test.rcl' });
+    const plain = await createCompiler().compile({ source: coffeeShop, uri: 'test.rcl' });
+
+    if (!cached.success || !plain.success) throw new Error('Compilation failed');
+    expect(cached.value.output).toEqual(plain.value.output);
+  });
+
+  test('parse stage reuses cached ASTs', async () => {
+    const cache = new CompileCache(new MemoryCacheStore());
+    const stage = new ParseStage(cache);
+    const first = await stage.process({ source: coffeeShop, uri: 'test.rcl' });
+
+    const create = spyOn(ParserFactory, 'create');
+    try {
+      const second = await stage.process({ source: coffeeShop, uri: 'test.rcl' });
+      expect(create).not.toHaveBeenCalled();
+      if (!first.success || !second.success) throw new Error('Parse failed');
+      expect(second.value.ast).toEqual(JSON.parse(JSON.stringify(first.value.ast)));
+    } finally {
+      create.mockRestore();
+    }
+  });
+
+  test('treats corrupt entries as misses and survives store failures', async () => {
+    const store = new MemoryCacheStore();
+    const cache = new CompileCache(store);
+    const key = await cache.key(coffeeShop);
+    await store.set(`${key}.compile`, '{"truncated');
+
+    expect(await cache.getCompile(key)).toBeUndefined();
+
+    const failing: CompileCacheStore = {
+      get: async () => undefined,
+      set: async () => {
+        throw new Error('disk full');
+      },
+    };
+    const result = await createCompiler(new CompileCache(failing)).compile({
+      source: coffeeShop,
+      uri: 'test.rcl',
+    });
+    expect(result.success).toBe(true);
+  });
+});
+
+describe('MemoryCacheStore', () => {
+  test('evicts least recently used entries', async () => {
+    const store = new MemoryCacheStore(10);
+    await store.set('a', 'xxxx');
+    await store.set('b', 'xxxx');
+    await store.get('a');
+    await store.set('c', 'xxxx');
+
+    expect(await store.get('a')).toBe('xxxx');
+    expect(await store.get('b')).toBeUndefined();
+    expect(await store.get('c')).toBe('xxxx');
+  });
+});
@@ -0,0 +1,47 @@
+import { describe, expect, test } from 'bun:test';
+import { readFileSync } from 'node:fs';
+import { resolve } from 'node:path';
+import type { ICompilationOutput } from '@rcs-lang/core';
+import { BinaryAgent } from '@rcs-lang/csm';
+import { MemoryFileSystem } from '@rcs-lang/file-system';
+import { RCLCompiler } from '../src/compiler.js';
+import { toBinaryAgent } from '../src/output/binaryOutput.js';
+import { dedupeOutput, expandOutput } from '../src/output/dedupOutput.js';
+
+const coffeeShop = readFileSync(resolve(import.meta.dir, 'fixtures/coffee-shop.rcl'), 'utf-8');
+
+async function compile(source: string): Promise<ICompilationOutput> {
+  const compiler = new RCLCompiler({ fileSystem: new MemoryFileSystem() });
+  const result = await compiler.compile({ source, uri: 'test.rcl' });
+  if (!result.success || !result.value.output) throw new Error('Compilation failed');
+  return result.value.output;
+}
+
+describe('dedupeOutput', () => {
+  test('shrinks output with repeated payloads and expands back', async () => {
+    const output = await compile(coffeeShop);
+    const deduped = dedupeOutput(output);
+
+    expect(deduped.bundle.messages.shared.length).toBeGreaterThan(0);
+    expect(JSON.stringify(deduped).length).toBeLessThan(JSON.stringify(output).length);
+    expect(deduped.csm).toBe(output.csm);
+    expect(expandOutput(JSON.parse(JSON.stringify(deduped)))).toEqual(output);
+  });
+
+  test('returns output without a shared table unchanged', async () => {
+    const output = await compile(coffeeShop);
+    expect(expandOutput(output)).toBe(output);
+  });
+
+  test('encodes deduplicated binary agents', async () => {
+    const output = await compile(coffeeShop);
+    const plain = toBinaryAgent(output);
+    const deduped = toBinaryAgent(output, { dedupe: true });
+    const agent = BinaryAgent.from(deduped);
+
+    expect(deduped.length).toBeLessThan(plain.length);
+    for (const [id, message] of Object.entries(output.bundle.messages.messages)) {
+      expect(agent.getMessage(id)).toEqual(JSON.parse(JSON.stringify(message)));
+    }
+  });
+});
@@ -0,0 +1,116 @@
+import { beforeEach, describe, expect, test } from 'bun:test';
+import { MemoryFileSystem } from '@rcs-lang/file-system';
+import { IncrementalBuilder } from '../src/incremental/incrementalBuilder.js';
+
+const SHARED = '/project/shared/messages.rcl';
+const A = '/project/agents/a.rcl';
+const B = '/project/agents/b.rcl';
+const C = '/project/agents/c.rcl';
+
+function agentSource(name: string, messages: Record<string, string>, imports: string[] = []) {
+  const lines = imports.map((path) => `import ${path}`);
+  lines.push(`agent ${name}`, `  displayName: "${name}"`, '', '  messages Messages');
+  for (const [id, text] of Object.entries(messages)) {
+    lines.push(`    text ${id} "${text}"`);
+  }
+  const first = Object.keys(messages)[0];
+  lines.push('', '  flow Main', `    start: ${first}`, `    on ${first}`, '      match @reply.text');
+  lines.push(`        "Again" -> ${first}`, '');
+  return lines.join('\n');
+}
+
+describe('IncrementalBuilder', () => {
+  let fileSystem: MemoryFileSystem;
+
+  const write = async (path: string, content: string) => {
+    await fileSystem.mkdir(fileSystem.dirname(path), true);
+    await fileSystem.writeFile(path, content);
+  };
+
+  const build = async (builder: IncrementalBuilder, files = [SHARED, A, B, C]) => {
+    const result = await builder.build(files);
+    if (!result.success) throw result.error;
+    return result.value;
+  };
+
+  beforeEach(async () => {
+    fileSystem = new MemoryFileSystem();
+    await write(SHARED, agentSource('Shared', { Welcome: 'Hello' }));
+    await write(A, agentSource('A', { Start: 'A' }, ['Shared/Messages']));
+    await write(B, agentSource('B', { Start: 'B' }, ['Shared/Messages']));
+    await write(C, agentSource('C', { Start: 'C' }));
+  });
+
+  test('compiles everything on the first build', async () => {
+    const builder = new IncrementalBuilder({ fileSystem, projectRoot: '/project' });
+    const result = await build(builder);
+
+    // Dependencies come first
+    expect(result.compiled).toEqual([SHARED, A, B, C]);
+    expect(result.reused).toEqual([]);
+    for (const path of result.compiled) {
+      expect(result.results.get(path)?.success).toBe(true);
+    }
+    expect(builder.dependentsOf(SHARED)).toEqual([A, B]);
+  });
+
+  test('reuses unchanged files', async () => {
+    const builder = new IncrementalBuilder({ fileSystem, projectRoot: '/project' });
+    await build(builder);
+    const result = await build(builder);
+
+    expect(result.compiled).toEqual([]);
+    expect(result.reused).toEqual([SHARED, A, B, C].sort());
+  });
+
+  test('does not rebuild dependents when the exported interface is unchanged', async () => {
+    const builder = new IncrementalBuilder({ fileSystem, projectRoot: '/project' });
+    await build(builder);
+
+    await write(SHARED, agentSource('Shared', { Welcome: 'Hello again' }));
+    expect((await build(builder)).compiled).toEqual([SHARED]);
+  });
+
+  test('rebuilds dependents when the exported interface changes', async () => {
+    const builder = new IncrementalBuilder({ fileSystem, projectRoot: '/project' });
+    await build(builder);
+
+    await write(SHARED, agentSource('Shared', { Welcome: 'Hello', Goodbye: 'Bye' }));
+    const result = await build(builder);
+
+    expect(result.compiled).toEqual([SHARED, A, B]);
+    expect(result.reused).toEqual([C]);
+  });
+
+  test('rebuilds dependents of removed files', async () => {
+    const builder = new IncrementalBuilder({ fileSystem, projectRoot: '/project' });
+    await build(builder);
+    const result = await build(builder, [A, B, C]);
+
+    expect(result.removed).toEqual([SHARED]);
+    expect(result.compiled).toEqual([A, B]);
+    expect(builder.dependentsOf(SHARED)).toEqual([]);
+  });
+
+  test('resolves imports relative to the importing file first', async () => {
+    const local = '/project/agents/shared/messages.rcl';
+    await write(local, agentSource('Local', { Welcome: 'Local' }));
+    const builder = new IncrementalBuilder({ fileSystem, projectRoot: '/project' });
+    await build(builder, [SHARED, A, local]);
+
+    expect(builder.getState().files[A].dependencies).toEqual([local]);
+    expect(builder.dependentsOf(SHARED)).toEqual([]);
+  });
+
+  test('continues from saved state', async () => {
+    const first = new IncrementalBuilder({ fileSystem, projectRoot: '/project' });
+    await build(first);
+    const state = JSON.parse(JSON.stringify(first.getState()));
+
+    await write(C, agentSource('C', { Start: 'Changed' }));
+    const second = new IncrementalBuilder({ fileSystem, projectRoot: '/project', state });
+    const result = await build(second);
+
+    expect(result.compiled).toEqual([C]);
+  });
+});
@@ -57,4 +57,37 @@ agent TestAgent
       expect(js).toMatch(/export const flows = \{[\s\S]*?\};/);
     }
   });
+
+  test('should emit compiled flow matchers when requested', async () => {
+    const compiler = new RCLCompiler({ fileSystem: new MemoryFileSystem(), compileFlows: true });
+
+    const result = await compiler.compileToJavaScript({
+      source: `
+agent TestAgent
+  displayName: "Test Agent"
+
+  flow TestFlow
+    start: Welcome
+
+    on Welcome
+      match @reply.text
+        "Hello" -> Greeting
+
+    on Greeting
+      -> Welcome
+
+  messages Messages
+    text Welcome "Welcome!"
+    text Greeting "Hello there!"
+`,
+      uri: 'test.rcl',
+    });
+
+    expect(result.success).toBe(true);
+    if (result.success) {
+      expect(result.value).toContain('export const flowMatchers = {');
+      expect(result.value).toContain('"TestFlow": function (T, h) {');
+      expect(result.value).toContain('    flowMatchers,');
+    }
+  });
 });
@@ -0,0 +1,54 @@
+import { describe, expect, test } from 'bun:test';
+import { JsonWriter, StringSink } from '../src/output/jsonWriter.js';
+
+describe('JsonWriter', () => {
+  test('writes nested structures with separators', () => {
+    const sink = new StringSink();
+    new JsonWriter(sink)
+      .beginObject()
+      .name('a')
+      .value(1)
+      .name('list')
+      .beginArray()
+      .value('x')
+      .beginObject()
+      .property('skipped', undefined)
+      .property('kept', null)
+      .endObject()
+      .raw('{"pre":true}')
+      .endArray()
+      .name('b "quoted"')
+      .value({ nested: [1, 2] })
+      .endObject()
+      .close();
+
+    const text = sink.toString();
+    expect(text).toBe(
+      '{"a":1,"list":["x",{"kept":null},{"pre":true}],"b \\"quoted\\"":{"nested":[1,2]}}',
+    );
+    expect(JSON.parse(text)).toBeTruthy();
+  });
+
+  test('flushes in chunks once the buffer fills', () => {
+    const chunks: string[] = [];
+    const writer = new JsonWriter({ write: (chunk: string) => chunks.push(chunk) }, 16);
+
+    writer.beginArray();
+    for (let i = 0; i < 100; i++) writer.value('abcdefgh');
+    writer.endArray().close();
+
+    expect(chunks.length).toBeGreaterThan(10);
+    expect(JSON.parse(chunks.join(''))).toHaveLength(100);
+  });
+
+  test('rejects malformed sequences', () => {
+    const writer = new JsonWriter(new StringSink());
+    writer.beginObject();
+
+    expect(() => writer.value(1)).toThrow();
+    expect(() => writer.endArray()).toThrow();
+    writer.name('key');
+    expect(() => writer.name('other')).toThrow();
+    expect(() => writer.close()).toThrow();
+  });
+});
@@ -0,0 +1,154 @@
+import { describe, expect, test } from 'bun:test';
+import type { ICompilationOutput } from '@rcs-lang/core';
+import { BinaryAgent, FlowMachine } from '@rcs-lang/csm';
+import { toBinaryAgent } from '../src/output/binaryOutput.js';
+import { minimizeFlow, minimizeOutput } from '../src/output/minimizeFlows.js';
+import type { CSMMachineDefinition } from '../src/stages/transformStage.js';
+
+const state = (messageId: string, transitions: Array<[pattern: string, target: string]>) => ({
+  transitions: transitions.map(([pattern, target]) => ({ pattern, target })),
+  meta: { messageId },
+});
+
+function flow(states: CSMMachineDefinition['states'], initial = 'Start'): CSMMachineDefinition {
+  return { id: 'Main', initial, states };
+}
+
+describe('minimizeFlow', () => {
+  test('merges states with the same message and transitions', () => {
+    const minimized = minimizeFlow(
+      flow({
+        Start: state('Welcome', [
+          ['a', 'AskSize'],
+          ['b', 'AskSizeAgain'],
+        ]),
+        AskSize: state('Size', [['small', 'Done']]),
+        AskSizeAgain: state('Size', [['small', 'Done']]),
+        Done: state('Done', [['restart', 'Start']]),
+      }),
+    );
+
+    expect(Object.keys(minimized.states)).toEqual(['Start', 'AskSize', 'Done']);
+    expect(minimized.states.Start.transitions.map((t) => t.target)).toEqual(['AskSize', 'AskSize']);
+    expect(minimized.aliases).toEqual({ AskSizeAgain: 'AskSize' });
+  });
+
+  test('keeps states apart when their targets differ', () => {
+    const original = flow({
+      Start: state('Welcome', [['go', 'Left']]),
+      Left: state('Choice', [['next', 'Red']]),
+      Right: state('Choice', [['next', 'Blue']]),
+      Red: state('Red', []),
+      Blue: state('Blue', []),
+    });
+
+    expect(minimizeFlow(original)).toBe(original);
+  });
+
+  test('merges chains and cycles of equivalent states', () => {
+    const minimized = minimizeFlow(
+      flow({
+        Start: state('Welcome', [
+          ['one', 'Ping1'],
+          ['two', 'Ping2'],
+        ]),
+        Ping1: state('Ping', [['next', 'Pong1']]),
+        Pong1: state('Pong', [['next', 'Ping1']]),
+        Ping2: state('Ping', [['next', 'Pong2']]),
+        Pong2: state('Pong', [['next', 'Ping2']]),
+      }),
+    );
+
+    expect(Object.keys(minimized.states)).toEqual(['Start', 'Ping1', 'Pong1']);
+    expect(minimized.aliases).toEqual({ Ping2: 'Ping1', Pong2: 'Pong1' });
+  });
+
+  test('keeps the start state and follows existing aliases', () => {
+    const minimized = minimizeFlow({
+      ...flow(
+        {
+          Other: state('Menu', [['x', 'Start']]),
+          Start: state('Menu', [['x', 'Start']]),
+        },
+        'Start',
+      ),
+      aliases: { Legacy: 'Other' },
+    });
+
+    expect(Object.keys(minimized.states)).toEqual(['Start']);
+    expect(minimized.aliases).toEqual({ Other: 'Start', Legacy: 'Start' });
+  });
+
+  test('rewrites flow result handler targets', () => {
+    const minimized = minimizeFlow(
+      flow({
+        Start: {
+          transitions: [
+            {
+              pattern: 'order',
+              flowInvocation: { flowId: 'Order', onResult: { end: { target: 'state:Thanks2' } } },
+            } as any,
+          ],
+          meta: { messageId: 'Welcome' },
+        },
+        Thanks: state('Thanks', []),
+        Thanks2: state('Thanks', []),
+      }),
+    );
+
+    const transition = minimized.states.Start.transitions[0] as any;
+    expect(transition.flowInvocation.onResult.end.target).toBe('state:Thanks');
+  });
+});
+
+describe('minimizeOutput', () => {
+  test('produces flows the runtime accepts under their old state names', () => {
+    const original = flow({
+      Start: state('Welcome', [
+        ['a', 'First'],
+        ['b', 'Second'],
+      ]),
+      First: state('Same', [['back', 'Start']]),
+      Second: state('Same', [['back', 'Start']]),
+    });
+    const output = {
+      bundle: { agent: {}, messages: { messages: {} } },
+      csm: { id: 'Test', machine: { id: 'Test', initialFlow: 'Main', flows: { Main: original } } },
+    } as unknown as ICompilationOutput;
+
+    const { output: minimized, aliases } = minimizeOutput(output);
+    expect(aliases).toEqual({ Main: { Second: 'First' } });
+
+    const machine = new FlowMachine(minimized.csm.machine.flows.Main);
+    expect(machine.transition('b', {})).toMatchObject({ type: 'state', stateId: 'First' });
+
+    machine.setState('Second');
+    expect(machine.state).toBe('First');
+    expect(machine.transition('back', {})).toMatchObject({ type: 'state', stateId: 'Start' });
+  });
+
+  test('keeps aliases through the binary format', () => {
+    const original = flow({
+      Start: state('Welcome', [
+        ['a', 'First'],
+        ['b', 'Second'],
+      ]),
+      First: state('Same', [['back', 'Start']]),
+      Second: state('Same', [['back', 'Start']]),
+    });
+    const output = {
+      bundle: { agent: {}, messages: { messages: {} } },
+      csm: { id: 'Test', machine: { id: 'Test', initialFlow: 'Main', flows: { Main: original } } },
+    } as unknown as ICompilationOutput;
+
+    const agent = BinaryAgent.from(toBinaryAgent(minimizeOutput(output).output));
+    const decoded = agent.getFlow('Main')!;
+    expect(decoded.aliases).toEqual({ Second: 'First' });
+
+    const machine = new FlowMachine(decoded);
+    machine.setState('Second');
+    expect(machine.state).toBe('First');
+    machine.setMachineState({ currentState: 'Second', localContext: {} });
+    expect(machine.transition('back', {})).toMatchObject({ type: 'state', stateId: 'Start' });
+  });
+});
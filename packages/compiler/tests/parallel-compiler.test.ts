@@ -0,0 +1,181 @@
+import { afterAll, describe, expect, test } from 'bun:test';
+import { readFileSync } from 'node:fs';
+import { resolve } from 'node:path';
+import type { Diagnostic } from '@rcs-lang/core';
+import { StringSink } from '../src/output/jsonWriter.js';
+import { StreamingCompiler } from '../src/output/streamingCompiler.js';
+import {
+  type CompileWorker,
+  type CompileWorkerRequest,
+  ParallelCompiler,
+} from '../src/parallel/parallelCompiler.js';
+import {
+  mapDiagnosticLines,
+  splitSource,
+  unitSourceLine,
+} from '../src/parallel/sectionSplitter.js';
+import { compileUnit } from '../src/parallel/unitCompiler.js';
+
+const coffeeShop = readFileSync(resolve(import.meta.dir, 'fixtures/coffee-shop.rcl'), 'utf-8');
+
+/**
+ * In-process worker that answers after a random delay, so units complete out of order
+ */
+class DelayedWorker implements CompileWorker {
+  onmessage: CompileWorker['onmessage'] = null;
+  onerror: CompileWorker['onerror'] = null;
+
+  postMessage({ index, unit }: CompileWorkerRequest): void {
+    const result = compileUnit(unit);
+    setTimeout(() => this.onmessage?.({ data: { index, result } }), Math.random() * 5);
+  }
+
+  terminate(): void {}
+}
+
+function largeAgent(messageCount: number): string {
+  const lines = ['agent Large', '  displayName: "Large Agent"', ''];
+  for (let f = 0; f < 3; f++) {
+    lines.push(`  flow Flow${f}`, '    start: Message0', '', '    on Message0');
+    lines.push('      match @reply.text', `        "Next" -> Message${f + 1}`);
+    lines.push('        :default -> Message0', '');
+  }
+  lines.push('  messages Messages');
+  for (let i = 0; i < messageCount; i++) {
+    lines.push(`    text Message${i} "Message number ${i}"`);
+    lines.push('      suggestions', '        reply "Next"', '        reply "Back"');
+    if (i % 50 === 0) lines.push('    # a comment between messages', '');
+  }
+  lines.push('', '  defaults', '    messageTrafficType: :transaction');
+  return `${lines.join('\n')}\n`;
+}
+
+function compileSequential(source: string): { json: string; diagnostics: Diagnostic[] } {
+  const sink = new StringSink();
+  const result = new StreamingCompiler().compile(source, sink);
+  if (!result.success) throw result.error;
+  return { json: sink.toString(), diagnostics: result.value.diagnostics };
+}
+
+describe('splitSource', () => {
+  test('splits flows and message batches and keeps the rest', () => {
+    const plan = splitSource(coffeeShop, 4);
+    if (!plan) throw new Error('Expected a plan');
+
+    expect(plan.units.filter((unit) => unit.kind === 'flow')).toHaveLength(1);
+    expect(plan.messageCount).toBe(15);
+    expect(plan.units.filter((unit) => unit.kind === 'messages')).toHaveLength(4);
+    expect(plan.skeleton).toContain('displayName: "Quick Coffee"');
+    expect(plan.skeleton).toContain('messages Messages');
+    expect(plan.skeleton).not.toContain('flow OrderFlow');
+    expect(plan.skeleton).not.toContain('text ThankYou');
+  });
+
+  test('maps unit and skeleton lines back to the source', () => {
+    const source = largeAgent(120);
+    const plan = splitSource(source, 16);
+    if (!plan) throw new Error('Expected a plan');
+    const lines = source.split('\n');
+
+    for (const unit of plan.units) {
+      unit.text
+        .split('\n')
+        .slice(0, -1)
+        .forEach((text, line) => expect(lines[unitSourceLine(unit, line)]).toBe(text));
+    }
+    plan.skeleton
+      .split('\n')
+      .slice(0, -1)
+      .forEach((text, line) => expect(lines[plan.skeletonLines[line]]).toBe(text));
+
+    const warning = {
+      severity: 'warning' as const,
+      message: 'example',
+      range: { start: { line: 1, character: 4 }, end: { line: 1, character: 9 } },
+    };
+    const unit = plan.units[plan.units.length - 1];
+    expect(mapDiagnosticLines(warning, (line) => unitSourceLine(unit, line)).range).toEqual({
+      start: { line: unit.bodyLine ?? unit.line + 1, character: 4 },
+      end: { line: unit.bodyLine ?? unit.line + 1, character: 9 },
+    });
+  });
+
+  test('refuses messages sections it cannot split', () => {
+    const source =
+      'agent A\n  displayName: "A"\n  messages Messages\n    ...Shared\n    text Hi "Hi"\n';
+    expect(splitSource(source, 4)).toBeNull();
+  });
+});
+
+describe('ParallelCompiler', () => {
+  const compilers: ParallelCompiler[] = [];
+  afterAll(() => {
+    for (const compiler of compilers) compiler.dispose();
+  });
+
+  function create(options: ConstructorParameters<typeof ParallelCompiler>[0]): ParallelCompiler {
+    const compiler = new ParallelCompiler(options);
+    compilers.push(compiler);
+    return compiler;
+  }
+
+  test('output is byte-identical to the sequential compile', async () => {
+    const source = largeAgent(500);
+    const compiler = create({ workers: 4, batchSize: 32, createWorker: () => new DelayedWorker() });
+
+    for (let run = 0; run < 3; run++) {
+      const sink = new StringSink();
+      const result = await compiler.compile(source, sink);
+      if (!result.success) throw result.error;
+
+      expect(result.value.units).toBeGreaterThan(4);
+      expect(result.value.messages).toBe(500);
+      const sequential = compileSequential(source);
+      expect(sink.toString()).toBe(sequential.json);
+      expect(result.value.diagnostics).toEqual(sequential.diagnostics);
+    }
+  });
+
+  test('matches the sequential compile for the coffee shop fixture', async () => {
+    const sink = new StringSink();
+    const compiler = create({ batchSize: 2, createWorker: () => new DelayedWorker() });
+    const result = await compiler.compile(coffeeShop, sink);
+    if (!result.success) throw result.error;
+
+    expect(result.value.units).toBeGreaterThan(0);
+    const sequential = compileSequential(coffeeShop);
+    expect(sink.toString()).toBe(sequential.json);
+    expect(result.value.diagnostics).toEqual(sequential.diagnostics);
+  });
+
+  test('falls back to sequential compilation when a unit does not parse', async () => {
+    const source = largeAgent(40).replace('"Message number 7"', '"broken');
+    const sink = new StringSink();
+    const compiler = create({ batchSize: 4, createWorker: () => new DelayedWorker() });
+    const result = await compiler.compile(source, sink);
+    if (!result.success) throw result.error;
+
+    expect(result.value.units).toBe(0);
+    expect(sink.toString()).toBe(compileSequential(source).json);
+  });
+
+  test('compiles on real workers', async () => {
+    const source = largeAgent(200);
+    const sink = new StringSink();
+    const compiler = create({
+      workers: 2,
+      batchSize: 25,
+      createWorker: () =>
+        new Worker(new URL('../src/parallel/compile-worker.ts', import.meta.url), {
+          type: 'module',
+        }) as unknown as CompileWorker,
+    });
+    const result = await compiler.compile(source, sink);
+    if (!result.success) throw result.error;
+
+    expect(result.value.units).toBeGreaterThan(0);
+    const sequential = compileSequential(source);
+    expect(sink.toString()).toBe(sequential.json);
+    expect(result.value.diagnostics).toEqual(sequential.diagnostics);
+  });
+});
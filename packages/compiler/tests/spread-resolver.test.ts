@@ -0,0 +1,155 @@
+import { describe, expect, test } from 'bun:test';
+import type { RclFile } from '@rcs-lang/ast';
+import { MemoryFileSystem } from '@rcs-lang/file-system';
+import { AntlrRclParser } from '@rcs-lang/parser';
+import { RCLCompiler } from '../src/compiler.js';
+import { StringSink } from '../src/output/jsonWriter.js';
+import { StreamingCompiler } from '../src/output/streamingCompiler.js';
+import { splitSource } from '../src/parallel/sectionSplitter.js';
+import { SpreadResolver, containsSpreadDirective } from '../src/spread/spreadResolver.js';
+import { TransformStage } from '../src/stages/transformStage.js';
+
+async function parse(source: string): Promise<RclFile> {
+  const parser = new AntlrRclParser();
+  await parser.initialize();
+  const result = parser.parseSync(source);
+  if (!result.success || !result.value.ast) throw new Error('Parse failed');
+  return result.value.ast as RclFile;
+}
+
+function messagesSource(...definitions: string[][]): string {
+  const lines = ['agent Shop', '  displayName: "Shop"', '', '  messages Messages'];
+  for (const definition of definitions) {
+    lines.push(`    ${definition[0]}`, ...definition.slice(1).map((line) => `      ${line}`));
+  }
+  return `${lines.join('\n')}\n`;
+}
+
+const templates = messagesSource(
+  ['text Base "Base"', 'fallback: "Base fallback"', 'postbackData: "base"'],
+  ['text Middle "Middle"', '...Base', 'trafficType: "promotion"'],
+  ['text Welcome "Hi"', '...Middle', 'postbackData: "welcome"'],
+  ['text Alias "Alias"', '...Base'],
+);
+
+const keys = (resolver: SpreadResolver, name: string) => [
+  ...(resolver.attributes(name)?.keys() ?? []),
+];
+
+describe('SpreadResolver', () => {
+  test('flattens spread chains with later entries overriding earlier ones', async () => {
+    const resolver = new SpreadResolver(await parse(templates));
+    const welcome = resolver.attributes('Welcome')!;
+
+    expect(keys(resolver, 'Welcome')).toEqual(['fallback', 'postbackData', 'trafficType']);
+    expect(welcome.get('postbackData')?.value).toMatchObject({ value: 'welcome' });
+    expect(resolver.diagnostics).toEqual([]);
+  });
+
+  test('shares attribute sets between sections that add nothing', async () => {
+    const resolver = new SpreadResolver(await parse(templates));
+
+    expect(resolver.attributes('Alias')).toBe(resolver.attributes('Base'));
+    expect(resolver.attributes('Middle')).not.toBe(resolver.attributes('Base'));
+    expect(resolver.attributes('Middle')?.get('fallback')).toBe(
+      resolver.attributes('Base')?.get('fallback'),
+    );
+  });
+
+  test('orders sections after the sections they spread', async () => {
+    const order = new SpreadResolver(await parse(templates)).resolutionOrder();
+
+    expect(order.indexOf('Base')).toBeLessThan(order.indexOf('Middle'));
+    expect(order.indexOf('Middle')).toBeLessThan(order.indexOf('Welcome'));
+  });
+
+  test('reports cycles once and still resolves the sections', async () => {
+    const source = messagesSource(
+      ['text First "1"', '...Second', 'first: "1"'],
+      ['text Second "2"', '...Third', 'second: "2"'],
+      ['text Third "3"', '...First', 'third: "3"'],
+    );
+    const resolver = new SpreadResolver(await parse(source));
+
+    expect(resolver.diagnostics).toHaveLength(1);
+    expect(resolver.diagnostics[0]).toMatchObject({ code: 'RCL204', severity: 'error' });
+    expect(resolver.diagnostics[0].message).toContain('First -> Second -> Third -> First');
+    expect(keys(resolver, 'First').sort()).toEqual(['first', 'second', 'third']);
+  });
+
+  test('reports undefined spread targets', async () => {
+    const source = messagesSource(['text Lonely "x"', '...Missing']);
+    const resolver = new SpreadResolver(await parse(source));
+
+    expect(resolver.diagnostics).toHaveLength(1);
+    expect(resolver.diagnostics[0]).toMatchObject({ code: 'RCL205' });
+    expect(resolver.diagnostics[0].message).toContain('Missing');
+  });
+
+  test('resolves long template chains without recursion', async () => {
+    const definitions = [['text Section0 "0"', 'shared: "value"']];
+    for (let i = 1; i < 5000; i++) {
+      definitions.push([`text Section${i} "${i}"`, `...Section${i - 1}`]);
+    }
+    const resolver = new SpreadResolver(await parse(messagesSource(...definitions)));
+
+    expect(resolver.attributes('Section4999')).toBe(resolver.attributes('Section0'));
+    expect(resolver.diagnostics).toEqual([]);
+  });
+
+  test('resolves across files', async () => {
+    const shared = await parse(messagesSource(['text Base "Base"', 'fallback: "shared"']));
+    const local = await parse(messagesSource(['text Welcome "Hi"', '...Base']));
+
+    expect(keys(new SpreadResolver([shared, local]), 'Welcome')).toEqual(['fallback']);
+  });
+});
+
+describe('spread directives in compiled output', () => {
+  test('messages include spread attributes', async () => {
+    const compiler = new RCLCompiler({ fileSystem: new MemoryFileSystem() });
+    const result = await compiler.compile({ source: templates, uri: 'test.rcl' });
+    if (!result.success || !result.value.output) throw new Error('Compilation failed');
+
+    const { messages } = result.value.output.bundle.messages;
+    expect(messages.Welcome).toMatchObject({
+      text: 'Hi',
+      fallback: 'Base fallback',
+      trafficType: 'promotion',
+      postbackData: 'welcome',
+    });
+    expect(messages.Alias).toMatchObject({ fallback: 'Base fallback', postbackData: 'base' });
+  });
+
+  test('spreads that close a cycle are not applied', async () => {
+    const source = messagesSource(
+      ['text First "1"', '...Second', 'first: "1"'],
+      ['text Second "2"', '...Third', 'second: "2"'],
+      ['text Third "3"', '...First', 'third: "3"'],
+    );
+    const output = new TransformStage().transformRclFile(await parse(source));
+
+    const { messages } = output.bundle.messages;
+    expect(messages.First).toMatchObject({ first: '1', second: '2', third: '3' });
+    expect(messages.Third).toMatchObject({ third: '3' });
+    expect(messages.Third).not.toHaveProperty('first');
+    expect(messages.Third).not.toHaveProperty('second');
+  });
+
+  test('streaming and parallel compilation handle spreads on the whole file', async () => {
+    expect(containsSpreadDirective(templates)).toBe(true);
+    expect(splitSource(templates, 1)).toBeNull();
+
+    const sink = new StringSink();
+    const streamed = new StreamingCompiler().compile(templates, sink);
+    if (!streamed.success) throw streamed.error;
+
+    const compiler = new RCLCompiler({ fileSystem: new MemoryFileSystem() });
+    const result = await compiler.compile({ source: templates, uri: 'test.rcl' });
+    if (!result.success || !result.value.output) throw new Error('Compilation failed');
+
+    const { messages } = result.value.output.bundle.messages;
+    expect(JSON.parse(sink.toString()).messages).toEqual(messages);
+    expect(streamed.value.messages).toBe(4);
+  });
+});
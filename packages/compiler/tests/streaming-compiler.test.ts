@@ -0,0 +1,75 @@
+import { describe, expect, test } from 'bun:test';
+import { readFileSync } from 'node:fs';
+import { resolve } from 'node:path';
+import { MemoryFileSystem } from '@rcs-lang/file-system';
+import { RCLCompiler } from '../src/compiler.js';
+import { StringSink } from '../src/output/jsonWriter.js';
+import { StreamingCompiler } from '../src/output/streamingCompiler.js';
+
+const coffeeShop = readFileSync(resolve(import.meta.dir, 'fixtures/coffee-shop.rcl'), 'utf-8');
+
+async function compileRegular(source: string) {
+  const compiler = new RCLCompiler({ fileSystem: new MemoryFileSystem() });
+  const result = await compiler.compile({ source, uri: 'test.rcl' });
+  if (!result.success || !result.value.output) throw new Error('Compilation failed');
+
+  const { bundle, csm } = result.value.output;
+  return { messages: bundle.messages.messages, flows: csm.machine.flows, agent: bundle.agent };
+}
+
+function compileStreaming(source: string, bufferSize?: number) {
+  const sink = new StringSink();
+  const result = new StreamingCompiler({ bufferSize }).compile(source, sink);
+  if (!result.success) throw result.error;
+  return { result: result.value, json: JSON.parse(sink.toString()) };
+}
+
+describe('StreamingCompiler', () => {
+  test('produces the same agent, messages and flows as the pipeline', async () => {
+    const { result, json } = compileStreaming(coffeeShop);
+
+    expect(json).toEqual(await compileRegular(coffeeShop));
+    expect(result.messages).toBe(Object.keys(json.messages).length);
+    expect(result.flows).toBe(Object.keys(json.flows).length);
+  });
+
+  test('handles flows and messages in any order', async () => {
+    const source = `agent Shop
+  displayName: "Shop"
+
+  messages Messages
+    text Welcome "Hi!"
+
+  flow Main
+    start: Welcome
+    on Welcome
+      match @reply.text
+        "Menu" -> Welcome
+
+  defaults
+    messageTrafficType: :transaction
+`;
+    const { json } = compileStreaming(source, 8);
+
+    expect(Object.keys(json)).toEqual(['messages', 'flows', 'agent']);
+    expect(json).toEqual(await compileRegular(source));
+    expect(json.messages.Welcome).toMatchObject({ type: 'text', text: 'Hi!' });
+    expect(json.flows.Main.initial).toBe('Welcome');
+  });
+
+  test('writes many messages to the sink incrementally', () => {
+    const lines = ['agent Big', '  displayName: "Big"', '  messages Messages'];
+    for (let i = 0; i < 2000; i++) lines.push(`    text Message${i} "Message number ${i}"`);
+    const source = `${lines.join('\n')}\n`;
+
+    const chunks: string[] = [];
+    const result = new StreamingCompiler({ bufferSize: 4096 }).compile(source, {
+      write: (chunk: string) => chunks.push(chunk),
+    });
+    if (!result.success) throw result.error;
+
+    expect(result.value.messages).toBe(2000);
+    expect(chunks.length).toBeGreaterThan(10);
+    expect(JSON.parse(chunks.join('')).messages.Message1999.text).toBe('Message number 1999');
+  });
+});
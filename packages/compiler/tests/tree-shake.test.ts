@@ -0,0 +1,109 @@
+import { describe, expect, test } from 'bun:test';
+import type { ICompilationOutput } from '@rcs-lang/core';
+import { summarizeTreeShake, treeShakeOutput } from '../src/output/treeShake.js';
+
+function output(flows: Record<string, any>, messages: string[]): ICompilationOutput {
+  return {
+    bundle: {
+      agent: { displayName: 'Test' } as any,
+      messages: {
+        messages: Object.fromEntries(
+          messages.map((id) => [id, { contentMessage: { text: id } }]),
+        ) as any,
+      },
+    },
+    csm: {
+      id: 'Test',
+      machine: { id: 'Test', initialFlow: 'Main', flows },
+    },
+  } as ICompilationOutput;
+}
+
+const state = (messageId: string, ...targets: string[]) => ({
+  transitions: targets.map((target) => ({ pattern: target.toLowerCase(), target })),
+  meta: { messageId },
+});
+
+const main = {
+  id: 'Main',
+  initial: 'Welcome',
+  states: {
+    Welcome: state('Welcome', 'Menu', 'flow:Support'),
+    Menu: {
+      transitions: [
+        {
+          pattern: 'order',
+          flowInvocation: { flowId: 'Order', onResult: { end: { target: 'Thanks' } } },
+        },
+      ],
+      meta: { messageId: 'Menu' },
+    },
+    Thanks: state('Thanks', ':end'),
+    Orphan: state('Orphan', 'Welcome'),
+  },
+};
+
+const order = { id: 'Order', initial: 'Pick', states: { Pick: state('Pick', ':end') } };
+const support = { id: 'Support', initial: 'Ask', states: { Ask: state('Ask', ':end') } };
+const legacy = { id: 'Legacy', initial: 'Old', states: { Old: state('Old') } };
+
+describe('treeShakeOutput', () => {
+  test('drops unreachable states and messages no state sends', () => {
+    const messages = ['Welcome', 'Menu', 'Thanks', 'Orphan', 'Pick', 'Promo'];
+    const { output: shaken, report } = treeShakeOutput(
+      output({ Main: main, Order: order }, messages),
+    );
+
+    expect(Object.keys(shaken.csm.machine.flows.Main.states)).toEqual([
+      'Welcome',
+      'Menu',
+      'Thanks',
+    ]);
+    expect(Object.keys(shaken.bundle.messages.messages ?? {})).toEqual([
+      'Welcome',
+      'Menu',
+      'Thanks',
+      'Pick',
+    ]);
+    expect(report).toEqual({
+      messages: ['Orphan', 'Promo'],
+      states: { Main: ['Orphan'] },
+      flows: [],
+      dynamicFlows: [],
+    });
+    expect(summarizeTreeShake(report)).toBe('Removed 2 messages, 1 state and 0 flows');
+  });
+
+  test('keeps flows unless asked to drop unreachable ones', () => {
+    const flows = { Main: main, Order: order, Support: support, Legacy: legacy };
+    const messages = ['Welcome', 'Menu', 'Thanks', 'Pick', 'Ask', 'Old'];
+
+    expect(treeShakeOutput(output(flows, messages)).report.flows).toEqual([]);
+
+    const { output: shaken, report } = treeShakeOutput(output(flows, messages), { flows: true });
+    expect(Object.keys(shaken.csm.machine.flows)).toEqual(['Main', 'Order', 'Support']);
+    expect(report.flows).toEqual(['Legacy']);
+    expect(report.messages).toEqual(['Old']);
+  });
+
+  test('keeps every state of flows with context-variable targets', () => {
+    const dynamic = {
+      id: 'Main',
+      initial: 'Start',
+      states: { Start: state('Start', '@next'), Later: state('Later') },
+    };
+    const { output: shaken, report } = treeShakeOutput(
+      output({ Main: dynamic }, ['Start', 'Later']),
+    );
+
+    expect(Object.keys(shaken.csm.machine.flows.Main.states)).toEqual(['Start', 'Later']);
+    expect(report.dynamicFlows).toEqual(['Main']);
+  });
+
+  test('keeps messages sent by application code', () => {
+    const { report } = treeShakeOutput(output({ Order: order }, ['Pick', 'Promo']), {
+      keepMessages: ['Promo'],
+    });
+    expect(report.messages).toEqual([]);
+  });
+});
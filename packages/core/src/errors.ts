@@ -52,6 +52,7 @@ export enum ErrorCode {
   UNDEFINED_MESSAGE_REFERENCE = 'RCL202',
   UNDEFINED_FLOW_REFERENCE = 'RCL203',
   CIRCULAR_REFERENCE = 'RCL204',
+  UNDEFINED_SPREAD_REFERENCE = 'RCL205',
   
   // Type errors (RCL301-399)
   INVALID_TYPE_TAG = 'RCL301',
@@ -69,7 +70,9 @@ export enum ErrorCode {
   
   // Internal errors (RCL901-999)
   INTERNAL_ERROR = 'RCL901',
-  PARSER_INITIALIZATION_ERROR = 'RCL902'
+  PARSER_INITIALIZATION_ERROR = 'RCL902',
+  PARSE_BUDGET_EXCEEDED = 'RCL903',
+  PARSE_CANCELLED = 'RCL904'
 }
 
 /**
@@ -134,6 +137,28 @@ export class RCLErrorFactory {
     };
   }
 
+  static parseBudgetExceeded(limit: string, max: number, position?: Position): RCLError {
+    return {
+      code: ErrorCode.PARSE_BUDGET_EXCEEDED,
+      category: ErrorCategory.INTERNAL,
+      severity: 'error',
+      message: `Parse stopped: ${limit} budget of ${max} exceeded`,
+      hint: 'The file is too large or too deeply nested to parse within the configured limits',
+      range: position ? { start: position, end: position } : undefined,
+      data: { limit, max }
+    };
+  }
+
+  static parseCancelled(position?: Position): RCLError {
+    return {
+      code: ErrorCode.PARSE_CANCELLED,
+      category: ErrorCategory.INTERNAL,
+      severity: 'info',
+      message: 'Parse cancelled',
+      range: position ? { start: position, end: position } : undefined
+    };
+  }
+
   // Validation errors
   static missingRequiredField(field: string): RCLError {
     return {
@@ -265,6 +290,39 @@ export class RCLErrorFactory {
     };
   }
 
+  /**
+   * @param cycle - Sections in the cycle, each spreading the next; the last spreads the first
+   * @param position - Start of the spread directive that closes the cycle
+   */
+  static circularReference(cycle: string[], position?: Position): RCLError {
+    const path = [...cycle, cycle[0]].join(' -> ');
+    return {
+      code: ErrorCode.CIRCULAR_REFERENCE,
+      category: ErrorCategory.REFERENCE,
+      severity: 'error',
+      message: `Circular spread reference: ${path}`,
+      hint: 'Remove one of the spread directives so the sections no longer include each other',
+      range: position ? {
+        start: position,
+        end: { line: position.line, character: position.character + 3 + cycle[0].length }
+      } : undefined
+    };
+  }
+
+  static undefinedSpreadReference(sectionName: string, position?: Position): RCLError {
+    return {
+      code: ErrorCode.UNDEFINED_SPREAD_REFERENCE,
+      category: ErrorCategory.REFERENCE,
+      severity: 'error',
+      message: `Spread of undefined section '${sectionName}'`,
+      hint: `Define a section named '${sectionName}' or fix the spelling`,
+      range: position ? {
+        start: position,
+        end: { line: position.line, character: position.character + 3 + sectionName.length }
+      } : undefined
+    };
+  }
+
   // Type errors
   static invalidTypeTag(tagName: string, position?: Position): RCLError {
     return {
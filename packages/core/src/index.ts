@@ -20,3 +20,6 @@ export * from './language-service.js';
 
 // Validation interfaces
 export * from './validation.js';
+
+// String interpolation templates
+export * from './interpolation.js';
@@ -0,0 +1,122 @@
+/**
+ * Variables available to a template, keyed by name without the `@` sigil
+ */
+export type TemplateScope = Readonly<Record<string, unknown>>;
+
+/**
+ * A `#{@name.path}` placeholder resolved to its property path
+ */
+export interface TemplateSlot {
+  /** Property path from the scope, e.g. `['user', 'name']` for `#{@user.name}` */
+  readonly path: readonly string[];
+  /** The placeholder as written, including `#{` and `}` */
+  readonly source: string;
+}
+
+const VARIABLE_PATH = /^@?([A-Za-z_][A-Za-z0-9_]*(?:\s*\.\s*[A-Za-z_][A-Za-z0-9_]*)*)$/;
+const EMPTY_SCOPE: TemplateScope = Object.freeze({});
+
+/**
+ * A compiled interpolated string, such as a `"""..."""` string or a transition pattern: literal
+ * segments interleaved with variable-path slots.
+ *
+ * `literals` always has one more entry than `slots`, so rendering is a fixed loop with no
+ * parsing or lookups beyond the property path itself. Templates are immutable and can be
+ * shared and rendered concurrently.
+ */
+export class InterpolationTemplate {
+  readonly literals: readonly string[];
+  readonly slots: readonly TemplateSlot[];
+  /** Combined length of the literal segments */
+  readonly literalLength: number;
+
+  constructor(literals: readonly string[], slots: readonly TemplateSlot[]) {
+    if (literals.length !== slots.length + 1) {
+      throw new Error('A template needs exactly one more literal than slots');
+    }
+    this.literals = Object.freeze([...literals]);
+    this.slots = Object.freeze(
+      slots.map((slot) => Object.freeze({ path: Object.freeze([...slot.path]), source: slot.source })),
+    );
+    this.literalLength = literals.reduce((total, literal) => total + literal.length, 0);
+    Object.freeze(this);
+  }
+
+  /** Whether the template has no placeholders */
+  get isConstant(): boolean {
+    return this.slots.length === 0;
+  }
+
+  /**
+   * Render with values from `scope`. Missing, null and undefined values render as empty text.
+   */
+  render(scope: TemplateScope = EMPTY_SCOPE): string {
+    const { literals, slots } = this;
+    let out = literals[0];
+    for (let i = 0; i < slots.length; i++) {
+      out += stringify(resolve(scope, slots[i].path)) + literals[i + 1];
+    }
+    return out;
+  }
+
+  /**
+   * The template in source form, with placeholders as written
+   */
+  toString(): string {
+    const { literals, slots } = this;
+    let out = literals[0];
+    for (let i = 0; i < slots.length; i++) {
+      out += slots[i].source + literals[i + 1];
+    }
+    return out;
+  }
+}
+
+/**
+ * Compile triple-quoted string content (without the quotes).
+ *
+ * Placeholders that are not a variable path are kept as literal text, matching how the
+ * runtime shows expressions it cannot resolve.
+ */
+export function compileTemplate(text: string): InterpolationTemplate {
+  const literals: string[] = [];
+  const slots: TemplateSlot[] = [];
+  let literalStart = 0;
+  let pending = '';
+  let i = text.indexOf('#{');
+
+  while (i !== -1) {
+    const close = text.indexOf('}', i + 2);
+    if (close === -1) break;
+
+    const match = VARIABLE_PATH.exec(text.slice(i + 2, close).trim());
+    if (match) {
+      literals.push(pending + text.slice(literalStart, i));
+      slots.push({ path: splitPath(match[1]), source: text.slice(i, close + 1) });
+      pending = '';
+    } else {
+      pending += text.slice(literalStart, close + 1);
+    }
+    literalStart = close + 1;
+    i = text.indexOf('#{', literalStart);
+  }
+
+  literals.push(pending + text.slice(literalStart));
+  return new InterpolationTemplate(literals, slots);
+}
+
+function splitPath(path: string): string[] {
+  return path.split('.').map((key) => key.trim());
+}
+
+function resolve(scope: TemplateScope, path: readonly string[]): unknown {
+  let value: unknown = scope[path[0]];
+  for (let i = 1; i < path.length && value != null; i++) {
+    value = (value as Record<string, unknown>)[path[i]];
+  }
+  return value;
+}
+
+function stringify(value: unknown): string {
+  return value == null ? '' : typeof value === 'string' ? value : String(value);
+}
@@ -0,0 +1,482 @@
+/**
+ * @module binary-agent
+ * Random-access binary format for compiled agents.
+ *
+ * Layout (little-endian, all offsets in bytes from the start of the buffer):
+ *
+ * | Section     | Record                                                            |
+ * |-------------|-------------------------------------------------------------------|
+ * | header      | 64 bytes, see `HEADER_*` offsets                                  |
+ * | strings     | `offset u32, length u32` per string, then the UTF-8 data          |
+ * | messages    | `id, payload` string indices, sorted by id                        |
+ * | flows       | `id, initial, meta, aliases, firstState, stateCount`, sorted by id |
+ * | states      | `id, meta, firstTransition, transitionCount`, sorted by id per flow |
+ * | transitions | `pattern, target, flags, priority i32, extra`, in definition order |
+ * | shared      | one string index per shared subtree, see structural-dedup         |
+ *
+ * Message payloads, metadata and the agent config are stored as JSON strings and only parsed
+ * when requested, so opening an agent reads nothing but the header. Encoding with `dedupe` stores
+ * repeated payload fragments once; readers expand the references transparently.
+ */
+
+import type {
+  FlowDefinition,
+  MachineDefinition,
+  StateDefinition,
+  TransitionDefinition,
+} from './unified-types.js';
+import { type DedupeOptions, SharedValueResolver, dedupeValues } from './structural-dedup.js';
+
+const MAGIC = 0x424c4352; // 'RCLB'
+const VERSION = 1;
+/** String index meaning "absent" */
+const NONE = 0xffffffff;
+const HAS_PRIORITY = 1;
+/** Header flag: message payloads and the agent config contain shared references */
+const FLAG_SHARED = 1;
+
+const HEADER_SIZE = 64;
+const HEADER_FLAGS = 6;
+const HEADER_AGENT = 8;
+const HEADER_INITIAL_FLOW = 12;
+const HEADER_STRINGS = 16;
+const HEADER_MESSAGES = 24;
+const HEADER_FLOWS = 32;
+const HEADER_STATES = 40;
+const HEADER_TRANSITIONS = 48;
+const HEADER_SHARED = 56;
+
+const STRING_SIZE = 8;
+const MESSAGE_SIZE = 8;
+const FLOW_SIZE = 24;
+const STATE_SIZE = 16;
+const TRANSITION_SIZE = 20;
+
+/**
+ * A compiled agent in the `{ agent, messages, flows }` layout produced by the compiler
+ */
+export interface CompiledAgentData {
+  agent: object;
+  messages: Record<string, unknown>;
+  flows: Record<string, FlowDefinition>;
+  /** Defaults to the first flow */
+  initialFlow?: string;
+}
+
+export interface BinaryAgentEncodeOptions {
+  /** Store repeated subtrees of message payloads and the agent config once */
+  dedupe?: boolean | DedupeOptions;
+}
+
+/**
+ * Encode a compiled agent into the binary format
+ */
+export function encodeBinaryAgent(
+  data: CompiledAgentData,
+  options: BinaryAgentEncodeOptions = {},
+): Uint8Array {
+  const strings = new StringTable();
+  const flowIds = Object.keys(data.flows);
+  const initialFlow = data.initialFlow ?? flowIds[0] ?? '';
+  const messageIds = Object.keys(data.messages).sort(compareIds);
+
+  let agent: unknown = data.agent;
+  let payloads = messageIds.map((id) => data.messages[id]);
+  let shared: unknown[] = [];
+  if (options.dedupe) {
+    const dedupeOptions = options.dedupe === true ? {} : options.dedupe;
+    const deduped = dedupeValues([agent, ...payloads], dedupeOptions);
+    [agent, ...payloads] = deduped.values;
+    shared = deduped.shared;
+  }
+
+  const agentIndex = strings.add(JSON.stringify(agent));
+  const initialIndex = strings.add(initialFlow);
+
+  const messages = new Uint32Array(messageIds.length * 2);
+  messageIds.forEach((id, i) => {
+    messages[i * 2] = strings.add(id);
+    messages[i * 2 + 1] = strings.add(JSON.stringify(payloads[i]) ?? 'null');
+  });
+  const sharedEntries = shared.map((entry) => strings.add(JSON.stringify(entry)));
+
+  const flows: number[] = [];
+  const states: number[] = [];
+  const transitions: number[] = [];
+  for (const flowId of flowIds.sort(compareIds)) {
+    const flow = data.flows[flowId];
+    const stateIds = Object.keys(flow.states).sort(compareIds);
+    flows.push(
+      strings.add(flowId),
+      strings.add(flow.initial),
+      strings.addJson(flow.meta),
+      strings.addJson(flow.aliases),
+      states.length / 4,
+      stateIds.length,
+    );
+
+    for (const stateId of stateIds) {
+      const state = flow.states[stateId];
+      states.push(
+        strings.add(stateId),
+        strings.addJson(state.meta),
+        transitions.length / 5,
+        state.transitions.length,
+      );
+
+      for (const transition of state.transitions) {
+        const { pattern, target, priority, ...extra } = transition;
+        transitions.push(
+          pattern === undefined ? NONE : strings.add(pattern),
+          target === undefined ? NONE : strings.add(target),
+          priority === undefined ? 0 : HAS_PRIORITY,
+          priority ?? 0,
+          Object.keys(extra).length > 0 ? strings.addJson(extra) : NONE,
+        );
+      }
+    }
+  }
+
+  // Lay out sections
+  const stringData = strings.encode();
+  const stringsOffset = HEADER_SIZE;
+  const stringDataOffset = stringsOffset + strings.count * STRING_SIZE;
+  const messagesOffset = align4(stringDataOffset + stringData.bytes.length);
+  const flowsOffset = messagesOffset + messages.byteLength;
+  const statesOffset = flowsOffset + flows.length * 4;
+  const transitionsOffset = statesOffset + states.length * 4;
+  const sharedOffset = transitionsOffset + transitions.length * 4;
+  const size = sharedOffset + sharedEntries.length * 4;
+
+  const bytes = new Uint8Array(size);
+  const view = new DataView(bytes.buffer);
+
+  view.setUint32(0, MAGIC, true);
+  view.setUint16(4, VERSION, true);
+  view.setUint16(HEADER_FLAGS, sharedEntries.length > 0 ? FLAG_SHARED : 0, true);
+  view.setUint32(HEADER_AGENT, agentIndex, true);
+  view.setUint32(HEADER_INITIAL_FLOW, initialIndex, true);
+  view.setUint32(HEADER_STRINGS, strings.count, true);
+  view.setUint32(HEADER_STRINGS + 4, stringsOffset, true);
+  view.setUint32(HEADER_MESSAGES, messageIds.length, true);
+  view.setUint32(HEADER_MESSAGES + 4, messagesOffset, true);
+  view.setUint32(HEADER_FLOWS, flows.length / 6, true);
+  view.setUint32(HEADER_FLOWS + 4, flowsOffset, true);
+  view.setUint32(HEADER_STATES, states.length / 4, true);
+  view.setUint32(HEADER_STATES + 4, statesOffset, true);
+  view.setUint32(HEADER_TRANSITIONS, transitions.length / 5, true);
+  view.setUint32(HEADER_TRANSITIONS + 4, transitionsOffset, true);
+  view.setUint32(HEADER_SHARED, sharedEntries.length, true);
+  view.setUint32(HEADER_SHARED + 4, sharedOffset, true);
+
+  for (let i = 0; i < strings.count; i++) {
+    view.setUint32(stringsOffset + i * STRING_SIZE, stringDataOffset + stringData.offsets[i], true);
+    view.setUint32(stringsOffset + i * STRING_SIZE + 4, stringData.lengths[i], true);
+  }
+  bytes.set(stringData.bytes, stringDataOffset);
+
+  writeWords(view, messagesOffset, messages);
+  writeWords(view, flowsOffset, flows);
+  writeWords(view, statesOffset, states);
+  writeWords(view, sharedOffset, sharedEntries);
+  for (let i = 0; i < transitions.length; i++) {
+    const offset = transitionsOffset + i * 4;
+    if (i % 5 === 3) {
+      view.setInt32(offset, transitions[i], true);
+    } else {
+      view.setUint32(offset, transitions[i], true);
+    }
+  }
+
+  return bytes;
+}
+
+/**
+ * Read-only view over an encoded agent.
+ *
+ * Opening validates the header only. Lookups binary-search the sorted tables and decode just
+ * the strings they touch; flows are materialized on first use and cached.
+ */
+export class BinaryAgent {
+  private readonly view: DataView;
+  private readonly decoder = new TextDecoder();
+  private readonly flowCache = new Map<string, FlowDefinition>();
+  private resolver: SharedValueResolver | undefined;
+
+  private constructor(private readonly bytes: Uint8Array) {
+    this.view = new DataView(bytes.buffer, bytes.byteOffset, bytes.byteLength);
+  }
+
+  /**
+   * Open an encoded agent. The buffer is used in place, not copied.
+   */
+  static from(buffer: ArrayBuffer | Uint8Array): BinaryAgent {
+    const bytes = buffer instanceof Uint8Array ? buffer : new Uint8Array(buffer);
+    if (bytes.byteLength < HEADER_SIZE) {
+      throw new Error('Binary agent is truncated');
+    }
+
+    const agent = new BinaryAgent(bytes);
+    if (agent.u32(0) !== MAGIC) {
+      throw new Error('Not a binary agent');
+    }
+    const version = agent.view.getUint16(4, true);
+    if (version !== VERSION) {
+      throw new Error(`Unsupported binary agent version ${version}`);
+    }
+    if (agent.view.getUint16(HEADER_FLAGS, true) & FLAG_SHARED) {
+      const sharedOffset = agent.u32(HEADER_SHARED + 4);
+      agent.resolver = new SharedValueResolver(agent.u32(HEADER_SHARED), (index) =>
+        JSON.parse(agent.string(agent.u32(sharedOffset + index * 4))),
+      );
+    }
+    return agent;
+  }
+
+  /**
+   * Open a binary agent file, memory-mapped when running on Bun
+   */
+  static async load(path: string): Promise<BinaryAgent> {
+    const bun = (globalThis as { Bun?: { mmap(path: string): Uint8Array } }).Bun;
+    if (bun) {
+      return BinaryAgent.from(bun.mmap(path));
+    }
+    const { readFile } = await import('node:fs/promises');
+    return BinaryAgent.from(await readFile(path));
+  }
+
+  get messageCount(): number {
+    return this.u32(HEADER_MESSAGES);
+  }
+
+  get flowCount(): number {
+    return this.u32(HEADER_FLOWS);
+  }
+
+  get initialFlow(): string {
+    return this.string(this.u32(HEADER_INITIAL_FLOW));
+  }
+
+  /**
+   * Agent configuration (name, displayName, config, defaults)
+   */
+  agentConfig(): Record<string, any> {
+    return this.payload(this.u32(HEADER_AGENT));
+  }
+
+  hasMessage(id: string): boolean {
+    return this.findMessage(id) >= 0;
+  }
+
+  /**
+   * Parse and return one message payload, or `undefined` if there is no such message.
+   *
+   * Fragments shared between messages are returned as the same frozen instance each time.
+   */
+  getMessage<T = unknown>(id: string): T | undefined {
+    const index = this.findMessage(id);
+    if (index < 0) return undefined;
+    return this.payload(this.u32(this.messageRecord(index) + 4)) as T;
+  }
+
+  /** Message IDs in sorted order */
+  *messageIds(): IterableIterator<string> {
+    for (let i = 0; i < this.messageCount; i++) {
+      yield this.string(this.u32(this.messageRecord(i)));
+    }
+  }
+
+  /** Flow IDs in sorted order */
+  *flowIds(): IterableIterator<string> {
+    for (let i = 0; i < this.flowCount; i++) {
+      yield this.string(this.u32(this.flowRecord(i)));
+    }
+  }
+
+  /**
+   * Materialize one flow in the format accepted by FlowMachine
+   */
+  getFlow(id: string): FlowDefinition | undefined {
+    const cached = this.flowCache.get(id);
+    if (cached) return cached;
+
+    const index = this.search(this.flowCount, (i) => this.u32(this.flowRecord(i)), id);
+    if (index < 0) return undefined;
+
+    const record = this.flowRecord(index);
+    const firstState = this.u32(record + 16);
+    const stateCount = this.u32(record + 20);
+    const states: Record<string, StateDefinition> = {};
+
+    for (let s = firstState; s < firstState + stateCount; s++) {
+      const state = this.stateRecord(s);
+      const firstTransition = this.u32(state + 8);
+      const transitionCount = this.u32(state + 12);
+      const transitions: TransitionDefinition[] = [];
+
+      for (let t = firstTransition; t < firstTransition + transitionCount; t++) {
+        transitions.push(this.readTransition(this.transitionRecord(t)));
+      }
+
+      const definition: StateDefinition = { transitions };
+      const meta = this.json(this.u32(state + 4));
+      if (meta !== undefined) definition.meta = meta;
+      states[this.string(this.u32(state))] = definition;
+    }
+
+    const flow: FlowDefinition = { id, initial: this.string(this.u32(record + 4)), states };
+    const meta = this.json(this.u32(record + 8));
+    if (meta !== undefined) flow.meta = meta;
+    const aliases = this.json(this.u32(record + 12));
+    if (aliases !== undefined) flow.aliases = aliases;
+
+    this.flowCache.set(id, flow);
+    return flow;
+  }
+
+  /**
+   * Materialize every flow into a machine definition
+   */
+  machineDefinition(id: string): MachineDefinition {
+    const flows: Record<string, FlowDefinition> = {};
+    for (const flowId of this.flowIds()) {
+      flows[flowId] = this.getFlow(flowId)!;
+    }
+    return { id, initialFlow: this.initialFlow, flows };
+  }
+
+  private readTransition(record: number): TransitionDefinition {
+    const extra = this.json(this.u32(record + 16));
+    const transition: Record<string, unknown> = extra ?? {};
+
+    const pattern = this.u32(record);
+    if (pattern !== NONE) transition.pattern = this.string(pattern);
+    const target = this.u32(record + 4);
+    if (target !== NONE) transition.target = this.string(target);
+    if (this.u32(record + 8) & HAS_PRIORITY) {
+      transition.priority = this.view.getInt32(record + 12, true);
+    }
+    return transition as unknown as TransitionDefinition;
+  }
+
+  private findMessage(id: string): number {
+    return this.search(this.messageCount, (i) => this.u32(this.messageRecord(i)), id);
+  }
+
+  /**
+   * Binary search a table sorted by the string at `key(i)`
+   */
+  private search(count: number, key: (index: number) => number, id: string): number {
+    let low = 0;
+    let high = count - 1;
+    while (low <= high) {
+      const mid = (low + high) >>> 1;
+      const cmp = compareIds(this.string(key(mid)), id);
+      if (cmp === 0) return mid;
+      if (cmp < 0) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return -1;
+  }
+
+  private string(index: number): string {
+    const record = this.u32(HEADER_STRINGS + 4) + index * STRING_SIZE;
+    const offset = this.u32(record);
+    const length = this.u32(record + 4);
+    return this.decoder.decode(this.bytes.subarray(offset, offset + length));
+  }
+
+  private payload(index: number): any {
+    const value = JSON.parse(this.string(index));
+    return this.resolver ? this.resolver.resolve(value) : value;
+  }
+
+  private json(index: number): any {
+    return index === NONE ? undefined : JSON.parse(this.string(index));
+  }
+
+  private messageRecord(index: number): number {
+    return this.u32(HEADER_MESSAGES + 4) + index * MESSAGE_SIZE;
+  }
+
+  private flowRecord(index: number): number {
+    return this.u32(HEADER_FLOWS + 4) + index * FLOW_SIZE;
+  }
+
+  private stateRecord(index: number): number {
+    return this.u32(HEADER_STATES + 4) + index * STATE_SIZE;
+  }
+
+  private transitionRecord(index: number): number {
+    return this.u32(HEADER_TRANSITIONS + 4) + index * TRANSITION_SIZE;
+  }
+
+  private u32(offset: number): number {
+    return this.view.getUint32(offset, true);
+  }
+}
+
+/**
+ * Interns strings and encodes them as UTF-8
+ */
+class StringTable {
+  private readonly index = new Map<string, number>();
+  private readonly values: string[] = [];
+
+  get count(): number {
+    return this.values.length;
+  }
+
+  add(value: string): number {
+    let index = this.index.get(value);
+    if (index === undefined) {
+      index = this.values.length;
+      this.values.push(value);
+      this.index.set(value, index);
+    }
+    return index;
+  }
+
+  addJson(value: unknown): number {
+    return value === undefined ? NONE : this.add(JSON.stringify(value));
+  }
+
+  encode(): { bytes: Uint8Array; offsets: Uint32Array; lengths: Uint32Array } {
+    const encoder = new TextEncoder();
+    const encoded = this.values.map((value) => encoder.encode(value));
+    const offsets = new Uint32Array(encoded.length);
+    const lengths = new Uint32Array(encoded.length);
+
+    let size = 0;
+    encoded.forEach((bytes, i) => {
+      offsets[i] = size;
+      lengths[i] = bytes.length;
+      size += bytes.length;
+    });
+
+    const bytes = new Uint8Array(size);
+    encoded.forEach((chunk, i) => bytes.set(chunk, offsets[i]));
+    return { bytes, offsets, lengths };
+  }
+}
+
+/**
+ * Ordering used for the sorted tables. Plain code unit order, so reader and writer agree
+ * regardless of locale.
+ */
+function compareIds(a: string, b: string): number {
+  return a < b ? -1 : a > b ? 1 : 0;
+}
+
+function align4(value: number): number {
+  return (value + 3) & ~3;
+}
+
+function writeWords(view: DataView, offset: number, words: ArrayLike<number>): void {
+  for (let i = 0; i < words.length; i++) {
+    view.setUint32(offset + i * 4, words[i], true);
+  }
+}
@@ -0,0 +1,217 @@
+/**
+ * @module chunked-agent
+ * Compiled agents split into a manifest and per-flow chunks, loaded on demand.
+ *
+ * The manifest holds the agent config and maps every flow and message to the chunk that
+ * contains it. Each flow is one chunk, and its messages another; messages sent from several
+ * flows, or from none, share a common chunk. A {@link ChunkedAgent} reads chunks the first time
+ * they are needed and keeps a bounded number of them, so conversations that only touch the main
+ * flow never load the long tail. Set `maxLoadedFlows` on the agent as well, since its flow
+ * machines hold on to their flow definitions.
+ *
+ * ```ts
+ * const chunked = await ChunkedAgent.load('dist/coffee-shop.chunks');
+ * const agent = new ConversationalAgent({
+ *   id: 'CoffeeShop',
+ *   onStateChange,
+ *   loadFlow: (flowId) => chunked.getFlow(flowId),
+ *   maxLoadedFlows: 16,
+ * });
+ * agent.addFlow((await chunked.getFlow(chunked.initialFlow))!);
+ * ```
+ */
+
+import type { CompiledAgentData } from './binary-agent.js';
+import type { FlowDefinition } from './unified-types.js';
+
+const VERSION = 1;
+
+/** File name of the manifest within a chunk directory */
+export const CHUNK_MANIFEST = 'manifest.json';
+
+/** Chunk holding messages not owned by a single flow */
+const COMMON_MESSAGES = 'messages.json';
+
+export interface ChunkManifest {
+  version: number;
+  agent: object;
+  initialFlow: string;
+  /** Chunk name by flow ID */
+  flows: Record<string, string>;
+  /** Chunk name by message ID */
+  messages: Record<string, string>;
+}
+
+/**
+ * A compiled agent split into chunks. Flow chunks hold a {@link FlowDefinition}, message chunks
+ * a record of message payloads by ID.
+ */
+export interface AgentChunks {
+  manifest: ChunkManifest;
+  chunks: Record<string, unknown>;
+}
+
+/** Reads a chunk, or the manifest, by name */
+export type ChunkLoader = (name: string) => Promise<unknown>;
+
+export interface ChunkedAgentOptions {
+  /** Maximum number of chunks kept in memory */
+  maxChunks?: number;
+}
+
+/**
+ * Split a compiled agent into a manifest, one chunk per flow and one per flow's messages
+ */
+export function chunkAgent(data: CompiledAgentData): AgentChunks {
+  const flowIds = Object.keys(data.flows);
+
+  // Flows sending each message
+  const senders = new Map<string, Set<string>>();
+  for (const flowId of flowIds) {
+    for (const state of Object.values(data.flows[flowId].states)) {
+      const messageId = state.meta?.messageId;
+      if (!messageId || !(messageId in data.messages)) continue;
+      const flows = senders.get(messageId) ?? new Set();
+      flows.add(flowId);
+      senders.set(messageId, flows);
+    }
+  }
+
+  const manifest: ChunkManifest = {
+    version: VERSION,
+    agent: data.agent,
+    initialFlow: data.initialFlow ?? flowIds[0] ?? '',
+    flows: {},
+    messages: {},
+  };
+  const chunks: Record<string, unknown> = {};
+
+  for (const flowId of flowIds) {
+    const name = `flow.${flowId}.json`;
+    manifest.flows[flowId] = name;
+    chunks[name] = data.flows[flowId];
+  }
+
+  for (const [messageId, message] of Object.entries(data.messages)) {
+    const flows = senders.get(messageId);
+    const name =
+      flows?.size === 1 ? `messages.${flows.values().next().value}.json` : COMMON_MESSAGES;
+    manifest.messages[messageId] = name;
+    const chunk = (chunks[name] ??= {}) as Record<string, unknown>;
+    chunk[messageId] = message;
+  }
+
+  return { manifest, chunks };
+}
+
+/**
+ * Read-only view of a chunked agent that loads chunks on first use.
+ *
+ * Loaded chunks are kept in a least-recently-used cache of `maxChunks` entries; concurrent
+ * requests for the same chunk share one load.
+ */
+export class ChunkedAgent {
+  private cache = new Map<string, Promise<unknown>>();
+  private readonly maxChunks: number;
+  private loads = 0;
+
+  private constructor(
+    readonly manifest: ChunkManifest,
+    private readonly loader: ChunkLoader,
+    options: ChunkedAgentOptions,
+  ) {
+    this.maxChunks = Math.max(1, options.maxChunks ?? 32);
+  }
+
+  /**
+   * Open a chunked agent, reading only its manifest
+   */
+  static async open(loader: ChunkLoader, options: ChunkedAgentOptions = {}): Promise<ChunkedAgent> {
+    const manifest = (await loader(CHUNK_MANIFEST)) as ChunkManifest | undefined;
+    if (!manifest || typeof manifest !== 'object' || !manifest.flows || !manifest.messages) {
+      throw new Error('Not a chunked agent manifest');
+    }
+    if (manifest.version !== VERSION) {
+      throw new Error(`Unsupported chunked agent version ${manifest.version}`);
+    }
+    return new ChunkedAgent(manifest, loader, options);
+  }
+
+  /**
+   * Open a chunked agent written to a directory
+   */
+  static async load(directory: string, options: ChunkedAgentOptions = {}): Promise<ChunkedAgent> {
+    const { readFile } = await import('node:fs/promises');
+    const { join } = await import('node:path');
+    return ChunkedAgent.open(
+      async (name) => JSON.parse(await readFile(join(directory, name), 'utf-8')),
+      options,
+    );
+  }
+
+  get agentConfig(): object {
+    return this.manifest.agent;
+  }
+
+  get initialFlow(): string {
+    return this.manifest.initialFlow;
+  }
+
+  get flowIds(): string[] {
+    return Object.keys(this.manifest.flows);
+  }
+
+  get messageIds(): string[] {
+    return Object.keys(this.manifest.messages);
+  }
+
+  /** Number of chunks currently held in memory */
+  get cachedChunks(): number {
+    return this.cache.size;
+  }
+
+  /** Number of chunk reads so far, including reloads of evicted chunks */
+  get chunkLoads(): number {
+    return this.loads;
+  }
+
+  hasFlow(id: string): boolean {
+    return Object.hasOwn(this.manifest.flows, id);
+  }
+
+  hasMessage(id: string): boolean {
+    return Object.hasOwn(this.manifest.messages, id);
+  }
+
+  async getFlow(id: string): Promise<FlowDefinition | undefined> {
+    if (!this.hasFlow(id)) return undefined;
+    return (await this.chunk(this.manifest.flows[id])) as FlowDefinition;
+  }
+
+  async getMessage<T = unknown>(id: string): Promise<T | undefined> {
+    if (!this.hasMessage(id)) return undefined;
+    const messages = (await this.chunk(this.manifest.messages[id])) as Record<string, T>;
+    return messages[id];
+  }
+
+  private chunk(name: string): Promise<unknown> {
+    const cached = this.cache.get(name);
+    if (cached) {
+      // Move to the most recently used end
+      this.cache.delete(name);
+      this.cache.set(name, cached);
+      return cached;
+    }
+
+    const pending = this.loader(name).catch((error) => {
+      if (this.cache.get(name) === pending) this.cache.delete(name);
+      throw error;
+    });
+    this.loads++;
+    this.cache.set(name, pending);
+    if (this.cache.size > this.maxChunks) {
+      this.cache.delete(this.cache.keys().next().value!);
+    }
+    return pending;
+  }
+}
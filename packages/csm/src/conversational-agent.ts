@@ -3,7 +3,7 @@
  * Main orchestrator for managing multiple conversation flows.
  */
 
-import { FlowMachine, type TransitionResult } from './flow-machine.js';
+import { FlowMachine, type FlowMachineOptions, type TransitionResult } from './flow-machine.js';
 import type {
   MachineDefinition,
   AgentOptions,
@@ -36,6 +36,8 @@ import {
 export class ConversationalAgent {
   private options: AgentOptions;
   private machines = new Map<string, FlowMachine>();
+  /** Flows loaded through `loadFlow`, least recently used first */
+  private loadedFlows = new Set<string>();
   private activeMachineId = '';
   private context: Context;
   private initialized = false;
@@ -82,7 +84,7 @@ export class ConversationalAgent {
       if (this.machines.has(flowId)) {
         throw new Error(`Flow with ID '${flowId}' already exists`);
       }
-      const flowMachine = new FlowMachine(flowDef);
+      const flowMachine = new FlowMachine(flowDef, undefined, this.machineOptions(flowId));
       this.machines.set(flowId, flowMachine);
     }
     
@@ -113,7 +115,7 @@ export class ConversationalAgent {
       throw new Error(`Flow with ID '${flow.id}' already exists`);
     }
 
-    const machine = new FlowMachine(flow);
+    const machine = new FlowMachine(flow, undefined, this.machineOptions(flow.id));
     this.machines.set(flow.id, machine);
 
     // Set as active machine if it's the first one
@@ -126,6 +128,60 @@ export class ConversationalAgent {
     }
   }
 
+  /**
+   * Matcher options for a flow: its prebuilt matcher, else compiled on load if requested.
+   */
+  private machineOptions(flowId: string): FlowMachineOptions {
+    const matcher = this.options.flowMatchers?.[flowId];
+    if (matcher) return { matcher };
+    return this.options.compileFlows ? { matcher: 'compiled' } : {};
+  }
+
+  /**
+   * Gets the machine for a flow, loading the flow on first entry if a loader is configured.
+   */
+  private async resolveMachine(flowId: string): Promise<FlowMachine | undefined> {
+    const existing = this.machines.get(flowId);
+    if (existing) {
+      // Move to the most recently used end
+      if (this.loadedFlows.delete(flowId)) this.loadedFlows.add(flowId);
+      return existing;
+    }
+    if (!this.options.loadFlow) return undefined;
+
+    const flow = await this.options.loadFlow(flowId);
+    if (!flow) return undefined;
+
+    // Another transition may have loaded it meanwhile
+    const loaded = this.machines.get(flowId);
+    if (loaded) return loaded;
+
+    const machine = new FlowMachine(flow, undefined, this.machineOptions(flowId));
+    this.machines.set(flowId, machine);
+    this.loadedFlows.add(flowId);
+    this.evictLoadedFlows(flowId);
+    return machine;
+  }
+
+  /**
+   * Drops least recently used loaded flows beyond `maxLoadedFlows`. The active flow, flows on
+   * the flow stack and `entering` are kept.
+   */
+  private evictLoadedFlows(entering: string): void {
+    const max = this.options.maxLoadedFlows;
+    if (max === undefined || this.loadedFlows.size <= max) return;
+
+    const pinned = new Set([entering, this.activeMachineId]);
+    for (const frame of this.flowExecutionState?.flowStack ?? []) pinned.add(frame.flowId);
+
+    for (const flowId of this.loadedFlows) {
+      if (this.loadedFlows.size <= max) break;
+      if (pinned.has(flowId)) continue;
+      this.loadedFlows.delete(flowId);
+      this.machines.delete(flowId);
+    }
+  }
+
   /**
    * Removes a flow from this agent.
    *
@@ -138,6 +194,7 @@ export class ConversationalAgent {
     }
 
     this.machines.delete(flowId);
+    this.loadedFlows.delete(flowId);
   }
 
   /**
@@ -367,7 +424,7 @@ export class ConversationalAgent {
   ): Promise<void> {
     if (!result.machineId) return;
 
-    const newMachine = this.machines.get(result.machineId);
+    const newMachine = await this.resolveMachine(result.machineId);
     if (!newMachine) {
       throw new Error(`Target machine '${result.machineId}' not found`);
     }
@@ -397,7 +454,7 @@ export class ConversationalAgent {
     const { flowId, parameters = {} } = result.flowInvocation;
 
     // Get the target flow machine
-    const targetFlow = this.machines.get(flowId);
+    const targetFlow = await this.resolveMachine(flowId);
     if (!targetFlow) {
       throw new Error(`Target flow '${flowId}' not found`);
     }
@@ -0,0 +1,146 @@
+/**
+ * @module flow-compiler
+ * Ahead-of-time compilation of flow definitions into JavaScript matchers.
+ *
+ * {@link FlowMachine} normally interprets a state's transitions on every input: it sorts them
+ * by priority and tests each pattern in turn. The generated matcher fixes that work at compile
+ * time. Each state becomes a `case` of one `switch`, runs of plain patterns become a `switch` on
+ * the lower-cased input (or a `Map` lookup for long runs), wildcards become precompiled regular
+ * expressions, and only transitions with conditions or interpolated patterns call back into the
+ * interpreter. The code can be generated at build time and shipped with the agent, or compiled
+ * when a flow is loaded.
+ */
+
+import type {
+  FlowDefinition,
+  FlowMatcherFactory,
+  TransitionDefinition,
+} from './unified-types.js';
+
+/** Runs of at least this many plain patterns are dispatched through a `Map` */
+const MAP_DISPATCH_THRESHOLD = 8;
+
+/**
+ * All transitions of a flow in the order generated matchers index them: states in definition
+ * order, transitions in definition order within each state.
+ */
+export function flowTransitions(definition: FlowDefinition): TransitionDefinition[] {
+  return Object.values(definition.states).flatMap((state) => state.transitions);
+}
+
+/**
+ * Generate the body of a {@link FlowMatcherFactory}: a function of `(T, h)`, where `T` is
+ * {@link flowTransitions} and `h` the interpreter helpers, returning the matcher.
+ *
+ * The matcher returns exactly the transition {@link FlowMachine.transition} would take.
+ */
+export function generateFlowMatcher(definition: FlowDefinition): string {
+  const prelude: string[] = [];
+  const cases: string[] = [];
+  let offset = 0;
+
+  for (const [stateId, state] of Object.entries(definition.states)) {
+    const entries = state.transitions.map((transition, i) => ({ transition, index: offset + i }));
+    offset += state.transitions.length;
+
+    // Same stable order as the interpreter
+    entries.sort((a, b) => (b.transition.priority || 0) - (a.transition.priority || 0));
+
+    const body: string[] = [];
+    const seen = new Set<string>();
+    let run: Array<[label: string, index: number]> = [];
+    let exhaustive = false;
+
+    const flush = () => {
+      if (run.length === 0) return;
+      if (run.length >= MAP_DISPATCH_THRESHOLD) {
+        const name = `M${prelude.length}`;
+        prelude.push(`const ${name} = new Map(${JSON.stringify(run)});`);
+        body.push(`{ const i = ${name}.get(lower); if (i !== undefined) return T[i]; }`);
+      } else {
+        body.push('switch (lower) {');
+        for (const [label, index] of run) {
+          body.push(`  case ${JSON.stringify(label)}: return T[${index}];`);
+        }
+        body.push('}');
+      }
+      run = [];
+    };
+
+    for (const { transition, index } of entries) {
+      const pattern = transition.pattern;
+
+      // Automatic and default transitions always match, regardless of conditions
+      if (!pattern || pattern === ':default') {
+        flush();
+        body.push(`return T[${index}];`);
+        exhaustive = true;
+        break;
+      }
+
+      if (transition.condition || pattern.includes('#{')) {
+        flush();
+        body.push(`if (h.matches(T[${index}], input, context)) return T[${index}];`);
+        continue;
+      }
+
+      const label = pattern.toLowerCase();
+      if (pattern.includes('*') && !pattern.startsWith(':')) {
+        flush();
+        const name = `R${prelude.length}`;
+        const source = JSON.stringify(wildcardSource(pattern));
+        prelude.push(`const ${name} = new RegExp(${source}, 'i');`);
+        body.push(
+          `if (lower === ${JSON.stringify(label)} || ${name}.test(input)) return T[${index}];`,
+        );
+        continue;
+      }
+
+      // A repeated plain pattern can never be reached
+      if (seen.has(label)) continue;
+      seen.add(label);
+      run.push([label, index]);
+    }
+
+    flush();
+    if (!exhaustive) body.push('return undefined;');
+
+    cases.push(`    case ${JSON.stringify(stateId)}: {`);
+    cases.push(...body.map((line) => `      ${line}`));
+    cases.push('    }');
+  }
+
+  return [
+    '"use strict";',
+    ...prelude,
+    'return function match(state, input, context) {',
+    '  const lower = input.toLowerCase();',
+    '  switch (state) {',
+    ...cases,
+    '  }',
+    '  return undefined;',
+    '};',
+  ].join('\n');
+}
+
+/**
+ * Turn generated matcher code into a factory
+ */
+export function loadFlowMatcher(code: string): FlowMatcherFactory {
+  return new Function('T', 'h', code) as FlowMatcherFactory;
+}
+
+/**
+ * Generate and load a matcher for `definition` in one step
+ */
+export function compileFlowMatcher(definition: FlowDefinition): FlowMatcherFactory {
+  return loadFlowMatcher(generateFlowMatcher(definition));
+}
+
+/**
+ * Regular expression source for a wildcard pattern, as the interpreter builds it
+ */
+function wildcardSource(pattern: string): string {
+  const escaped = pattern.replace(/[.+?^${}()|[\]\\]/g, '\\$&').replace(/\*/g, '.*');
+  return `^${escaped}$`;
+}
@@ -3,17 +3,40 @@
  * Individual flow state machine implementation.
  */
 
+import { type InterpolationTemplate, compileTemplate } from '@rcs-lang/core';
 import jsonLogic from 'json-logic-js';
+import { compileFlowMatcher, flowTransitions } from './flow-compiler.js';
 import type {
   FlowDefinition,
+  FlowMatcher,
+  FlowMatcherFactory,
   Context,
   MachineState,
   ProcessResult,
   StateDefinition,
   Transition,
+  TransitionDefinition,
   TransitionTarget,
 } from './unified-types.js';
 
+// How a precomputed transition is matched
+const MATCH_ALWAYS = 0; // No pattern or :default
+const MATCH_ATOM = 1; // Plain pattern, compared by atom ID, then as a wildcard
+const MATCH_DYNAMIC = 2; // Condition or interpolated pattern, left to the interpreter
+
+/**
+ * A state's transitions in match order (by priority, stable), cut after the first one that
+ * always matches, which doubles as the state's default.
+ */
+interface StateTable {
+  readonly transitions: readonly TransitionDefinition[];
+  readonly kinds: Uint8Array;
+  /** Atom ID of each MATCH_ATOM pattern, lower-cased */
+  readonly atoms: Int32Array;
+  /** Wildcard regex of each MATCH_ATOM pattern containing `*` */
+  readonly wildcards: ReadonlyArray<RegExp | undefined>;
+}
+
 /**
  * Result of a transition attempt within a flow.
  */
@@ -60,6 +83,17 @@ export interface TransitionResult {
   };
 }
 
+/**
+ * Options for a {@link FlowMachine}.
+ */
+export interface FlowMachineOptions {
+  /**
+   * Ahead-of-time compiled transition matcher. `'compiled'` generates one when the machine
+   * is created; a factory uses code generated at build time. Interpreted when omitted.
+   */
+  matcher?: FlowMatcherFactory | 'compiled';
+}
+
 /**
  * A lightweight state machine for a single conversation flow.
  * Each flow in an RCL document becomes one FlowMachine instance.
@@ -68,19 +102,40 @@ export class FlowMachine {
   public definition: FlowDefinition;
   private currentState: string;
   private compiledPatterns: Map<string, RegExp> = new Map();
+  // Interpolated patterns, compiled on first use
+  private patternTemplates = new Map<string, InterpolationTemplate>();
+  private matcher?: FlowMatcher;
+
+  // Dense IDs for states and lower-cased patterns ("atoms"), and per-state match tables
+  private stateIds = new Map<string, number>();
+  private atomIds = new Map<string, number>();
+  private tables: StateTable[] = [];
+  private stateIndex = -1;
 
   /**
    * Creates a new flow machine instance.
    *
    * @param definition - The flow definition (typically from compiled RCL)
    * @param initialState - Optional initial state (defaults to flow's initial)
+   * @param options - Optional compiled matcher
    */
-  constructor(definition: FlowDefinition, initialState?: string) {
+  constructor(definition: FlowDefinition, initialState?: string, options: FlowMachineOptions = {}) {
     this.definition = definition;
-    this.currentState = initialState || definition.initial;
+    this.currentState = '';
 
-    // Pre-compile regex patterns for performance
+    // Pre-compile regex patterns and match tables for performance
     this.compilePatterns();
+    this.buildTables();
+    this.enterState(this.resolveState(initialState || definition.initial));
+
+    if (options.matcher) {
+      const factory =
+        options.matcher === 'compiled' ? compileFlowMatcher(definition) : options.matcher;
+      this.matcher = factory(flowTransitions(definition), {
+        matches: (transition, input, context) =>
+          this.matchesTransition(transition, input, context),
+      });
+    }
   }
 
   /**
@@ -126,30 +181,35 @@ export class FlowMachine {
    * @returns Result of the transition attempt
    */
   transition(input: string, context: Context): TransitionResult {
-    const stateDef = this.stateDefinition;
-    if (!stateDef) {
+    const table = this.tables[this.stateIndex];
+    if (!table) {
       return { type: 'none' };
     }
 
-    // Sort transitions by priority
-    const sortedTransitions = [...stateDef.transitions].sort(
-      (a, b) => (b.priority || 0) - (a.priority || 0),
-    );
-
-    // Try each transition
-    for (const transition of sortedTransitions) {
-      if (this.matchesTransition(transition, input, context)) {
-        return this.createTransitionResult(transition, context);
-      }
+    if (this.matcher) {
+      const transition = this.matcher(this.currentState, input, context);
+      return transition ? this.createTransitionResult(transition, context) : { type: 'none' };
     }
 
-    // Check for default transition
-    const defaultTransition = stateDef.transitions.find(
-      (t) => t.pattern === ':default' || !t.pattern,
-    );
-
-    if (defaultTransition) {
-      return this.createTransitionResult(defaultTransition, context);
+    // Try each transition in precomputed order; the input's atom is looked up on first use
+    const { transitions, kinds, atoms, wildcards } = table;
+    let inputAtom: number | undefined;
+    for (let i = 0; i < transitions.length; i++) {
+      const transition = transitions[i];
+      switch (kinds[i]) {
+        case MATCH_ALWAYS:
+          return this.createTransitionResult(transition, context);
+        case MATCH_ATOM:
+          inputAtom ??= this.atomIds.get(input.toLowerCase()) ?? -1;
+          if (atoms[i] === inputAtom || wildcards[i]?.test(input)) {
+            return this.createTransitionResult(transition, context);
+          }
+          break;
+        default:
+          if (this.matchesTransition(transition, input, context)) {
+            return this.createTransitionResult(transition, context);
+          }
+      }
     }
 
     return { type: 'none' };
@@ -172,12 +232,13 @@ export class FlowMachine {
    * @throws Error if state doesn't exist
    */
   setState(stateId: string): void {
+    stateId = this.resolveState(stateId);
     if ('states' in this.definition) {
       if (!this.definition.states[stateId]) {
         throw new Error(`State '${stateId}' does not exist in flow '${this.id}'`);
       }
     }
-    this.currentState = stateId;
+    this.enterState(stateId);
   }
 
   /**
@@ -194,7 +255,7 @@ export class FlowMachine {
    * Restores machine state from serialization.
    */
   setMachineState(state: MachineState): void {
-    this.currentState = state.currentState;
+    this.enterState(this.resolveState(state.currentState));
   }
 
   /**
@@ -223,6 +284,58 @@ export class FlowMachine {
     }
   }
 
+  /**
+   * Builds each state's match table, assigning dense IDs to states and patterns.
+   */
+  private buildTables(): void {
+    for (const [stateId, stateDef] of Object.entries(this.definition.states)) {
+      // Same stable order as sorting at match time
+      const sorted = [...stateDef.transitions].sort(
+        (a, b) => (b.priority || 0) - (a.priority || 0),
+      );
+
+      // Nothing after a transition that always matches is ever tried
+      const always = sorted.findIndex((t) => !t.pattern || t.pattern === ':default');
+      const transitions = always === -1 ? sorted : sorted.slice(0, always + 1);
+
+      const kinds = new Uint8Array(transitions.length);
+      const atoms = new Int32Array(transitions.length).fill(-1);
+      const wildcards: Array<RegExp | undefined> = [];
+      transitions.forEach((transition, i) => {
+        const pattern = transition.pattern;
+        if (!pattern || pattern === ':default') {
+          kinds[i] = MATCH_ALWAYS;
+        } else if (transition.condition || pattern.includes('#{')) {
+          kinds[i] = MATCH_DYNAMIC;
+        } else {
+          kinds[i] = MATCH_ATOM;
+          atoms[i] = this.atomId(pattern.toLowerCase());
+          wildcards[i] = this.compiledPatterns.get(`${stateId}:${pattern}`);
+        }
+      });
+
+      this.stateIds.set(stateId, this.tables.length);
+      this.tables.push({ transitions, kinds, atoms, wildcards });
+    }
+  }
+
+  private atomId(atom: string): number {
+    let id = this.atomIds.get(atom);
+    if (id === undefined) {
+      id = this.atomIds.size;
+      this.atomIds.set(atom, id);
+    }
+    return id;
+  }
+
+  /**
+   * Makes `stateId` current, keeping its dense ID in step.
+   */
+  private enterState(stateId: string): void {
+    this.currentState = stateId;
+    this.stateIndex = this.stateIds.get(stateId) ?? -1;
+  }
+
   /**
    * Checks if input matches a transition.
    */
@@ -242,7 +355,7 @@ export class FlowMachine {
       return false;
     }
 
-    // Resolve string interpolation in pattern (#{variable} -> ${variable})
+    // Resolve string interpolation in pattern (#{@variable.path})
     let resolvedPattern = transition.pattern;
     if (resolvedPattern.includes('#{')) {
       resolvedPattern = this.interpolatePattern(resolvedPattern, context);
@@ -265,20 +378,16 @@ export class FlowMachine {
 
   /**
    * Interpolates variables in pattern strings.
-   * Converts #{variable} to ${variable} and evaluates as template literal.
+   * Each pattern is compiled to a template once; `#{@name.path}` placeholders render values from
+   * the context, and placeholders that are not a variable path are kept as written.
    */
   private interpolatePattern(pattern: string, context: Context): string {
-    try {
-      // Convert #{variable} to ${context.variable} syntax
-      const templateString = pattern.replace(/#{([^}]+)}/g, '${context.$1}');
-      
-      // Create a function that has access to context and evaluates the template
-      const fn = new Function('context', `return \`${templateString}\``);
-      return fn(context);
-    } catch (error) {
-      console.error(`Error interpolating pattern: ${pattern}`, error);
-      return pattern; // Return original pattern if interpolation fails
+    let template = this.patternTemplates.get(pattern);
+    if (!template) {
+      template = compileTemplate(pattern);
+      this.patternTemplates.set(pattern, template);
     }
+    return template.render(context);
   }
 
   /**
@@ -325,6 +434,14 @@ export class FlowMachine {
     }
   }
 
+  /**
+   * Maps the name of a state merged by minimization to the state that replaced it.
+   */
+  private resolveState(stateId: string): string {
+    const aliases = this.definition.aliases;
+    return aliases && Object.hasOwn(aliases, stateId) ? aliases[stateId] : stateId;
+  }
+
   /**
    * Gets the string representation of a target.
    */
@@ -411,7 +528,8 @@ export class FlowMachine {
     }
 
     // Regular state transition
-    this.currentState = targetString;
+    targetString = this.resolveState(targetString);
+    this.enterState(targetString);
     return {
       type: 'state',
       stateId: targetString,
@@ -42,7 +42,15 @@
 
 // Core classes
 export { ConversationalAgent } from './conversational-agent.js';
-export { FlowMachine, type TransitionResult } from './flow-machine.js';
+export { FlowMachine, type FlowMachineOptions, type TransitionResult } from './flow-machine.js';
+
+// Ahead-of-time flow compilation
+export {
+  compileFlowMatcher,
+  flowTransitions,
+  generateFlowMatcher,
+  loadFlowMatcher,
+} from './flow-compiler.js';
 
 // Machine definition format (validation and helpers)
 export {
@@ -53,6 +61,36 @@ export {
   type LegacySingleFlowMachine,
 } from './machine-definition.js';
 
+// Binary compiled-agent format
+export {
+  BinaryAgent,
+  encodeBinaryAgent,
+  type BinaryAgentEncodeOptions,
+  type CompiledAgentData,
+} from './binary-agent.js';
+
+// Chunked compiled-agent format
+export {
+  CHUNK_MANIFEST,
+  ChunkedAgent,
+  chunkAgent,
+  type AgentChunks,
+  type ChunkLoader,
+  type ChunkManifest,
+  type ChunkedAgentOptions,
+} from './chunked-agent.js';
+
+// Structural sharing of repeated payload fragments
+export {
+  SHARED_REF_KEY,
+  SharedValueResolver,
+  dedupeValues,
+  isSharedRef,
+  type DedupeOptions,
+  type DedupedValues,
+  type SharedRef,
+} from './structural-dedup.js';
+
 // Sub-flow support
 export { 
   SubFlowManager, 
@@ -0,0 +1,202 @@
+/**
+ * @module structural-dedup
+ * Structural sharing of repeated JSON subtrees.
+ *
+ * Compiled agents repeat the same suggestion lists, card fragments and config objects across many
+ * messages. {@link dedupeValues} stores each repeated object or array once in a `shared` table
+ * and replaces the occurrences with `{ "$shared": index }` references;
+ * {@link SharedValueResolver} turns them back into values, handing out one frozen instance per
+ * shared entry so repeated payloads also share memory at runtime.
+ */
+
+/** Key of a reference to a shared entry. Objects of the form `{ "$shared": n }` are reserved. */
+export const SHARED_REF_KEY = '$shared';
+
+export interface SharedRef {
+  $shared: number;
+}
+
+export interface DedupeOptions {
+  /**
+   * Smallest subtree, in serialized characters, worth sharing (default 32). Smaller subtrees
+   * would not shrink once replaced by a reference.
+   */
+  minSize?: number;
+}
+
+export interface DedupedValues {
+  /** The input values with repeated subtrees replaced by references */
+  values: unknown[];
+  /** Shared subtrees, which may themselves reference other entries */
+  shared: unknown[];
+}
+
+/**
+ * Check whether `value` is a reference to a shared entry
+ */
+export function isSharedRef(value: unknown): value is SharedRef {
+  if (value === null || typeof value !== 'object' || Array.isArray(value)) return false;
+  const keys = Object.keys(value);
+  return (
+    keys.length === 1 &&
+    keys[0] === SHARED_REF_KEY &&
+    typeof (value as SharedRef).$shared === 'number'
+  );
+}
+
+/**
+ * Replace subtrees occurring more than once across `values` with references to a shared table.
+ *
+ * Subtrees are compared by their JSON serialization, so only plain JSON data is supported and
+ * objects with the same entries in a different order are distinct. Every shared entry is
+ * referenced at least twice.
+ *
+ * @throws Error if the input already contains a `{ "$shared": n }` object
+ */
+export function dedupeValues(values: unknown[], options: DedupeOptions = {}): DedupedValues {
+  const minSize = options.minSize ?? 32;
+  const keys = new Map<object, string>();
+  const counts = new Map<string, number>();
+
+  // Serialize bottom-up, counting each subtree occurrence
+  const serialize = (node: unknown): string => {
+    if (node === null || typeof node !== 'object') {
+      return JSON.stringify(node) ?? 'null';
+    }
+    if (isSharedRef(node)) {
+      throw new Error(`Cannot deduplicate values containing reserved '${SHARED_REF_KEY}' objects`);
+    }
+
+    let key: string;
+    if (Array.isArray(node)) {
+      key = `[${node.map(serialize).join(',')}]`;
+    } else {
+      const parts: string[] = [];
+      for (const [name, value] of Object.entries(node)) {
+        if (value === undefined || typeof value === 'function') continue;
+        parts.push(`${JSON.stringify(name)}:${serialize(value)}`);
+      }
+      key = `{${parts.join(',')}}`;
+    }
+
+    keys.set(node, key);
+    if (key.length >= minSize) {
+      counts.set(key, (counts.get(key) ?? 0) + 1);
+    }
+    return key;
+  };
+  values.forEach(serialize);
+
+  // Emit top-down, sharing the outermost repeated subtrees
+  const entries: unknown[] = [];
+  const uses: number[] = [];
+  const entryIndex = new Map<string, number>();
+
+  const emit = (node: unknown): unknown => {
+    if (node === null || typeof node !== 'object') return node;
+
+    const key = keys.get(node)!;
+    if ((counts.get(key) ?? 0) < 2) return copy(node, emit);
+
+    let index = entryIndex.get(key);
+    if (index === undefined) {
+      index = entries.length;
+      entryIndex.set(key, index);
+      entries.push(undefined);
+      uses.push(0);
+      entries[index] = copy(node, emit);
+    }
+    uses[index]++;
+    return { [SHARED_REF_KEY]: index };
+  };
+  const emitted = values.map(emit);
+
+  // Inline entries that ended up referenced once, e.g. children of a shared subtree
+  const remap = new Int32Array(entries.length).fill(-1);
+  let kept = 0;
+  for (let i = 0; i < entries.length; i++) {
+    if (uses[i] > 1) remap[i] = kept++;
+  }
+
+  const finish = (node: unknown): unknown => {
+    if (node === null || typeof node !== 'object') return node;
+    if (isSharedRef(node)) {
+      const target = remap[node.$shared];
+      return target >= 0 ? { [SHARED_REF_KEY]: target } : finish(entries[node.$shared]);
+    }
+    return copy(node, finish);
+  };
+
+  const shared: unknown[] = new Array(kept);
+  for (let i = 0; i < entries.length; i++) {
+    if (remap[i] >= 0) shared[remap[i]] = finish(entries[i]);
+  }
+
+  return { values: emitted.map(finish), shared };
+}
+
+/**
+ * Expands shared references, materializing each shared entry once.
+ *
+ * Resolved entries are deeply frozen and the same instance is returned wherever an entry is
+ * referenced, so callers must not mutate resolved values.
+ */
+export class SharedValueResolver {
+  private readonly resolved: unknown[];
+
+  /**
+   * @param count - Number of shared entries
+   * @param load - Returns the unresolved value of an entry; called at most once per entry
+   */
+  constructor(
+    count: number,
+    private readonly load: (index: number) => unknown,
+  ) {
+    this.resolved = new Array(count);
+  }
+
+  /**
+   * Create a resolver over an in-memory shared table
+   */
+  static of(shared: unknown[]): SharedValueResolver {
+    return new SharedValueResolver(shared.length, (index) => shared[index]);
+  }
+
+  /**
+   * Return `value` with every reference replaced by its shared entry
+   */
+  resolve<T = unknown>(value: unknown): T {
+    return this.expand(value, false) as T;
+  }
+
+  private expand(node: unknown, freeze: boolean): unknown {
+    if (node === null || typeof node !== 'object') return node;
+    if (isSharedRef(node)) return this.entry(node.$shared);
+
+    const result = copy(node, (child) => this.expand(child, freeze));
+    return freeze ? Object.freeze(result) : result;
+  }
+
+  private entry(index: number): unknown {
+    if (index < 0 || index >= this.resolved.length) {
+      throw new Error(`Invalid shared reference ${index}`);
+    }
+    if (!(index in this.resolved)) {
+      this.resolved[index] = this.expand(this.load(index), true);
+    }
+    return this.resolved[index];
+  }
+}
+
+function copy(node: object, map: (child: unknown) => unknown): unknown {
+  if (Array.isArray(node)) {
+    return node.map(map);
+  }
+
+  const result: Record<string, unknown> = {};
+  for (const [name, value] of Object.entries(node)) {
+    if (value === undefined || typeof value === 'function') continue;
+    result[name] = map(value);
+  }
+  return result;
+}
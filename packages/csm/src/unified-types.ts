@@ -358,6 +358,12 @@ export interface FlowDefinition {
   /** Map of state IDs to their definitions */
   states: Record<string, StateDefinition>;
 
+  /**
+   * Names of states merged into an equivalent state by minimization, mapped to the state
+   * that replaced them. Accepted wherever a state ID is.
+   */
+  aliases?: Record<string, string>;
+
   /** Optional metadata for the flow */
   meta?: {
     /** Display name for the flow */
@@ -576,6 +582,33 @@ export interface MachineState {
   localContext: Context;
 }
 
+/**
+ * Selects the transition a flow takes for an input, as generated by the flow compiler.
+ * Returns undefined when no transition matches.
+ */
+export type FlowMatcher = (
+  state: string,
+  input: string,
+  context: Context,
+) => TransitionDefinition | undefined;
+
+/**
+ * Interpreter hooks available to generated matchers for transitions that can only be
+ * decided at runtime (conditions and interpolated patterns).
+ */
+export interface FlowMatcherHelpers {
+  /** Whether the interpreter would take `transition` for this input */
+  matches(transition: TransitionDefinition, input: string, context: Context): boolean;
+}
+
+/**
+ * Builds a {@link FlowMatcher} from a flow's transitions in definition order.
+ */
+export type FlowMatcherFactory = (
+  transitions: TransitionDefinition[],
+  helpers: FlowMatcherHelpers,
+) => FlowMatcher;
+
 /**
  * Types of triggers that can cause state changes.
  */
@@ -948,6 +981,28 @@ export interface AgentOptions {
 
   /** Initial context if creating new agent */
   initialContext?: Context;
+
+  /**
+   * Ahead-of-time compiled matchers by flow ID, as emitted by the compiler. Flows without
+   * an entry are interpreted, or compiled on load when `compileFlows` is set.
+   */
+  flowMatchers?: Record<string, FlowMatcherFactory>;
+
+  /** Compile every flow without a prebuilt matcher when it is added */
+  compileFlows?: boolean;
+
+  /**
+   * Loads a flow that has not been added the first time a transition enters it, e.g. from
+   * a chunked agent.
+   */
+  loadFlow?: (flowId: string) => Promise<FlowDefinition | undefined>;
+
+  /**
+   * Maximum number of flows from `loadFlow` kept in memory. Beyond it the least recently used
+   * ones are dropped, except the active flow and flows on the flow stack, and loaded again on
+   * their next entry, starting over from their initial state. Flows added directly are kept.
+   */
+  maxLoadedFlows?: number;
 }
 
 /**
@@ -0,0 +1,169 @@
+import { describe, expect, test } from 'bun:test';
+import { mkdtempSync, rmSync, writeFileSync } from 'node:fs';
+import { tmpdir } from 'node:os';
+import { join } from 'node:path';
+import {
+  BinaryAgent,
+  type CompiledAgentData,
+  FlowMachine,
+  encodeBinaryAgent,
+} from '../src/index.js';
+
+const data: CompiledAgentData = {
+  agent: { name: 'CoffeeShop', displayName: 'Coffee Shop ☕' },
+  messages: {
+    Welcome: { contentMessage: { text: 'Welcome!' } },
+    Goodbye: { contentMessage: { text: 'Bye 👋' } },
+    Menu: { contentMessage: { text: 'Menu', suggestions: [{ reply: { text: 'Espresso' } }] } },
+  },
+  flows: {
+    OrderFlow: {
+      id: 'OrderFlow',
+      initial: 'Start',
+      states: {
+        Start: {
+          transitions: [
+            { pattern: 'menu', target: 'Menu', priority: -1 },
+            { pattern: 'order', target: 'Order', context: { step: 1 } },
+            { target: 'Start' },
+          ],
+          meta: { messageId: 'Welcome' },
+        },
+        Menu: { transitions: [{ pattern: 'back', target: 'Start' }] },
+        Order: { transitions: [] },
+      },
+    },
+    Support: {
+      id: 'Support',
+      initial: 'Help',
+      states: { Help: { transitions: [{ pattern: ':default', target: 'Help' }] } },
+      meta: { name: 'Support' },
+    },
+  },
+};
+
+describe('Binary agent format', () => {
+  test('round-trips messages, flows and agent config', () => {
+    const agent = BinaryAgent.from(encodeBinaryAgent(data));
+
+    expect(agent.agentConfig()).toEqual(data.agent);
+    expect(agent.initialFlow).toBe('OrderFlow');
+    expect(agent.messageCount).toBe(3);
+    expect([...agent.messageIds()]).toEqual(['Goodbye', 'Menu', 'Welcome']);
+    expect([...agent.flowIds()]).toEqual(['OrderFlow', 'Support']);
+
+    for (const [id, message] of Object.entries(data.messages)) {
+      expect(agent.getMessage(id)).toEqual(message);
+    }
+    for (const [id, flow] of Object.entries(data.flows)) {
+      expect(agent.getFlow(id)).toEqual(flow);
+    }
+  });
+
+  test('preserves transition order within a state', () => {
+    const agent = BinaryAgent.from(encodeBinaryAgent(data));
+    const start = agent.getFlow('OrderFlow')!.states.Start;
+
+    expect(start.transitions.map((t) => t.target)).toEqual(['Menu', 'Order', 'Start']);
+    expect(start.transitions[0].priority).toBe(-1);
+    expect('priority' in start.transitions[1]).toBe(false);
+    expect('pattern' in start.transitions[2]).toBe(false);
+  });
+
+  test('returns undefined for unknown ids', () => {
+    const agent = BinaryAgent.from(encodeBinaryAgent(data));
+
+    expect(agent.hasMessage('Missing')).toBe(false);
+    expect(agent.getMessage('Missing')).toBeUndefined();
+    expect(agent.getFlow('Missing')).toBeUndefined();
+  });
+
+  test('caches materialized flows', () => {
+    const agent = BinaryAgent.from(encodeBinaryAgent(data));
+
+    expect(agent.getFlow('Support')).toBe(agent.getFlow('Support'));
+  });
+
+  test('decoded flows drive a FlowMachine', () => {
+    const agent = BinaryAgent.from(encodeBinaryAgent(data));
+    const machine = new FlowMachine(agent.getFlow('OrderFlow')!);
+
+    const result = machine.transition('order', {});
+    expect(result.type).toBe('state');
+    expect(result.stateId).toBe('Order');
+    expect(result.contextUpdates).toEqual({ step: 1 });
+  });
+
+  test('round-trips flow aliases', () => {
+    const support = { ...data.flows.Support, aliases: { Faq: 'Help' } };
+    const flows = { ...data.flows, Support: support };
+    const agent = BinaryAgent.from(encodeBinaryAgent({ ...data, flows }));
+
+    expect(agent.getFlow('Support')).toEqual(support);
+    expect(agent.getFlow('OrderFlow')!.aliases).toBeUndefined();
+  });
+
+  test('builds a machine definition', () => {
+    const agent = BinaryAgent.from(encodeBinaryAgent({ ...data, initialFlow: 'Support' }));
+    const machine = agent.machineDefinition('CoffeeShop');
+
+    expect(machine.initialFlow).toBe('Support');
+    expect(machine.flows).toEqual(data.flows);
+  });
+
+  test('reads from an offset view without copying', () => {
+    const encoded = encodeBinaryAgent(data);
+    const padded = new Uint8Array(encoded.length + 16);
+    padded.set(encoded, 16);
+
+    const agent = BinaryAgent.from(padded.subarray(16));
+    expect(agent.getMessage('Goodbye')).toEqual(data.messages.Goodbye);
+  });
+
+  test('rejects invalid buffers', () => {
+    expect(() => BinaryAgent.from(new Uint8Array(8))).toThrow('truncated');
+    expect(() => BinaryAgent.from(new Uint8Array(64))).toThrow('Not a binary agent');
+
+    const encoded = encodeBinaryAgent(data);
+    encoded[4] = 99;
+    expect(() => BinaryAgent.from(encoded)).toThrow('Unsupported binary agent version');
+  });
+
+  test('stores repeated payload fragments once', () => {
+    const suggestions = [{ reply: { text: 'Espresso', postbackData: 'espresso' } }];
+    const repeated: CompiledAgentData = {
+      ...data,
+      messages: Object.fromEntries(
+        Array.from({ length: 50 }, (_, i) => [
+          `Message${i}`,
+          { contentMessage: { text: `Message ${i}`, suggestions } },
+        ]),
+      ),
+    };
+
+    const plain = encodeBinaryAgent(repeated);
+    const deduped = encodeBinaryAgent(repeated, { dedupe: true });
+    expect(deduped.length).toBeLessThan(plain.length);
+
+    const agent = BinaryAgent.from(deduped);
+    expect(agent.getMessage('Message7')).toEqual(repeated.messages.Message7);
+    expect(agent.agentConfig()).toEqual(data.agent);
+
+    const first = agent.getMessage<any>('Message1');
+    const second = agent.getMessage<any>('Message2');
+    expect(first.contentMessage.suggestions).toBe(second.contentMessage.suggestions);
+  });
+
+  test('loads from a file', async () => {
+    const dir = mkdtempSync(join(tmpdir(), 'rcl-binary-'));
+    try {
+      const path = join(dir, 'agent.rclb');
+      writeFileSync(path, encodeBinaryAgent(data));
+
+      const agent = await BinaryAgent.load(path);
+      expect(agent.getMessage('Welcome')).toEqual(data.messages.Welcome);
+    } finally {
+      rmSync(dir, { recursive: true, force: true });
+    }
+  });
+});
@@ -0,0 +1,192 @@
+import { describe, expect, test } from 'bun:test';
+import {
+  CHUNK_MANIFEST,
+  type ChunkLoader,
+  ChunkedAgent,
+  type CompiledAgentData,
+  ConversationalAgent,
+  chunkAgent,
+} from '../src/index.js';
+
+const data: CompiledAgentData = {
+  agent: { name: 'CoffeeShop' },
+  messages: {
+    Welcome: { contentMessage: { text: 'Welcome!' } },
+    Menu: { contentMessage: { text: 'Menu' } },
+    Pick: { contentMessage: { text: 'Pick a size' } },
+    Promo: { contentMessage: { text: 'Sent by the app' } },
+  },
+  flows: {
+    Main: {
+      id: 'Main',
+      initial: 'Start',
+      states: {
+        Start: {
+          transitions: [
+            { pattern: 'menu', target: 'Menu' },
+            { pattern: 'order', target: 'flow:Order' },
+          ],
+          meta: { messageId: 'Welcome' },
+        },
+        Menu: { transitions: [], meta: { messageId: 'Menu' } },
+      },
+    },
+    Order: {
+      id: 'Order',
+      initial: 'Pick',
+      states: {
+        Pick: { transitions: [{ pattern: 'back', target: 'Start' }], meta: { messageId: 'Pick' } },
+        Start: { transitions: [], meta: { messageId: 'Welcome' } },
+      },
+    },
+  },
+};
+
+function memoryLoader(files: Record<string, unknown>): ChunkLoader & { reads: string[] } {
+  const reads: string[] = [];
+  const loader = async (name: string) => {
+    reads.push(name);
+    if (!(name in files)) throw new Error(`No chunk ${name}`);
+    return structuredClone(files[name]);
+  };
+  return Object.assign(loader, { reads });
+}
+
+function files(): Record<string, unknown> {
+  const { manifest, chunks } = chunkAgent(data);
+  return { [CHUNK_MANIFEST]: manifest, ...chunks };
+}
+
+describe('chunkAgent', () => {
+  test('writes one chunk per flow and per flow message group', () => {
+    const { manifest, chunks } = chunkAgent(data);
+
+    expect(manifest.initialFlow).toBe('Main');
+    expect(manifest.flows).toEqual({ Main: 'flow.Main.json', Order: 'flow.Order.json' });
+    expect(manifest.messages).toEqual({
+      Welcome: 'messages.json',
+      Menu: 'messages.Main.json',
+      Pick: 'messages.Order.json',
+      Promo: 'messages.json',
+    });
+    expect(chunks['flow.Order.json']).toEqual(data.flows.Order);
+    expect(Object.keys(chunks['messages.json'] as object)).toEqual(['Welcome', 'Promo']);
+  });
+});
+
+describe('ChunkedAgent', () => {
+  test('reads only the manifest when opened', async () => {
+    const loader = memoryLoader(files());
+    const agent = await ChunkedAgent.open(loader);
+
+    expect(loader.reads).toEqual([CHUNK_MANIFEST]);
+    expect(agent.agentConfig).toEqual(data.agent);
+    expect(agent.flowIds).toEqual(['Main', 'Order']);
+    expect(agent.cachedChunks).toBe(0);
+  });
+
+  test('loads chunks once, on first use', async () => {
+    const loader = memoryLoader(files());
+    const agent = await ChunkedAgent.open(loader);
+
+    const [first, second] = await Promise.all([agent.getFlow('Order'), agent.getFlow('Order')]);
+    expect(first).toEqual(data.flows.Order);
+    expect(second).toBe(first!);
+    expect(await agent.getMessage('Pick')).toEqual(data.messages.Pick);
+    expect(await agent.getFlow('Missing')).toBeUndefined();
+    expect(await agent.getMessage('Missing')).toBeUndefined();
+
+    expect(agent.chunkLoads).toBe(2);
+  });
+
+  test('evicts the least recently used chunk beyond the limit', async () => {
+    const loader = memoryLoader(files());
+    const agent = await ChunkedAgent.open(loader, { maxChunks: 2 });
+
+    await agent.getFlow('Main');
+    await agent.getFlow('Order');
+    await agent.getFlow('Main');
+    await agent.getMessage('Menu');
+    expect(agent.cachedChunks).toBe(2);
+
+    await agent.getFlow('Main');
+    expect(agent.chunkLoads).toBe(3);
+    await agent.getFlow('Order');
+    expect(agent.chunkLoads).toBe(4);
+  });
+
+  test('retries chunks that failed to load', async () => {
+    const chunkFiles = files();
+    const flow = chunkFiles['flow.Order.json'];
+    delete chunkFiles['flow.Order.json'];
+    const agent = await ChunkedAgent.open(memoryLoader(chunkFiles));
+
+    await expect(agent.getFlow('Order')).rejects.toThrow('No chunk flow.Order.json');
+    chunkFiles['flow.Order.json'] = flow;
+    expect(await agent.getFlow('Order')).toEqual(data.flows.Order);
+  });
+
+  test('rejects other documents', async () => {
+    await expect(ChunkedAgent.open(async () => ({ hello: 'world' }))).rejects.toThrow(
+      'Not a chunked agent manifest',
+    );
+  });
+
+  test('lets conversational agents load flows on first entry', async () => {
+    const loader = memoryLoader(files());
+    const chunked = await ChunkedAgent.open(loader);
+    const agent = new ConversationalAgent({
+      id: 'CoffeeShop',
+      onStateChange: () => {},
+      loadFlow: (flowId) => chunked.getFlow(flowId),
+    });
+    agent.addFlow((await chunked.getFlow(chunked.initialFlow))!);
+
+    expect(loader.reads).not.toContain('flow.Order.json');
+
+    const result = await agent.processInput('order');
+    expect(result.machine).toBe('Order');
+    expect(result.state).toBe('Pick');
+    expect(loader.reads).toContain('flow.Order.json');
+  });
+
+  test('keeps at most maxLoadedFlows loaded flows', async () => {
+    const leaf = (id: string) => ({
+      id,
+      initial: 'Start',
+      states: { Start: { transitions: [{ pattern: 'home', target: 'flow:Main' }] } },
+    });
+    const flows = { A: leaf('A'), B: leaf('B'), C: leaf('C') };
+    const loads: string[] = [];
+    const agent = new ConversationalAgent({
+      id: 'Sparse',
+      onStateChange: () => {},
+      loadFlow: async (flowId) => {
+        loads.push(flowId);
+        return flows[flowId as keyof typeof flows];
+      },
+      maxLoadedFlows: 2,
+    });
+    agent.addFlow({
+      id: 'Main',
+      initial: 'Start',
+      states: {
+        Start: {
+          transitions: ['A', 'B', 'C'].map((id) => ({ pattern: id, target: `flow:${id}` })),
+        },
+      },
+    });
+
+    for (const flowId of ['A', 'B', 'C']) {
+      expect((await agent.processInput(flowId)).machine).toBe(flowId);
+      expect((await agent.processInput('home')).machine).toBe('Main');
+    }
+    expect(loads).toEqual(['A', 'B', 'C']);
+
+    // A was dropped when C was loaded, B and C are still held
+    await agent.processInput('B');
+    await agent.processInput('home');
+    await agent.processInput('A');
+    expect(loads).toEqual(['A', 'B', 'C', 'A']);
+  });
+});
@@ -0,0 +1,105 @@
+import { describe, expect, test } from 'bun:test';
+import {
+  ConversationalAgent,
+  FlowMachine,
+  generateFlowMatcher,
+  loadFlowMatcher,
+} from '../src/index.js';
+import type { FlowDefinition } from '../src/unified-types.js';
+
+const sizes = ['small', 'medium', 'large', 'xl', 'xxl', 'kids', 'tall', 'grande', 'venti', 'x2'];
+
+const flow: FlowDefinition = {
+  id: 'OrderFlow',
+  initial: 'Start',
+  states: {
+    Start: {
+      transitions: [
+        { pattern: 'Order', target: 'Menu' },
+        { pattern: 'order', target: 'Unreachable' },
+        { pattern: 'help', target: 'Help', priority: 5 },
+        { pattern: 'order *', target: 'QuickOrder' },
+        {
+          pattern: 'vip',
+          target: 'Vip',
+          condition: { type: 'jsonlogic', rule: { '==': [{ var: 'tier' }, 'gold'] } },
+        },
+        { pattern: 'vip', target: 'Menu' },
+        { pattern: '#{favourite}', target: 'Favourite' },
+      ],
+    },
+    Menu: {
+      transitions: [
+        ...sizes.map((size) => ({ pattern: size, target: 'Confirm', context: { size } })),
+        { pattern: ':default', target: 'Menu' },
+        { pattern: 'never', target: 'Start' },
+      ],
+    },
+    Confirm: { transitions: [{ target: 'machine:Checkout' }] },
+    Help: { transitions: [{ pattern: ':end', target: ':end' }] },
+    Done: { transitions: [] },
+  },
+};
+
+const inputs = ['order', 'ORDER', 'help', 'order latte', 'vip', 'latte', 'Grande', 'x', ':end', ''];
+const contexts = [{}, { tier: 'gold', favourite: 'Latte' }];
+
+describe('flow compiler', () => {
+  test('compiled matchers take the same transitions as the interpreter', () => {
+    for (const state of Object.keys(flow.states)) {
+      for (const context of contexts) {
+        for (const input of inputs) {
+          const interpreted = new FlowMachine(flow, state);
+          const compiled = new FlowMachine(flow, state, { matcher: 'compiled' });
+
+          const expected = interpreted.transition(input, context);
+          expect(compiled.transition(input, context)).toEqual(expected);
+          expect(compiled.state).toBe(interpreted.state);
+        }
+      }
+    }
+  });
+
+  test('dispatches long runs of plain patterns through a map', () => {
+    const code = generateFlowMatcher(flow);
+
+    expect(code).toContain('new Map(');
+    expect(code).not.toContain('"never"');
+    expect(code).not.toContain('"unreachable"');
+  });
+
+  test('loads matchers generated ahead of time', () => {
+    const factory = loadFlowMatcher(generateFlowMatcher(flow));
+    const machine = new FlowMachine(flow, undefined, { matcher: factory });
+
+    expect(machine.transition('order', {})).toMatchObject({ type: 'state', stateId: 'Menu' });
+    expect(machine.transition('tall', {})).toMatchObject({
+      type: 'state',
+      stateId: 'Confirm',
+      contextUpdates: { size: 'tall' },
+    });
+  });
+
+  test('agents use prebuilt matchers', async () => {
+    let calls = 0;
+    const factory = loadFlowMatcher(generateFlowMatcher(flow));
+    const agent = new ConversationalAgent({
+      id: 'Bot',
+      onStateChange: () => {},
+      flowMatchers: {
+        OrderFlow: (transitions, helpers) => {
+          const match = factory(transitions, helpers);
+          return (state, input, context) => {
+            calls++;
+            return match(state, input, context);
+          };
+        },
+      },
+    });
+    agent.addFlow(flow);
+
+    const result = await agent.processInput('help');
+    expect(result.state).toBe('Help');
+    expect(calls).toBeGreaterThan(0);
+  });
+});
@@ -0,0 +1,110 @@
+import { describe, expect, test } from 'bun:test';
+import { FlowMachine } from '../src/index.js';
+import type { FlowDefinition } from '../src/unified-types.js';
+
+const flow: FlowDefinition = {
+  id: 'Main',
+  initial: 'Start',
+  states: {
+    Start: {
+      transitions: [
+        { pattern: ':default', target: 'Fallback', priority: -1 },
+        { pattern: 'menu', target: 'First' },
+        { pattern: 'MENU', target: 'Second' },
+        { pattern: 'order *', target: 'Order' },
+        { pattern: 'help', target: 'Help', priority: 2 },
+        {
+          pattern: 'menu',
+          target: 'Vip',
+          priority: 1,
+          condition: { type: 'jsonlogic', rule: { '==': [{ var: 'vip' }, true] } },
+        },
+      ],
+    },
+    Strict: { transitions: [{ pattern: 'yes', target: 'Start' }] },
+    Auto: {
+      transitions: [
+        { target: 'Start' },
+        { pattern: 'never', target: 'Strict', priority: -5 },
+      ],
+    },
+    First: { transitions: [] },
+    Second: { transitions: [] },
+    Order: { transitions: [] },
+    Help: { transitions: [] },
+    Vip: { transitions: [] },
+    Fallback: { transitions: [] },
+  },
+};
+
+function take(input: string, context = {}, state = 'Start') {
+  const machine = new FlowMachine(flow, state);
+  const result = machine.transition(input, context);
+  return result.type === 'state' ? result.stateId : result.type;
+}
+
+describe('FlowMachine', () => {
+  test('tries transitions by priority, keeping definition order on ties', () => {
+    expect(take('Menu')).toBe('First');
+    expect(take('menu', { vip: true })).toBe('Vip');
+    expect(take('HELP')).toBe('Help');
+  });
+
+  test('matches wildcards and falls back to the default', () => {
+    expect(take('order a latte')).toBe('Order');
+    expect(take('anything else')).toBe('Fallback');
+  });
+
+  test('takes automatic transitions regardless of input', () => {
+    expect(take('never', {}, 'Auto')).toBe('Start');
+  });
+
+  test('reports no transition for unmatched input or unknown states', () => {
+    expect(take('no', {}, 'Strict')).toBe('none');
+    expect(take('yes', {}, 'Missing')).toBe('none');
+  });
+
+  test('follows state changes from transitions, setState and restored state', () => {
+    const machine = new FlowMachine(flow, 'Strict');
+
+    expect(machine.transition('yes', {})).toMatchObject({ type: 'state', stateId: 'Start' });
+    expect(machine.transition('help', {})).toMatchObject({ stateId: 'Help' });
+
+    machine.setState('Strict');
+    expect(machine.transition('yes', {})).toMatchObject({ stateId: 'Start' });
+
+    machine.setMachineState({ currentState: 'Auto', localContext: {} });
+    expect(machine.transition('', {})).toMatchObject({ stateId: 'Start' });
+  });
+
+  test('matches interpolated patterns against the context', () => {
+    const machine = new FlowMachine({
+      id: 'Confirm',
+      initial: 'Ask',
+      states: {
+        Ask: {
+          transitions: [
+            { pattern: 'yes #{@order.item}', target: 'Done' },
+            { pattern: '#{order.size}', target: 'Done' },
+          ],
+        },
+        Done: { transitions: [] },
+      },
+    });
+    const context = { order: { item: 'latte', size: 'large' } };
+
+    expect(machine.transition('Yes latte', context)).toMatchObject({ stateId: 'Done' });
+    machine.setState('Ask');
+    expect(machine.transition('large', context)).toMatchObject({ stateId: 'Done' });
+    machine.setState('Ask');
+    expect(machine.transition('yes mocha', context).type).toBe('none');
+  });
+
+  test('resolves merged state names when restoring state', () => {
+    const machine = new FlowMachine({ ...flow, aliases: { Legacy: 'Strict' } });
+
+    machine.setMachineState({ currentState: 'Legacy', localContext: {} });
+    expect(machine.state).toBe('Strict');
+    expect(machine.transition('yes', {})).toMatchObject({ stateId: 'Start' });
+  });
+});
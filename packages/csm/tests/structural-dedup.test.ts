@@ -0,0 +1,99 @@
+import { describe, expect, test } from 'bun:test';
+import { SharedValueResolver, dedupeValues, isSharedRef } from '../src/index.js';
+
+const suggestions = [
+  { reply: { text: 'Order Coffee', postbackData: 'order_coffee' } },
+  { reply: { text: 'View Menu', postbackData: 'view_menu' } },
+];
+
+const messages = [
+  { contentMessage: { text: 'Welcome', suggestions } },
+  { contentMessage: { text: 'Sorry?', suggestions } },
+  { contentMessage: { text: 'Unique', suggestions: [suggestions[0]] } },
+];
+
+describe('dedupeValues', () => {
+  test('shares repeated subtrees and round-trips', () => {
+    const { values, shared } = dedupeValues(structuredClone(messages));
+
+    expect(shared.length).toBeGreaterThan(0);
+    expect(JSON.stringify({ values, shared }).length).toBeLessThan(JSON.stringify(messages).length);
+
+    const resolver = SharedValueResolver.of(shared);
+    expect(values.map((value) => resolver.resolve(value))).toEqual(messages);
+  });
+
+  test('shares the outermost repeated subtree only', () => {
+    const { values, shared } = dedupeValues([{ a: suggestions }, { b: suggestions }]);
+
+    expect(values).toEqual([{ a: { $shared: 0 } }, { b: { $shared: 0 } }]);
+    expect(shared).toEqual([suggestions]);
+  });
+
+  test('shares nested subtrees that also appear on their own', () => {
+    const { values, shared } = dedupeValues([
+      { list: suggestions },
+      { list: suggestions },
+      suggestions[0],
+    ]);
+    const resolver = SharedValueResolver.of(shared);
+
+    expect(shared.length).toBe(2);
+    expect(values.map((value) => resolver.resolve(value))).toEqual([
+      { list: suggestions },
+      { list: suggestions },
+      suggestions[0],
+    ]);
+  });
+
+  test('leaves small and unique values alone', () => {
+    const input = [{ text: 'a' }, { text: 'a' }, { long: 'x'.repeat(100) }];
+    const { values, shared } = dedupeValues(input);
+
+    expect(shared).toEqual([]);
+    expect(values).toEqual(input);
+    expect(dedupeValues(input, { minSize: 1 }).shared).toEqual([{ text: 'a' }]);
+  });
+
+  test('drops undefined properties like JSON', () => {
+    const { values } = dedupeValues([{ a: 1, b: undefined }]);
+    expect(values).toEqual([{ a: 1 }]);
+    expect(Object.keys(values[0] as object)).toEqual(['a']);
+  });
+
+  test('rejects reserved reference objects', () => {
+    expect(() => dedupeValues([{ $shared: 0 }])).toThrow('reserved');
+  });
+});
+
+describe('SharedValueResolver', () => {
+  test('returns one frozen instance per shared entry', () => {
+    const { values, shared } = dedupeValues(structuredClone(messages));
+    const resolver = SharedValueResolver.of(shared);
+    const [first, second] = values.map((value) => resolver.resolve<any>(value));
+
+    expect(first.contentMessage.suggestions).toBe(second.contentMessage.suggestions);
+    expect(Object.isFrozen(first.contentMessage.suggestions)).toBe(true);
+    expect(Object.isFrozen(first)).toBe(false);
+  });
+
+  test('loads each entry once', () => {
+    let loads = 0;
+    const resolver = new SharedValueResolver(1, () => {
+      loads++;
+      return { value: 1 };
+    });
+
+    resolver.resolve([{ $shared: 0 }, { $shared: 0 }]);
+    resolver.resolve({ $shared: 0 });
+    expect(loads).toBe(1);
+    expect(() => resolver.resolve({ $shared: 5 })).toThrow('Invalid shared reference');
+  });
+
+  test('recognizes references', () => {
+    expect(isSharedRef({ $shared: 1 })).toBe(true);
+    expect(isSharedRef({ $shared: '1' })).toBe(false);
+    expect(isSharedRef({ $shared: 1, other: true })).toBe(false);
+    expect(isSharedRef([1])).toBe(false);
+  });
+});
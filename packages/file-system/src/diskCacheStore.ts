@@ -0,0 +1,197 @@
+import * as fs from 'node:fs/promises';
+import * as path from 'node:path';
+
+/**
+ * Options for {@link DiskCacheStore}
+ */
+export interface DiskCacheStoreOptions {
+  /** Directory holding the cache entries. Created on first write. */
+  directory: string;
+  /** Total size of the entries before least recently used ones are evicted (default 256 MiB) */
+  maxBytes?: number;
+}
+
+const DEFAULT_MAX_BYTES = 256 * 1024 * 1024;
+/** Eviction trims the cache to this fraction of `maxBytes` so it doesn't run on every write */
+const LOW_WATERMARK = 0.8;
+/** Temporary files older than this are left over from crashed writers */
+const STALE_TEMP_MS = 60 * 60 * 1000;
+const TEMP_SUFFIX = '.tmp';
+const KEY_PATTERN = /^[A-Za-z0-9_-][A-Za-z0-9._-]*$/;
+
+/**
+ * Size-bounded key/value store of text entries in a local directory.
+ *
+ * @remarks
+ * Each entry is one file. Writes go to a uniquely named temporary file which is then renamed over
+ * the entry, so readers, including other processes sharing the directory, see either the old or
+ * the new content and never a partial write. Reads refresh the entry's modification time, and
+ * when the total size exceeds `maxBytes` the entries with the oldest modification times are
+ * removed. An entry evicted while another process reads it is reported as a miss.
+ *
+ * @example
+ * ```typescript
+ * const store = new DiskCacheStore({ directory: '.rcl-cache' });
+ * await store.set('abc123.compile', json);
+ * const cached = await store.get('abc123.compile');
+ * ```
+ */
+export class DiskCacheStore {
+  private readonly directory: string;
+  private readonly maxBytes: number;
+  private totalBytes: number | undefined;
+  private evicting: Promise<void> | undefined;
+
+  constructor(options: DiskCacheStoreOptions) {
+    this.directory = path.resolve(options.directory);
+    this.maxBytes = options.maxBytes ?? DEFAULT_MAX_BYTES;
+  }
+
+  /**
+   * Read an entry, or `undefined` if it does not exist
+   */
+  async get(key: string): Promise<string | undefined> {
+    const file = this.entryPath(key);
+    let content: string;
+    try {
+      content = await fs.readFile(file, 'utf8');
+    } catch (error) {
+      if (isNotFound(error)) return undefined;
+      throw error;
+    }
+
+    // Mark as recently used; the entry may have been evicted concurrently
+    const now = new Date();
+    await fs.utimes(file, now, now).catch(() => {});
+    return content;
+  }
+
+  /**
+   * Atomically create or replace an entry
+   */
+  async set(key: string, value: string): Promise<void> {
+    const file = this.entryPath(key);
+    const temp = `${file}.${process.pid}.${Math.random().toString(36).slice(2)}${TEMP_SUFFIX}`;
+
+    await fs.mkdir(this.directory, { recursive: true });
+    let replacedBytes = 0;
+    try {
+      await fs.writeFile(temp, value, 'utf8');
+      // Size of the entry being replaced, already counted in the total
+      replacedBytes = await fs.stat(file).then((stats) => stats.size, () => 0);
+      await fs.rename(temp, file);
+    } catch (error) {
+      await fs.unlink(temp).catch(() => {});
+      throw error;
+    }
+
+    if (this.totalBytes === undefined) {
+      this.totalBytes = await this.scanSize();
+    } else {
+      this.totalBytes += Buffer.byteLength(value) - replacedBytes;
+    }
+    if (this.totalBytes > this.maxBytes) {
+      await this.evict();
+    }
+  }
+
+  /**
+   * Remove an entry if it exists
+   */
+  async delete(key: string): Promise<void> {
+    await fs.unlink(this.entryPath(key)).catch((error) => {
+      if (!isNotFound(error)) throw error;
+    });
+    this.totalBytes = undefined;
+  }
+
+  /**
+   * Remove every entry
+   */
+  async clear(): Promise<void> {
+    await fs.rm(this.directory, { recursive: true, force: true });
+    this.totalBytes = 0;
+  }
+
+  /**
+   * Total size in bytes of the entries currently on disk
+   */
+  async size(): Promise<number> {
+    this.totalBytes = await this.scanSize();
+    return this.totalBytes;
+  }
+
+  /**
+   * Remove least recently used entries until the cache is below the low watermark. Concurrent
+   * calls share one pass.
+   */
+  private evict(): Promise<void> {
+    if (!this.evicting) {
+      this.evicting = this.evictOnce().finally(() => {
+        this.evicting = undefined;
+      });
+    }
+    return this.evicting;
+  }
+
+  private async evictOnce(): Promise<void> {
+    const entries = await this.listEntries();
+    let total = entries.reduce((sum, entry) => sum + entry.size, 0);
+    const target = this.maxBytes * LOW_WATERMARK;
+
+    entries.sort((a, b) => a.mtimeMs - b.mtimeMs);
+    for (const entry of entries) {
+      if (total <= target) break;
+      await fs.unlink(entry.file).catch(() => {});
+      total -= entry.size;
+    }
+
+    this.totalBytes = total;
+  }
+
+  private async scanSize(): Promise<number> {
+    const entries = await this.listEntries();
+    return entries.reduce((sum, entry) => sum + entry.size, 0);
+  }
+
+  /**
+   * Stat every entry, removing stale temporary files along the way
+   */
+  private async listEntries(): Promise<Array<{ file: string; size: number; mtimeMs: number }>> {
+    let names: string[];
+    try {
+      names = await fs.readdir(this.directory);
+    } catch (error) {
+      if (isNotFound(error)) return [];
+      throw error;
+    }
+
+    const entries: Array<{ file: string; size: number; mtimeMs: number }> = [];
+    const now = Date.now();
+    for (const name of names) {
+      const file = path.join(this.directory, name);
+      const stats = await fs.stat(file).catch(() => undefined);
+      if (!stats?.isFile()) continue;
+
+      if (name.endsWith(TEMP_SUFFIX)) {
+        if (now - stats.mtimeMs > STALE_TEMP_MS) {
+          await fs.unlink(file).catch(() => {});
+        }
+        continue;
+      }
+      entries.push({ file, size: stats.size, mtimeMs: stats.mtimeMs });
+    }
+    return entries;
+  }
+
+  private entryPath(key: string): string {
+    if (!KEY_PATTERN.test(key) || key.endsWith(TEMP_SUFFIX)) {
+      throw new Error(`Invalid cache key: ${key}`);
+    }
+    return path.join(this.directory, key);
+  }
+}
+
+function isNotFound(error: unknown): boolean {
+  return (error as NodeJS.ErrnoException)?.code === 'ENOENT';
+}
@@ -14,3 +14,4 @@ export * from './memoryFileSystem.js';
 export * from './browserFileSystem.js';
 export * from './nodeFileSystem.js';
 export * from './fileSystemFactory.js';
+export * from './diskCacheStore.js';
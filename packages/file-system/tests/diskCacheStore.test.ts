@@ -0,0 +1,92 @@
+import { afterEach, beforeEach, describe, expect, spyOn, test } from 'bun:test';
+import * as fs from 'node:fs/promises';
+import * as path from 'node:path';
+import { DiskCacheStore } from '../src/diskCacheStore.js';
+
+describe('DiskCacheStore', () => {
+  let testDir: string;
+
+  beforeEach(async () => {
+    testDir = path.join(import.meta.dir, '.test-cache');
+    await fs.rm(testDir, { recursive: true, force: true });
+  });
+
+  afterEach(async () => {
+    await fs.rm(testDir, { recursive: true, force: true });
+  });
+
+  test('stores and reads entries', async () => {
+    const store = new DiskCacheStore({ directory: testDir });
+
+    expect(await store.get('missing')).toBeUndefined();
+    await store.set('abc.compile', '{"ok":true}');
+    expect(await store.get('abc.compile')).toBe('{"ok":true}');
+
+    await store.set('abc.compile', '{"ok":false}');
+    expect(await store.get('abc.compile')).toBe('{"ok":false}');
+  });
+
+  test('leaves no temporary files behind', async () => {
+    const store = new DiskCacheStore({ directory: testDir });
+    await Promise.all(
+      Array.from({ length: 20 }, (_, i) => store.set('shared', `value-${i}`.repeat(100))),
+    );
+
+    expect(await fs.readdir(testDir)).toEqual(['shared']);
+    expect(await store.get('shared')).toMatch(/^(value-\d+)+$/);
+  });
+
+  test('shares entries between instances', async () => {
+    await new DiskCacheStore({ directory: testDir }).set('entry', 'content');
+
+    expect(await new DiskCacheStore({ directory: testDir }).get('entry')).toBe('content');
+  });
+
+  test('evicts least recently used entries past the size bound', async () => {
+    const store = new DiskCacheStore({ directory: testDir, maxBytes: 250 });
+    const old = new Date(Date.now() - 60_000);
+
+    await store.set('a', 'x'.repeat(100));
+    await store.set('b', 'x'.repeat(100));
+    await fs.utimes(path.join(testDir, 'a'), old, old);
+    await fs.utimes(path.join(testDir, 'b'), old, old);
+    await store.get('a');
+    await store.set('c', 'x'.repeat(100));
+
+    expect(await store.get('a')).toBeDefined();
+    expect(await store.get('b')).toBeUndefined();
+    expect(await store.get('c')).toBeDefined();
+    expect(await store.size()).toBeLessThanOrEqual(250);
+  });
+
+  test('counts a replaced entry once', async () => {
+    const store = new DiskCacheStore({ directory: testDir, maxBytes: 250 });
+    await store.set('a', 'x'.repeat(200));
+
+    // Overwrites stay under the bound, so no eviction pass should scan the directory
+    const readdir = spyOn(fs, 'readdir');
+    try {
+      for (let i = 0; i < 5; i++) await store.set('a', 'y'.repeat(200));
+      expect(readdir).not.toHaveBeenCalled();
+    } finally {
+      readdir.mockRestore();
+    }
+    expect(await store.size()).toBe(200);
+  });
+
+  test('rejects keys that escape the directory', async () => {
+    const store = new DiskCacheStore({ directory: testDir });
+
+    await expect(store.set('../escape', 'x')).rejects.toThrow('Invalid cache key');
+    await expect(store.get('..')).rejects.toThrow('Invalid cache key');
+  });
+
+  test('clear removes every entry', async () => {
+    const store = new DiskCacheStore({ directory: testDir });
+    await store.set('a', 'x');
+    await store.clear();
+
+    expect(await store.get('a')).toBeUndefined();
+    expect(await store.size()).toBe(0);
+  });
+});
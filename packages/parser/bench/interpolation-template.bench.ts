@@ -0,0 +1,46 @@
+/**
+ * Interpolation template benchmark.
+ *
+ * Compares rendering a precompiled template with re-scanning the string for every render, the
+ * way messages were interpolated before templates existed.
+ *
+ * Usage: bun bench/interpolation-template.bench.ts [iterations]
+ */
+import { compileTemplate } from '../src/values/interpolation-template.js';
+
+const iterations = Number(process.argv[2] ?? 1_000_000);
+
+const text = `Thank you #{@user.name}!
+Your order of #{@order.quantity} #{@order.item} will be delivered to #{@user.address.city}.
+Reference: #{@order.id}`;
+
+const scope = {
+  user: { name: 'Ana', address: { city: 'Lisbon' } },
+  order: { id: 'A-1029', quantity: 2, item: 'lattes' },
+};
+
+function rescan(): string {
+  return text.replace(/#\{\s*@?([^}]+?)\s*\}/g, (_, path: string) => {
+    let value: any = scope;
+    for (const key of path.split('.')) value = value?.[key];
+    return value == null ? '' : String(value);
+  });
+}
+
+const template = compileTemplate(text);
+if (template.render(scope) !== rescan()) throw new Error('Renders differ');
+
+function measure(name: string, render: () => string): void {
+  let length = 0;
+  for (let i = 0; i < iterations / 10; i++) length += render().length;
+
+  const start = performance.now();
+  for (let i = 0; i < iterations; i++) length += render().length;
+  const elapsed = performance.now() - start;
+
+  const perSecond = Math.round((iterations / elapsed) * 1000);
+  console.log(`${name.padEnd(10)} ${perSecond.toLocaleString().padStart(14)} renders/s (${length})`);
+}
+
+measure('rescan', rescan);
+measure('template', () => template.render(scope));
@@ -0,0 +1,53 @@
+/**
+ * Parser contention benchmark.
+ *
+ * Runs the same corpus through 1..N parser workers and reports aggregate throughput, so cache
+ * sharing regressions show up as throughput that stops scaling with the worker count.
+ *
+ * Usage: bun bench/parse-concurrency.bench.ts [maxWorkers] [iterationsPerWorker]
+ */
+import { readFileSync } from 'node:fs';
+import { availableParallelism } from 'node:os';
+import { resolve } from 'node:path';
+import { Worker } from 'node:worker_threads';
+import type { CacheConcurrencyMode } from '../src/runtime/parser-caches.js';
+
+const maxWorkers = Number(process.argv[2] ?? availableParallelism());
+const iterations = Number(process.argv[3] ?? 200);
+const source = readFileSync(resolve(import.meta.dir, '../tests/fixtures/coffee-shop.rcl'), 'utf-8');
+const workerUrl = new URL('./parse-worker.ts', import.meta.url);
+
+function runWorker(cacheMode: CacheConcurrencyMode): Promise<number> {
+  return new Promise((resolvePromise, reject) => {
+    const worker = new Worker(workerUrl, { workerData: { source, iterations, cacheMode } });
+    worker.once('message', (message: { elapsed: number }) => resolvePromise(message.elapsed));
+    worker.once('error', reject);
+  });
+}
+
+function workerCounts(max: number): number[] {
+  const counts: number[] = [];
+  for (let n = 1; n < max; n *= 2) {
+    counts.push(n);
+  }
+  counts.push(max);
+  return counts;
+}
+
+for (const cacheMode of ['shared', 'isolated'] as const) {
+  console.log(`\ncache mode: ${cacheMode}`);
+  console.log('workers  wall(ms)  parses/s  slowest worker(ms)');
+
+  for (const workers of workerCounts(maxWorkers)) {
+    const start = performance.now();
+    const elapsed = await Promise.all(Array.from({ length: workers }, () => runWorker(cacheMode)));
+    const wall = performance.now() - start;
+    const throughput = ((workers * iterations) / wall) * 1000;
+
+    console.log(
+      `${String(workers).padStart(7)}  ${wall.toFixed(0).padStart(8)}  ${throughput
+        .toFixed(0)
+        .padStart(8)}  ${Math.max(...elapsed).toFixed(0).padStart(18)}`,
+    );
+  }
+}
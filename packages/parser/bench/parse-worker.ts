@@ -0,0 +1,24 @@
+import { parentPort, workerData } from 'node:worker_threads';
+import { AntlrRclParser } from '../src/parser.js';
+import type { CacheConcurrencyMode } from '../src/runtime/parser-caches.js';
+
+interface ParseWorkerData {
+  source: string;
+  iterations: number;
+  cacheMode: CacheConcurrencyMode;
+}
+
+const { source, iterations, cacheMode } = workerData as ParseWorkerData;
+
+const parser = new AntlrRclParser({ cacheMode });
+await parser.initialize();
+
+const start = performance.now();
+for (let i = 0; i < iterations; i++) {
+  const result = parser.parseSync(source);
+  if (!result.success) {
+    throw result.error;
+  }
+}
+
+parentPort?.postMessage({ elapsed: performance.now() - start });
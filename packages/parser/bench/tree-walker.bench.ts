@@ -0,0 +1,44 @@
+/**
+ * Tree walker benchmark.
+ *
+ * Compares the recursive antlr4ng ParseTreeWalker with IterativeParseTreeWalker on a typical
+ * (shallow) parse tree.
+ *
+ * Usage: bun bench/tree-walker.bench.ts [iterations]
+ */
+import { readFileSync } from 'node:fs';
+import { resolve } from 'node:path';
+import { CharStream, CommonTokenStream, ParseTreeWalker } from 'antlr4ng';
+import { RclLexer } from '../src/generated/RclLexer.js';
+import { RclParser } from '../src/generated/RclParser.js';
+import { RclParserListener } from '../src/generated/RclParserListener.js';
+import { IterativeParseTreeWalker } from '../src/iterative-walker.js';
+
+const iterations = Number(process.argv[2] ?? 2000);
+const source = readFileSync(resolve(import.meta.dir, '../tests/fixtures/coffee-shop.rcl'), 'utf-8');
+const tree = new RclParser(new CommonTokenStream(new RclLexer(CharStream.fromString(source)))).rcl_file();
+
+class CountingListener extends RclParserListener {
+  count = 0;
+  override enterEveryRule(): void {
+    this.count++;
+  }
+  override visitTerminal(): void {
+    this.count++;
+  }
+}
+
+function measure(name: string, walk: (listener: CountingListener) => void): void {
+  const listener = new CountingListener();
+  // Warm up
+  for (let i = 0; i < iterations / 10; i++) walk(listener);
+
+  const start = performance.now();
+  for (let i = 0; i < iterations; i++) walk(listener);
+  const elapsed = performance.now() - start;
+
+  console.log(`${name.padEnd(10)} ${((elapsed * 1000) / iterations).toFixed(2).padStart(8)} µs/walk`);
+}
+
+measure('recursive', (listener) => ParseTreeWalker.DEFAULT.walk(listener, tree));
+measure('iterative', (listener) => IterativeParseTreeWalker.DEFAULT.walk(listener, tree));
@@ -0,0 +1,40 @@
+/**
+ * Type tag converter benchmark.
+ *
+ * Measures every built-in tag type with the cache disabled (first parse of a value) and enabled
+ * (the same values repeating across agents).
+ *
+ * Usage: bun bench/type-tags.bench.ts [iterations]
+ */
+import { TypeTagRegistry } from '../src/values/type-tags.js';
+
+const iterations = Number(process.argv[2] ?? 200_000);
+
+const samples: Array<[tag: string, content: string, qualifier?: string]> = [
+  ['email', 'support@coffeeshop.example'],
+  ['phone', '+1 (555) 012-3456'],
+  ['url', 'https://coffeeshop.example/assets/logo.png'],
+  ['time', '4:30 PM', 'America/Sao_Paulo'],
+  ['datetime', '2024-07-26T10:00:00Z'],
+  ['datetime', '+5m'],
+  ['zipcode', '01310-100', 'BR'],
+  ['duration', 'PT1H30M'],
+  ['money', '1,299.50', 'BRL'],
+];
+
+function measure(label: string, registry: TypeTagRegistry): void {
+  for (const [tag, content, qualifier] of samples) {
+    // Warm up
+    for (let i = 0; i < iterations / 10; i++) registry.convert(tag, content, qualifier);
+
+    const start = performance.now();
+    for (let i = 0; i < iterations; i++) registry.convert(tag, content, qualifier);
+    const elapsed = performance.now() - start;
+
+    const name = `${label} <${tag} ${content}>`;
+    console.log(`${name.padEnd(60)} ${((elapsed * 1e6) / iterations).toFixed(1).padStart(8)} ns/op`);
+  }
+}
+
+measure('uncached', TypeTagRegistry.createDefault(0));
+measure('cached', TypeTagRegistry.createDefault());
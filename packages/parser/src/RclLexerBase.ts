@@ -11,13 +11,30 @@ export abstract class RclLexerBase extends Lexer {
   private lastSignificantToken: Token | null = null;
   private pendingNewline = false;
 
+  /**
+   * Called for every token the grammar produces, before indentation processing.
+   * Parse budgets use this to bound lexing work.
+   */
+  tokenListener: ((token: Token) => void) | null = null;
+
+  /**
+   * Clear indentation state so the lexer can be reused for a new input. `baseIndent` is the
+   * column treated as the outermost level, for snippets cut from an indented document.
+   */
+  resetIndentation(baseIndent = 0): void {
+    this.indentLengths = [baseIndent];
+    this.tokenQueue = [];
+    this.lastSignificantToken = null;
+    this.pendingNewline = false;
+  }
+
   nextToken(): Token {
     // Return queued tokens first
     if (this.tokenQueue.length > 0) {
       return this.tokenQueue.shift()!;
     }
 
-    const next = super.nextToken();
+    const next = this.lexToken();
 
     // Handle newlines - this is where we check for indentation changes
     if (next.type === RclLexerBase.NEWLINE) {
@@ -29,7 +46,7 @@ export abstract class RclLexerBase extends Lexer {
       let firstSignificantToken: Token | null = null;
 
       while (true) {
-        const peeked = super.nextToken();
+        const peeked = this.lexToken();
         peekedTokens.push(peeked);
 
         if (peeked.type === Token.EOF) {
@@ -99,6 +116,12 @@ export abstract class RclLexerBase extends Lexer {
     return next;
   }
 
+  private lexToken(): Token {
+    const token = super.nextToken();
+    this.tokenListener?.(token);
+    return token;
+  }
+
   private handleEOF(eofToken: Token): void {
     // Emit a final NEWLINE if the last significant token wasn't followed by one
     if (this.lastSignificantToken && !this.pendingNewline) {
@@ -80,16 +80,21 @@ export class AntlrAdapter implements IParserAdapter<ParseTree> {
     return hasError;
   }
 
-  private walkTree(node: ParseTree, visitor: (node: ParseTree) => boolean | void): void {
-    const shouldContinue = visitor(node);
-    if (shouldContinue === false) {
-      return;
-    }
+  private walkTree(root: ParseTree, visitor: (node: ParseTree) => boolean | void): void {
+    // Pre-order walk on an explicit stack; deeply nested values would overflow recursion
+    const stack: ParseTree[] = [root];
+
+    while (stack.length > 0) {
+      const node = stack.pop()!;
+      if (visitor(node) === false) {
+        continue;
+      }
 
-    for (let i = 0; i < node.getChildCount(); i++) {
-      const child = node.getChild(i);
-      if (child) {
-        this.walkTree(child, visitor);
+      for (let i = node.getChildCount() - 1; i >= 0; i--) {
+        const child = node.getChild(i);
+        if (child) {
+          stack.push(child);
+        }
       }
     }
   }
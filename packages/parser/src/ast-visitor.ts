@@ -4,7 +4,7 @@
 
 import { ParserRuleContext, type Token, AbstractParseTreeVisitor, ErrorNode, ParseTree, TerminalNode } from 'antlr4ng';
 import { RclParserVisitor } from './generated/RclParserVisitor.js';
-import { Rcl_fileContext } from './generated/RclParser.js';
+import { RclParser, Rcl_fileContext } from './generated/RclParser.js';
 
 import {
   type AppendOperation,
@@ -51,14 +51,22 @@ import {
   createRange,
   withLocation,
 } from '@rcs-lang/ast';
+import { MultilineNormalizer } from './values/multiline.js';
+import { NumberDecoder } from './values/number-decoder.js';
+import { SourceText } from './values/source-text.js';
+import { StringLiteralView } from './values/string-view.js';
 
 
 export class ASTVisitor extends AbstractParseTreeVisitor<any> implements RclParserVisitor<any> {
   private source: string;
+  private sourceText: SourceText;
+  private numberDecoder = new NumberDecoder();
+  private multilineNormalizer = new MultilineNormalizer();
 
   constructor(source: string) {
     super();
     this.source = source;
+    this.sourceText = new SourceText(source);
   }
 
   protected defaultResult(): any {
@@ -579,11 +587,10 @@ export class ASTVisitor extends AbstractParseTreeVisitor<any> implements RclPars
    * Visit string literal
    */
   visitStringLiteral(node: TerminalNode): StringLiteral {
-    const text = node.getText();
-    // Remove quotes and handle escape sequences
-    const value = text.slice(1, -1).replace(/\\(.)/g, '$1');
-
     const token = node.symbol;
+    // Read the content straight from the source; escapes are only resolved if present
+    const value = StringLiteralView.ofToken(this.sourceText, token).value;
+
     return withLocation<StringLiteral>(
       {
         type: 'StringLiteral',
@@ -597,8 +604,8 @@ export class ASTVisitor extends AbstractParseTreeVisitor<any> implements RclPars
    * Visit numeric literal
    */
   visitNumericLiteral(node: TerminalNode): NumericLiteral {
-    const value = Number.parseFloat(node.getText());
     const token = node.symbol;
+    const value = this.numberDecoder.decodeToken(this.sourceText, token);
 
     return withLocation<NumericLiteral>(
       {
@@ -943,12 +950,11 @@ export class ASTVisitor extends AbstractParseTreeVisitor<any> implements RclPars
    * Visit multi-line string
    */
   visitMulti_line_string(ctx: any): StringLiteral {
-    const value = '';
-    // Multi-line strings in RCL are simple strings
+    // Multi-line strings in RCL are simple strings, normalized according to their marker
     return withLocation<StringLiteral>(
       {
         type: 'StringLiteral',
-        value: ctx.getText() || '',
+        value: this.multilineNormalizer.normalizeContext(ctx, this.sourceText),
       },
       this.contextToLocation(ctx).location,
     );
@@ -958,18 +964,14 @@ export class ASTVisitor extends AbstractParseTreeVisitor<any> implements RclPars
    * Visit triple quote string
    */
   visitTriple_quote_string(ctx: any): StringLiteral {
-    let value = '';
-
-    // Extract content from triple-quoted string
-    const contents = ctx.triple_string_content ? ctx.triple_string_content() : [];
-    for (const content of contents) {
-      if (content.TS_CONTENT) {
-        value += content.TS_CONTENT().getText() || '';
-      } else if (content.interpolation) {
-        // For now, just add a placeholder for interpolations
-        value += '${...}';
-      }
-    }
+    // Content between the quotes as written; #{...} placeholders are kept for the runtime, which
+    // compiles them with compileTemplate()
+    const open: Token | null = ctx.start;
+    const close: Token | null = ctx.stop;
+    const value =
+      open && close && close !== open && close.type === RclParser.TS_TRIPLE_QUOTE_END
+        ? this.sourceText.slice(this.sourceText.tokenEnd(open), this.sourceText.tokenStart(close))
+        : '';
 
     return withLocation<StringLiteral>(
       {
@@ -0,0 +1,231 @@
+import type { Attribute, MatchBlock, Section, Value } from '@rcs-lang/ast';
+import { type Diagnostic, RCLErrorFactory, type Result, errorToDiagnostic } from '@rcs-lang/core';
+import { CharStream, CommonTokenStream, Token } from 'antlr4ng';
+import { ASTVisitor } from './ast-visitor.js';
+import { RclLexer } from './generated/RclLexer.js';
+import {
+  type Attribute_assignmentContext,
+  type Match_blockContext,
+  RclParser,
+  type SectionContext,
+  type ValueContext,
+} from './generated/RclParser.js';
+import { ErrorListener } from './parser.js';
+import { ParserCaches } from './runtime/parser-caches.js';
+
+/**
+ * Grammar entry points that can be parsed on their own
+ */
+export interface FragmentContexts {
+  value: ValueContext;
+  section: SectionContext;
+  match_block: Match_blockContext;
+  attribute_assignment: Attribute_assignmentContext;
+}
+
+export type FragmentKind = keyof FragmentContexts;
+
+export interface FragmentOptions {
+  /**
+   * Column treated as the outermost indentation level. Defaults to the indentation of the
+   * snippet's first non-blank line, so snippets copied from a document parse as-is.
+   */
+  baseIndent?: number;
+  /** Lexer mode to start in (default: `RclLexer.DEFAULT_MODE`) */
+  mode?: number;
+}
+
+export interface FragmentParseResult<K extends FragmentKind> {
+  context: FragmentContexts[K];
+  diagnostics: Diagnostic[];
+}
+
+/**
+ * Reusable lexer/token stream/parser triple for parsing snippets directly from a grammar entry
+ * point instead of wrapping them in a synthetic file.
+ *
+ * One instance parses one fragment at a time; use {@link FragmentParserPool} (or the module
+ * level `parseXFragment` helpers) to share instances safely.
+ */
+export class FragmentParser {
+  private readonly lexer: RclLexer;
+  private readonly tokens: CommonTokenStream;
+  private readonly parser: RclParser;
+  private readonly errorListener = new ErrorListener();
+
+  constructor(caches: ParserCaches = ParserCaches.shared()) {
+    this.lexer = caches.createLexer(CharStream.fromString(''));
+    this.tokens = new CommonTokenStream(this.lexer);
+    this.parser = caches.createParser(this.tokens);
+
+    this.lexer.removeErrorListeners();
+    this.lexer.addErrorListener(this.errorListener);
+    this.parser.removeErrorListeners();
+    this.parser.addErrorListener(this.errorListener);
+  }
+
+  parse<K extends FragmentKind>(
+    kind: K,
+    text: string,
+    options: FragmentOptions = {},
+  ): FragmentParseResult<K> {
+    this.errorListener.clear();
+
+    this.lexer.inputStream = CharStream.fromString(text);
+    this.lexer.resetIndentation(options.baseIndent ?? leadingIndent(text));
+    if (options.mode !== undefined && options.mode !== RclLexer.DEFAULT_MODE) {
+      this.lexer.mode(options.mode);
+    }
+    this.tokens.setTokenSource(this.lexer);
+    this.parser.reset();
+
+    const context = this.invoke(kind);
+    this.checkFullyConsumed();
+
+    return { context, diagnostics: [...this.errorListener.getDiagnostics()] };
+  }
+
+  private invoke<K extends FragmentKind>(kind: K): FragmentContexts[K] {
+    const parser = this.parser;
+    switch (kind) {
+      case 'value':
+        return parser.value() as FragmentContexts[K];
+      case 'section':
+        return parser.section() as FragmentContexts[K];
+      case 'match_block':
+        return parser.match_block() as FragmentContexts[K];
+      case 'attribute_assignment':
+        return parser.attribute_assignment() as FragmentContexts[K];
+      default:
+        throw new Error(`Unknown fragment kind: ${String(kind)}`);
+    }
+  }
+
+  /**
+   * Entry rules do not end in EOF, so report anything left over other than layout tokens
+   */
+  private checkFullyConsumed(): void {
+    for (let i = 1; ; i++) {
+      const token = this.tokens.LT(i);
+      if (!token || token.type === Token.EOF) return;
+      if (token.type === RclParser.NEWLINE || token.type === RclParser.DEDENT) continue;
+
+      const error = RCLErrorFactory.unexpectedToken(
+        token.text ?? '',
+        { line: token.line - 1, character: token.column },
+        'end of fragment',
+      );
+      this.errorListener.getDiagnostics().push(errorToDiagnostic(error));
+      return;
+    }
+  }
+}
+
+/**
+ * Column of the first non-blank line's first character
+ */
+function leadingIndent(text: string): number {
+  let column = 0;
+  for (let i = 0; i < text.length; i++) {
+    const ch = text.charCodeAt(i);
+    if (ch === 0x20 || ch === 0x09) {
+      column++;
+    } else if (ch === 0x0a || ch === 0x0d) {
+      column = 0;
+    } else {
+      return column;
+    }
+  }
+  return 0;
+}
+
+/**
+ * Free list of {@link FragmentParser} instances
+ */
+export class FragmentParserPool {
+  private readonly idle: FragmentParser[] = [];
+
+  constructor(
+    private readonly caches: ParserCaches = ParserCaches.shared(),
+    private readonly maxIdle = 8,
+  ) {}
+
+  acquire(): FragmentParser {
+    return this.idle.pop() ?? new FragmentParser(this.caches);
+  }
+
+  release(parser: FragmentParser): void {
+    if (this.idle.length < this.maxIdle) {
+      this.idle.push(parser);
+    }
+  }
+
+  parse<K extends FragmentKind>(
+    kind: K,
+    text: string,
+    options?: FragmentOptions,
+  ): FragmentParseResult<K> {
+    const parser = this.acquire();
+    try {
+      return parser.parse(kind, text, options);
+    } finally {
+      this.release(parser);
+    }
+  }
+}
+
+const defaultPool = new FragmentParserPool();
+
+export interface FragmentAstResult<T> {
+  node: T;
+  diagnostics: Diagnostic[];
+}
+
+function parseFragmentAst<K extends FragmentKind, T>(
+  kind: K,
+  text: string,
+  options: FragmentOptions | undefined,
+  convert: (visitor: ASTVisitor, context: FragmentContexts[K]) => T,
+): Result<FragmentAstResult<T>> {
+  try {
+    const { context, diagnostics } = defaultPool.parse(kind, text, options);
+    return { success: true, value: { node: convert(new ASTVisitor(text), context), diagnostics } };
+  } catch (error) {
+    return {
+      success: false,
+      error: error instanceof Error ? error : new Error(String(error)),
+    };
+  }
+}
+
+export function parseValueFragment(
+  text: string,
+  options?: FragmentOptions,
+): Result<FragmentAstResult<Value>> {
+  return parseFragmentAst('value', text, options, (visitor, ctx) => visitor.visitValue(ctx));
+}
+
+export function parseSectionFragment(
+  text: string,
+  options?: FragmentOptions,
+): Result<FragmentAstResult<Section>> {
+  return parseFragmentAst('section', text, options, (visitor, ctx) => visitor.visitSection(ctx));
+}
+
+export function parseMatchBlockFragment(
+  text: string,
+  options?: FragmentOptions,
+): Result<FragmentAstResult<MatchBlock>> {
+  return parseFragmentAst('match_block', text, options, (visitor, ctx) =>
+    visitor.visitMatch_block(ctx),
+  );
+}
+
+export function parseAttributeFragment(
+  text: string,
+  options?: FragmentOptions,
+): Result<FragmentAstResult<Attribute>> {
+  return parseFragmentAst('attribute_assignment', text, options, (visitor, ctx) =>
+    visitor.visitAttribute_assignment(ctx),
+  );
+}
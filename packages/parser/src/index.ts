@@ -89,12 +89,120 @@ export function parseRcl(source: string) {
 }
 
 // Export the main parser class
-export { AntlrRclParser } from './parser.js';
+export { AntlrRclParser, GRAMMAR_VERSION } from './parser.js';
 export { AntlrRclParser as RCLParser } from './parser.js'; // Alias for compatibility
+export type { AntlrRclParserOptions, ParseOptions } from './parser.js';
+
+// Export prediction cache ownership
+export {
+  ParserCaches,
+  type CacheConcurrencyMode,
+  type ParserCacheBudget,
+  type ParserCacheClearEvent,
+  type ParserCacheMetrics,
+} from './runtime/parser-caches.js';
+
+// Export per-parse budgets and cancellation
+export {
+  BudgetedParserATNSimulator,
+  CancellationTokenSource,
+  ParseBudgetExceededError,
+  ParseBudgetTracker,
+  type CancellationToken,
+  type ParseBudget,
+  type ParseBudgetLimit,
+} from './runtime/parse-budget.js';
 
 // Import for factory
 import { AntlrRclParser } from './parser.js';
 
+// Export streaming top-level parsing
+export {
+  SectionEmitter,
+  TopLevelEmitter,
+  parseSectionStream,
+  parseSectionStreamAst,
+  parseStreaming,
+  parseStreamingAst,
+  type SectionAstHandlers,
+  type SectionHandler,
+  type SectionStreamAstResult,
+  type SectionStreamResult,
+  type StreamingParseOptions,
+  type StreamingParseResult,
+  type TopLevelAstHandlers,
+  type TopLevelHandlers,
+} from './streaming-parser.js';
+
+// Export fragment parsing
+export {
+  FragmentParser,
+  FragmentParserPool,
+  parseAttributeFragment,
+  parseMatchBlockFragment,
+  parseSectionFragment,
+  parseValueFragment,
+  type FragmentAstResult,
+  type FragmentContexts,
+  type FragmentKind,
+  type FragmentOptions,
+  type FragmentParseResult,
+} from './fragment-parser.js';
+
+// Export pipelined lexing/parsing
+export {
+  parsePipelined,
+  type LexerWorkerRequest,
+  type LexerWorkerResponse,
+  type PipelinedParseOptions,
+  type PipelineWorker,
+} from './pipeline/pipelined-parser.js';
+export { RingTokenSource, TokenRing, TokenRingWriter, pumpTokens } from './pipeline/token-ring.js';
+
+// Export source-backed value representations
+export {
+  InterpolationTemplate,
+  compileTemplate,
+  compileTripleQuoteString,
+  type TemplateScope,
+  type TemplateSlot,
+} from './values/interpolation-template.js';
+export { MultilineNormalizer, multilineMode, type MultilineMode } from './values/multiline.js';
+export { NumberDecoder, type NumberKind } from './values/number-decoder.js';
+export { SourceText } from './values/source-text.js';
+export { StringLiteralView, StringView, type StringSegment } from './values/string-view.js';
+export {
+  TypeTagRegistry,
+  type DateTimeValue,
+  type DurationValue,
+  type EmailValue,
+  type MoneyValue,
+  type PhoneValue,
+  type TimeValue,
+  type TypeTagCacheStats,
+  type TypeTagConverter,
+  type TypedTagValue,
+  type UrlValue,
+  type ZipCodeValue,
+} from './values/type-tags.js';
+
+// Export parse-time symbol collection
+export {
+  ParseTimeSymbolCollector,
+  SymbolTable,
+  collectSymbols,
+  type FlowStateSymbol,
+  type ImportSymbol,
+  type MessageSymbol,
+  type ParseTimeSymbolOptions,
+  type ParseTimeSymbolResult,
+  type SectionSymbol,
+  type VariableSymbol,
+} from './parse-time-symbols.js';
+
+// Export non-recursive tree traversal
+export { IterativeParseTreeVisitor, IterativeParseTreeWalker } from './iterative-walker.js';
+
 // Export parser adapter
 export { AntlrAdapter } from './adapter.js';
 
@@ -0,0 +1,227 @@
+import {
+  ErrorNode,
+  type ParserRuleContext,
+  type ParseTree,
+  type ParseTreeListener,
+  TerminalNode,
+} from 'antlr4ng';
+
+/**
+ * Growable stack of rule contexts paired with the index of the next child to visit. The backing
+ * arrays are kept between walks so steady-state walking does not allocate.
+ */
+class ContextStack {
+  nodes: ParserRuleContext[] = [];
+  childIndex = new Int32Array(64);
+  size = 0;
+
+  push(ctx: ParserRuleContext): void {
+    if (this.size === this.childIndex.length) {
+      const grown = new Int32Array(this.childIndex.length * 2);
+      grown.set(this.childIndex);
+      this.childIndex = grown;
+    }
+    this.nodes[this.size] = ctx;
+    this.childIndex[this.size] = 0;
+    this.size++;
+  }
+
+  /**
+   * Pop the top context, clearing its slot so the walker does not retain the tree
+   */
+  pop(): void {
+    this.size--;
+    this.nodes[this.size] = undefined as unknown as ParserRuleContext;
+  }
+}
+
+/**
+ * Explicit-stack replacement for `ParseTreeWalker`.
+ *
+ * Fires exactly the same callbacks in the same order as the recursive walker:
+ * `visitErrorNode`/`visitTerminal` for leaves, and `enterEveryRule`, `ctx.enterRule`, children,
+ * `ctx.exitRule`, `exitEveryRule` for rule contexts. Tree depth is limited only by heap, so
+ * deeply nested values cannot overflow the call stack.
+ *
+ * A walker instance reuses its stack between walks. Nested walks started from a callback fall
+ * back to a temporary walker.
+ */
+export class IterativeParseTreeWalker {
+  static readonly DEFAULT = new IterativeParseTreeWalker();
+
+  private readonly stack = new ContextStack();
+  private walking = false;
+
+  walk<T extends ParseTreeListener>(listener: T, tree: ParseTree): void {
+    if (this.walking) {
+      new IterativeParseTreeWalker().walk(listener, tree);
+      return;
+    }
+
+    if (IterativeParseTreeWalker.visitLeaf(listener, tree)) {
+      return;
+    }
+
+    const stack = this.stack;
+    const base = stack.size;
+    this.walking = true;
+
+    try {
+      IterativeParseTreeWalker.enterRule(listener, tree as ParserRuleContext);
+      stack.push(tree as ParserRuleContext);
+
+      while (stack.size > base) {
+        const top = stack.size - 1;
+        const ctx = stack.nodes[top];
+        const index = stack.childIndex[top];
+
+        if (index < ctx.getChildCount()) {
+          stack.childIndex[top] = index + 1;
+          const child = ctx.getChild(index)!;
+
+          if (!IterativeParseTreeWalker.visitLeaf(listener, child)) {
+            IterativeParseTreeWalker.enterRule(listener, child as ParserRuleContext);
+            stack.push(child as ParserRuleContext);
+          }
+        } else {
+          IterativeParseTreeWalker.exitRule(listener, ctx);
+          stack.pop();
+        }
+      }
+    } finally {
+      while (stack.size > base) {
+        stack.pop();
+      }
+      this.walking = false;
+    }
+  }
+
+  /**
+   * Dispatch a terminal or error node; returns false for rule contexts
+   */
+  private static visitLeaf(listener: ParseTreeListener, node: ParseTree): boolean {
+    if (node instanceof ErrorNode) {
+      listener.visitErrorNode(node);
+      return true;
+    }
+    if (node instanceof TerminalNode) {
+      listener.visitTerminal(node);
+      return true;
+    }
+    return false;
+  }
+
+  private static enterRule(listener: ParseTreeListener, ctx: ParserRuleContext): void {
+    listener.enterEveryRule(ctx);
+    ctx.enterRule(listener);
+  }
+
+  private static exitRule(listener: ParseTreeListener, ctx: ParserRuleContext): void {
+    ctx.exitRule(listener);
+    listener.exitEveryRule(ctx);
+  }
+}
+
+/**
+ * Explicit-stack counterpart of `AbstractParseTreeVisitor` for bottom-up folds.
+ *
+ * Children are folded exactly like the default `visitChildren`: start from `defaultResult()`,
+ * stop when `shouldVisitNextChild` returns false, and combine child results with
+ * `aggregateResult`. Each rule context then gets the folded value through `visitRule`.
+ * Override `visitRule`, `visitTerminal` and `visitErrorNode` rather than the generated
+ * `visitX` methods, which would recurse.
+ */
+export abstract class IterativeParseTreeVisitor<T> {
+  private stack = new ContextStack();
+  private results: T[] = [];
+
+  protected abstract defaultResult(): T;
+
+  protected aggregateResult(_aggregate: T, nextResult: T): T {
+    return nextResult;
+  }
+
+  protected shouldVisitNextChild(_node: ParserRuleContext, _currentResult: T): boolean {
+    return true;
+  }
+
+  /**
+   * Produce the result for a rule context from the aggregate of its children's results
+   */
+  protected visitRule(_ctx: ParserRuleContext, childrenResult: T): T {
+    return childrenResult;
+  }
+
+  visitTerminal(_node: TerminalNode): T {
+    return this.defaultResult();
+  }
+
+  visitErrorNode(_node: ErrorNode): T {
+    return this.defaultResult();
+  }
+
+  visit(tree: ParseTree): T {
+    if (tree instanceof ErrorNode) return this.visitErrorNode(tree);
+    if (tree instanceof TerminalNode) return this.visitTerminal(tree);
+
+    if (this.stack.size === 0) {
+      return this.fold(tree as ParserRuleContext);
+    }
+
+    // Nested visit started from a callback: fold on a temporary stack
+    const savedStack = this.stack;
+    const savedResults = this.results;
+    this.stack = new ContextStack();
+    this.results = [];
+    try {
+      return this.fold(tree as ParserRuleContext);
+    } finally {
+      this.stack = savedStack;
+      this.results = savedResults;
+    }
+  }
+
+  private fold(root: ParserRuleContext): T {
+    const stack = this.stack;
+    const results = this.results;
+
+    stack.push(root);
+    results[0] = this.defaultResult();
+
+    try {
+      while (true) {
+        const top = stack.size - 1;
+        const ctx = stack.nodes[top];
+        const index = stack.childIndex[top];
+
+        if (index < ctx.getChildCount() && this.shouldVisitNextChild(ctx, results[top])) {
+          stack.childIndex[top] = index + 1;
+          const child = ctx.getChild(index)!;
+
+          if (child instanceof ErrorNode) {
+            results[top] = this.aggregateResult(results[top], this.visitErrorNode(child));
+          } else if (child instanceof TerminalNode) {
+            results[top] = this.aggregateResult(results[top], this.visitTerminal(child));
+          } else {
+            stack.push(child as ParserRuleContext);
+            results[top + 1] = this.defaultResult();
+          }
+          continue;
+        }
+
+        const result = this.visitRule(ctx, results[top]);
+        stack.pop();
+        results[top] = undefined as T;
+
+        if (top === 0) {
+          return result;
+        }
+        results[top - 1] = this.aggregateResult(results[top - 1], result);
+      }
+    } finally {
+      while (stack.size > 0) {
+        stack.pop();
+      }
+    }
+  }
+}
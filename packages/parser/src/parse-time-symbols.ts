@@ -0,0 +1,271 @@
+import type { Diagnostic, Range, Result } from '@rcs-lang/core';
+import {
+  CharStream,
+  CommonTokenStream,
+  type ErrorNode,
+  type ParserRuleContext,
+  type ParseTreeListener,
+  type TerminalNode,
+  type Token,
+} from 'antlr4ng';
+import { type Rcl_fileContext, RclParser } from './generated/RclParser.js';
+import { ErrorListener } from './parser.js';
+import { ParserCaches } from './runtime/parser-caches.js';
+
+export interface SectionSymbol {
+  type: string;
+  name?: string;
+  /** Full extent of the section, body included */
+  range: Range;
+  /** Extent of the section header line */
+  selectionRange: Range;
+  parent?: SectionSymbol;
+}
+
+export interface ImportSymbol {
+  path: string[];
+  alias?: string;
+  range: Range;
+}
+
+export interface MessageSymbol {
+  id: string;
+  messageType: string;
+  range: Range;
+}
+
+export interface FlowStateSymbol {
+  flow: string;
+  state: string;
+  range: Range;
+}
+
+export interface VariableSymbol {
+  /** Variable name without the leading `@` */
+  name: string;
+  range: Range;
+}
+
+/**
+ * Symbols collected from one document
+ */
+export class SymbolTable {
+  readonly sections: SectionSymbol[] = [];
+  readonly imports: ImportSymbol[] = [];
+  readonly messages = new Map<string, MessageSymbol>();
+  readonly flowStates = new Map<string, FlowStateSymbol[]>();
+  readonly variables: VariableSymbol[] = [];
+
+  private sectionsByType = new Map<string, SectionSymbol[]>();
+
+  addSection(section: SectionSymbol): void {
+    this.sections.push(section);
+    let sections = this.sectionsByType.get(section.type);
+    if (!sections) {
+      sections = [];
+      this.sectionsByType.set(section.type, sections);
+    }
+    sections.push(section);
+  }
+
+  addFlowState(state: FlowStateSymbol): void {
+    let states = this.flowStates.get(state.flow);
+    if (!states) {
+      states = [];
+      this.flowStates.set(state.flow, states);
+    }
+    states.push(state);
+  }
+
+  getSections(type: string): SectionSymbol[] {
+    return this.sectionsByType.get(type) ?? [];
+  }
+
+  getSection(type: string, name: string): SectionSymbol | undefined {
+    return this.getSections(type).find((section) => section.name === name);
+  }
+}
+
+interface SectionFrame {
+  /** Created once the header has been parsed, so nested sections can link to it */
+  symbol?: SectionSymbol;
+}
+
+/**
+ * Parse listener that fills a {@link SymbolTable} while the parser runs.
+ *
+ * It only relies on token positions and rule entry/exit events, never on parse tree children, so
+ * it produces the same table whether or not the parser builds a tree.
+ */
+export class ParseTimeSymbolCollector implements ParseTreeListener {
+  readonly table = new SymbolTable();
+
+  private sectionStack: SectionFrame[] = [];
+  /** Terminals of the import statement or section header being parsed */
+  private headerTokens: Token[] = [];
+  private collectingHeader = 0;
+
+  enterEveryRule(ctx: ParserRuleContext): void {
+    switch (ctx.ruleIndex) {
+      case RclParser.RULE_section:
+        this.sectionStack.push({});
+        break;
+      case RclParser.RULE_section_header:
+      case RclParser.RULE_import_statement:
+        this.collectingHeader++;
+        this.headerTokens.length = 0;
+        break;
+    }
+  }
+
+  exitEveryRule(ctx: ParserRuleContext): void {
+    switch (ctx.ruleIndex) {
+      case RclParser.RULE_section_header:
+        this.collectingHeader--;
+        this.exitSectionHeader(ctx);
+        break;
+      case RclParser.RULE_import_statement:
+        this.collectingHeader--;
+        this.exitImport(ctx);
+        break;
+      case RclParser.RULE_section:
+        this.exitSection(ctx);
+        break;
+    }
+  }
+
+  visitTerminal(node: TerminalNode): void {
+    const token = node.symbol;
+    if (this.collectingHeader > 0) {
+      this.headerTokens.push(token);
+    }
+    if (token.type === RclParser.VARIABLE || token.type === RclParser.INT_VARIABLE) {
+      this.table.variables.push({
+        name: (token.text ?? '').replace(/^@/, ''),
+        range: tokenRange(token, token),
+      });
+    }
+  }
+
+  visitErrorNode(_node: ErrorNode): void {}
+
+  private exitSectionHeader(ctx: ParserRuleContext): void {
+    const frame = this.sectionStack[this.sectionStack.length - 1];
+    const [typeToken, nameToken] = this.headerTokens;
+    if (!frame || !typeToken?.text) return;
+
+    const range = contextRange(ctx);
+    frame.symbol = {
+      type: typeToken.text,
+      name: nameToken?.type === RclParser.IDENTIFIER ? (nameToken.text ?? undefined) : undefined,
+      range,
+      selectionRange: range,
+      parent: this.sectionStack[this.sectionStack.length - 2]?.symbol,
+    };
+    this.table.addSection(frame.symbol);
+  }
+
+  private exitImport(ctx: ParserRuleContext): void {
+    const path: string[] = [];
+    let alias: string | undefined;
+    let afterAs = false;
+
+    for (const token of this.headerTokens) {
+      if (token.type === RclParser.AS) {
+        afterAs = true;
+      } else if (token.type === RclParser.IDENTIFIER) {
+        if (afterAs) {
+          alias = token.text ?? undefined;
+        } else {
+          path.push(token.text ?? '');
+        }
+      }
+    }
+
+    this.table.imports.push({ path, alias, range: contextRange(ctx) });
+  }
+
+  private exitSection(ctx: ParserRuleContext): void {
+    const symbol = this.sectionStack.pop()?.symbol;
+    if (!symbol) return;
+
+    symbol.range = contextRange(ctx);
+
+    const { parent, name } = symbol;
+    if (!name || !parent) return;
+
+    if (parent.type === 'messages') {
+      this.table.messages.set(name, { id: name, messageType: symbol.type, range: symbol.range });
+    } else if (symbol.type === 'on' && parent.type === 'flow' && parent.name) {
+      this.table.addFlowState({ flow: parent.name, state: name, range: symbol.range });
+    }
+  }
+}
+
+function tokenRange(start: Token, stop: Token): Range {
+  return {
+    start: { line: start.line - 1, character: start.column },
+    end: { line: stop.line - 1, character: stop.column + (stop.text?.length ?? 0) },
+  };
+}
+
+function contextRange(ctx: ParserRuleContext): Range {
+  const start = ctx.start!;
+  return tokenRange(start, ctx.stop ?? start);
+}
+
+export interface ParseTimeSymbolOptions {
+  /** Also build the parse tree (default: false) */
+  buildParseTree?: boolean;
+  caches?: ParserCaches;
+}
+
+export interface ParseTimeSymbolResult {
+  symbols: SymbolTable;
+  tree: Rcl_fileContext | null;
+  diagnostics: Diagnostic[];
+}
+
+/**
+ * Parse `source` and collect its symbols in the same pass. With tree building disabled (the
+ * default) no parse tree is retained.
+ */
+export function collectSymbols(
+  source: string,
+  options: ParseTimeSymbolOptions = {},
+): Result<ParseTimeSymbolResult> {
+  const caches = options.caches ?? ParserCaches.shared();
+  const errorListener = new ErrorListener();
+  const collector = new ParseTimeSymbolCollector();
+
+  caches.acquire();
+  try {
+    const lexer = caches.createLexer(CharStream.fromString(source));
+    const parser = caches.createParser(new CommonTokenStream(lexer));
+
+    lexer.removeErrorListeners();
+    lexer.addErrorListener(errorListener);
+    parser.removeErrorListeners();
+    parser.addErrorListener(errorListener);
+    parser.buildParseTrees = options.buildParseTree ?? false;
+    parser.addParseListener(collector);
+
+    const tree = parser.rcl_file();
+
+    return {
+      success: true,
+      value: {
+        symbols: collector.table,
+        tree: parser.buildParseTrees ? tree : null,
+        diagnostics: errorListener.getDiagnostics(),
+      },
+    };
+  } catch (error) {
+    return {
+      success: false,
+      error: error instanceof Error ? error : new Error(String(error)),
+    };
+  } finally {
+    caches.release();
+  }
+}
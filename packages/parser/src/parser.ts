@@ -18,14 +18,24 @@ import {
   type Recognizer,
 } from 'antlr4ng';
 import { AntlrAdapter } from './adapter.js';
-import { RclLexer } from './generated/RclLexer.js';
-import { RclParser } from './generated/RclParser.js';
+import {
+  BudgetedParserATNSimulator,
+  type ParseBudget,
+  ParseBudgetExceededError,
+  ParseBudgetTracker,
+  budgetExceededDiagnostic,
+} from './runtime/parse-budget.js';
+import {
+  type CacheConcurrencyMode,
+  type ParserCacheBudget,
+  ParserCaches,
+} from './runtime/parser-caches.js';
 // import { wrapAST } from './ast-wrapper.js'; // No longer needed
 
 /**
  * Custom error listener to collect syntax errors
  */
-class ErrorListener implements ANTLRErrorListener {
+export class ErrorListener implements ANTLRErrorListener {
   private diagnostics: Diagnostic[] = [];
 
   syntaxError(
@@ -110,6 +120,47 @@ class ErrorListener implements ANTLRErrorListener {
   }
 }
 
+/**
+ * Options for {@link AntlrRclParser}
+ */
+export interface AntlrRclParserOptions {
+  /**
+   * Prediction cache sharing mode (default: `shared`)
+   */
+  cacheMode?: CacheConcurrencyMode;
+
+  /**
+   * Explicit caches to use; takes precedence over `cacheMode`
+   */
+  caches?: ParserCaches;
+
+  /**
+   * Memory budget applied to the caches this parser uses
+   */
+  cacheBudget?: ParserCacheBudget;
+
+  /**
+   * Work budget applied to every parse unless overridden per call
+   */
+  budget?: ParseBudget;
+}
+
+/**
+ * Per-call parse options
+ */
+export interface ParseOptions {
+  /**
+   * Work budget and cancellation for this parse
+   */
+  budget?: ParseBudget;
+}
+
+/**
+ * Version of the grammar and the AST it produces. Persistent caches of parse results include it
+ * in their keys, so bump it whenever RclLexer.g4, RclParser.g4 or the AST shape changes.
+ */
+export const GRAMMAR_VERSION = '2.0.1';
+
 /**
  * ANTLR-based parser implementation
  */
@@ -117,6 +168,23 @@ export class AntlrRclParser implements IParser {
   private initialized = false;
   private adapter = new AntlrAdapter();
   private errorListener = new ErrorListener();
+  private caches: ParserCaches;
+  private budget: ParseBudget | undefined;
+
+  constructor(options: AntlrRclParserOptions = {}) {
+    this.budget = options.budget;
+    this.caches = options.caches ?? ParserCaches.forMode(options.cacheMode ?? 'shared');
+    if (options.cacheBudget) {
+      this.caches.setBudget(options.cacheBudget);
+    }
+  }
+
+  /**
+   * Prediction caches used by this parser, for metrics and budget control
+   */
+  getCaches(): ParserCaches {
+    return this.caches;
+  }
 
   async initialize(_config?: ParserConfig): Promise<Result<void>> {
     // ANTLR doesn't need special initialization
@@ -128,7 +196,15 @@ export class AntlrRclParser implements IParser {
     return this.initialized;
   }
 
-  async parse(text: string, _uri?: string): Promise<Result<IParseResult>> {
+  /**
+   * Same as {@link parseSync}. The parse runs to completion before the promise is returned, so
+   * budgets and cancellation behave exactly as they do there.
+   */
+  async parse(text: string, uri?: string, options?: ParseOptions): Promise<Result<IParseResult>> {
+    return this.parseSync(text, uri, options);
+  }
+
+  parseSync(text: string, _uri?: string, options: ParseOptions = {}): Result<IParseResult> {
     if (!this.initialized) {
       return {
         success: false,
@@ -137,6 +213,8 @@ export class AntlrRclParser implements IParser {
     }
 
     const startTime = Date.now();
+    const budget = options.budget ?? this.budget;
+    this.caches.acquire();
 
     try {
       // Clear previous errors
@@ -144,9 +222,12 @@ export class AntlrRclParser implements IParser {
 
       // Create lexer and parser
       const inputStream = CharStream.fromString(text);
-      const lexer = new RclLexer(inputStream);
+      const lexer = this.caches.createLexer(inputStream);
       const tokenStream = new CommonTokenStream(lexer);
-      const parser = new RclParser(tokenStream);
+      const parser = this.caches.createParser(
+        tokenStream,
+        budget ? BudgetedParserATNSimulator : undefined,
+      );
 
       // Remove default error listeners and add our custom one
       lexer.removeErrorListeners();
@@ -154,6 +235,10 @@ export class AntlrRclParser implements IParser {
       parser.removeErrorListeners();
       parser.addErrorListener(this.errorListener);
 
+      if (budget) {
+        new ParseBudgetTracker(budget).attach(lexer, parser);
+      }
+
       // Parse the source
       const parseTree = parser.rcl_file();
 
@@ -184,73 +269,23 @@ export class AntlrRclParser implements IParser {
         },
       };
     } catch (error) {
-      return {
-        success: false,
-        error: error instanceof Error ? error : new Error(String(error)),
-      };
-    }
-  }
-
-  parseSync(text: string, _uri?: string): Result<IParseResult> {
-    if (!this.initialized) {
-      return {
-        success: false,
-        error: new Error('Parser not initialized. Call initialize() first.'),
-      };
-    }
-
-    const startTime = Date.now();
-
-    try {
-      // Clear previous errors
-      this.errorListener.clear();
-
-      // Create lexer and parser
-      const inputStream = CharStream.fromString(text);
-      const lexer = new RclLexer(inputStream);
-      const tokenStream = new CommonTokenStream(lexer);
-      const parser = new RclParser(tokenStream);
-
-      // Remove default error listeners and add our custom one
-      lexer.removeErrorListeners();
-      lexer.addErrorListener(this.errorListener);
-      parser.removeErrorListeners();
-      parser.addErrorListener(this.errorListener);
-
-      // Parse the source
-      const parseTree = parser.rcl_file();
-
-      // Convert to formal AST format
-      const astResult = this.adapter.convertToAST(parseTree, text);
-
-      // Collect all diagnostics
-      const syntaxErrors = this.errorListener.getDiagnostics();
-      const adapterDiagnostics = this.adapter.extractDiagnostics(parseTree, text);
-      const diagnostics = [...syntaxErrors, ...adapterDiagnostics];
-
-      if (!astResult.success) {
+      if (error instanceof ParseBudgetExceededError) {
         return {
-          success: false,
-          error: astResult.error,
+          success: true,
+          value: {
+            ast: null,
+            diagnostics: [...this.errorListener.getDiagnostics(), budgetExceededDiagnostic(error)],
+            parseTime: Date.now() - startTime,
+            parserType: 'antlr',
+          },
         };
       }
-
-      const parseTime = Date.now() - startTime;
-
-      return {
-        success: true,
-        value: {
-          ast: astResult.value,
-          diagnostics,
-          parseTime,
-          parserType: 'antlr',
-        },
-      };
-    } catch (error) {
       return {
         success: false,
         error: error instanceof Error ? error : new Error(String(error)),
       };
+    } finally {
+      this.caches.release();
     }
   }
 
@@ -326,8 +361,13 @@ export class AntlrRclParser implements IParser {
     return imports;
   }
 
-  async parseDocument(content: string, uri: string, version = 1): Promise<any> {
-    const parseResult = await this.parse(content, uri);
+  async parseDocument(
+    content: string,
+    uri: string,
+    version = 1,
+    options?: ParseOptions,
+  ): Promise<any> {
+    const parseResult = await this.parse(content, uri, options);
 
     if (parseResult.success) {
       const ast = parseResult.value.ast;
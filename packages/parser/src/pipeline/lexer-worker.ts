@@ -0,0 +1,36 @@
+/**
+ * Worker entry point for pipelined parsing: lexes the source into the shared token ring and
+ * reports lexer diagnostics when done. Uses the Web Worker messaging API (Bun, browsers, Deno).
+ */
+import { CharStream } from 'antlr4ng';
+import { ErrorListener } from '../parser.js';
+import { ParserCaches } from '../runtime/parser-caches.js';
+import type { LexerWorkerRequest, LexerWorkerResponse } from './pipelined-parser.js';
+import { TokenRing, TokenRingWriter, pumpTokens } from './token-ring.js';
+
+interface WorkerScope {
+  onmessage: ((event: { data: LexerWorkerRequest }) => void) | null;
+  postMessage(message: LexerWorkerResponse): void;
+}
+
+const scope = globalThis as unknown as WorkerScope;
+const caches = new ParserCaches('isolated');
+
+scope.onmessage = (event) => {
+  const { source, buffer, batchSize } = event.data;
+  const errorListener = new ErrorListener();
+
+  try {
+    const lexer = caches.createLexer(CharStream.fromString(source));
+    lexer.removeErrorListeners();
+    lexer.addErrorListener(errorListener);
+
+    pumpTokens(lexer, new TokenRingWriter(TokenRing.attach(buffer), batchSize));
+    scope.postMessage({ diagnostics: errorListener.getDiagnostics() });
+  } catch (error) {
+    scope.postMessage({
+      diagnostics: errorListener.getDiagnostics(),
+      error: error instanceof Error ? error.message : String(error),
+    });
+  }
+};
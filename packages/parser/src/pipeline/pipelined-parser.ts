@@ -0,0 +1,124 @@
+import type { Diagnostic, IParseResult, Result } from '@rcs-lang/core';
+import { CharStream, CommonTokenStream } from 'antlr4ng';
+import { AntlrAdapter } from '../adapter.js';
+import { ErrorListener } from '../parser.js';
+import { ParserCaches } from '../runtime/parser-caches.js';
+import { RingTokenSource, TokenRing } from './token-ring.js';
+
+export interface LexerWorkerRequest {
+  source: string;
+  buffer: SharedArrayBuffer;
+  batchSize?: number;
+}
+
+export interface LexerWorkerResponse {
+  diagnostics: Diagnostic[];
+  error?: string;
+}
+
+/**
+ * Minimal view of a Web Worker used by the pipeline
+ */
+export interface PipelineWorker {
+  postMessage(message: LexerWorkerRequest): void;
+  onmessage: ((event: { data: LexerWorkerResponse }) => void) | null;
+  onerror: ((event: unknown) => void) | null;
+  terminate(): void;
+}
+
+export interface PipelinedParseOptions {
+  /** Token ring capacity (default: 4096) */
+  capacity?: number;
+  /** Tokens published per index update on each side (default: 32) */
+  batchSize?: number;
+  /** Give up if the lexer stalls for this long, in milliseconds (default: 10000) */
+  timeoutMs?: number;
+  caches?: ParserCaches;
+  /** Worker factory; defaults to a module Worker running `lexer-worker.js` */
+  createWorker?: () => PipelineWorker;
+}
+
+type WorkerConstructor = new (url: URL, options?: { type: 'module' }) => PipelineWorker;
+
+function defaultWorker(): PipelineWorker {
+  const Worker = (globalThis as { Worker?: WorkerConstructor }).Worker;
+  if (!Worker) {
+    throw new Error('Pipelined parsing requires Worker support');
+  }
+  return new Worker(new URL('./lexer-worker.js', import.meta.url), { type: 'module' });
+}
+
+/**
+ * Parse with the lexer running ahead on a worker.
+ *
+ * The worker writes tokens into a bounded SPSC ring in shared memory while this thread parses
+ * them through a CommonTokenStream over {@link RingTokenSource}, so lexing and parsing overlap.
+ * The parser blocks with `Atomics.wait` when it catches up with the lexer, so this must not run
+ * on a browser main thread. Worth it only for large inputs: worker startup costs more than
+ * lexing a small file.
+ */
+export async function parsePipelined(
+  source: string,
+  options: PipelinedParseOptions = {},
+): Promise<Result<IParseResult>> {
+  const startTime = Date.now();
+  const ring = TokenRing.create(options.capacity);
+  const worker = (options.createWorker ?? defaultWorker)();
+
+  const lexerDone = new Promise<LexerWorkerResponse>((resolve) => {
+    worker.onmessage = (event) => resolve(event.data);
+    worker.onerror = (event) => resolve({ diagnostics: [], error: String(event) });
+  });
+  worker.postMessage({ source, buffer: ring.buffer, batchSize: options.batchSize });
+
+  const caches = options.caches ?? ParserCaches.shared();
+  const errorListener = new ErrorListener();
+  caches.acquire();
+
+  try {
+    const input = CharStream.fromString(source);
+    const tokens = new CommonTokenStream(
+      new RingTokenSource(ring, input, {
+        batchSize: options.batchSize,
+        timeoutMs: options.timeoutMs,
+      }),
+    );
+    const parser = caches.createParser(tokens);
+    parser.removeErrorListeners();
+    parser.addErrorListener(errorListener);
+
+    const parseTree = parser.rcl_file();
+    const lexerResult = await lexerDone;
+    if (lexerResult.error) {
+      return { success: false, error: new Error(lexerResult.error) };
+    }
+
+    const adapter = new AntlrAdapter();
+    const astResult = adapter.convertToAST(parseTree, source);
+    if (!astResult.success) {
+      return { success: false, error: astResult.error };
+    }
+
+    return {
+      success: true,
+      value: {
+        ast: astResult.value,
+        diagnostics: [
+          ...lexerResult.diagnostics,
+          ...errorListener.getDiagnostics(),
+          ...adapter.extractDiagnostics(parseTree, source),
+        ],
+        parseTime: Date.now() - startTime,
+        parserType: 'antlr-pipelined',
+      },
+    };
+  } catch (error) {
+    return {
+      success: false,
+      error: error instanceof Error ? error : new Error(String(error)),
+    };
+  } finally {
+    caches.release();
+    worker.terminate();
+  }
+}
@@ -0,0 +1,259 @@
+import {
+  type CharStream,
+  CommonTokenFactory,
+  Token,
+  type TokenFactory,
+  type TokenSource,
+} from 'antlr4ng';
+import { RclLexer } from '../generated/RclLexer.js';
+
+/** Int32 slots per token record: type, channel, start, stop, line, column, text code */
+const RECORD_SIZE = 7;
+
+/** Header slots */
+const WRITE_INDEX = 0;
+const READ_INDEX = 1;
+const STATE = 2;
+const HEADER_SIZE = 4;
+
+const STATE_RUNNING = 0;
+const STATE_DONE = 1;
+const STATE_FAILED = 2;
+
+/**
+ * Synthetic tokens from RclLexerBase carry text that is not in the input. They are the only
+ * tokens whose text cannot be recovered from their start/stop indices.
+ */
+const TEXT_FROM_INPUT = 0;
+const TEXT_INDENT = 1;
+const TEXT_DEDENT = 2;
+const TEXT_NEWLINE = 3;
+const SYNTHETIC_TEXT = [null, '<indent>', '<dedent>', '\n'];
+
+/** How long a blocked side sleeps before re-checking, in milliseconds */
+const WAIT_SLICE_MS = 50;
+
+/**
+ * Bounded single-producer/single-consumer ring of token records in a SharedArrayBuffer.
+ *
+ * The producer owns the write index and the consumer owns the read index; each side publishes its
+ * index with `Atomics.store` and blocks with `Atomics.wait` only when the ring is full or empty,
+ * so no locks are taken. Indices grow monotonically and are masked into the record array.
+ */
+export class TokenRing {
+  readonly capacity: number;
+  readonly header: Int32Array;
+  readonly records: Int32Array;
+  private readonly mask: number;
+
+  private constructor(readonly buffer: SharedArrayBuffer) {
+    this.header = new Int32Array(buffer, 0, HEADER_SIZE);
+    this.records = new Int32Array(buffer, HEADER_SIZE * 4);
+    this.capacity = this.records.length / RECORD_SIZE;
+    this.mask = this.capacity - 1;
+  }
+
+  /**
+   * Allocate a ring holding `capacity` tokens (rounded up to a power of two)
+   */
+  static create(capacity = 4096): TokenRing {
+    let size = 1;
+    while (size < capacity) size <<= 1;
+    return new TokenRing(new SharedArrayBuffer((HEADER_SIZE + size * RECORD_SIZE) * 4));
+  }
+
+  /**
+   * Wrap a buffer received from the other side of the pipeline
+   */
+  static attach(buffer: SharedArrayBuffer): TokenRing {
+    return new TokenRing(buffer);
+  }
+
+  offset(index: number): number {
+    return (index & this.mask) * RECORD_SIZE;
+  }
+}
+
+/**
+ * Producer side: copies lexer tokens into the ring
+ */
+export class TokenRingWriter {
+  private writeIndex: number;
+  private unpublished = 0;
+
+  constructor(
+    private readonly ring: TokenRing,
+    private readonly batchSize = 32,
+  ) {
+    this.writeIndex = Atomics.load(ring.header, WRITE_INDEX);
+  }
+
+  write(token: Token): void {
+    const { header, records, capacity } = this.ring;
+
+    for (;;) {
+      const readIndex = Atomics.load(header, READ_INDEX);
+      if (this.writeIndex - readIndex < capacity) break;
+      // Full: make everything visible, then sleep until the consumer moves
+      this.flush();
+      Atomics.wait(header, READ_INDEX, readIndex, WAIT_SLICE_MS);
+    }
+
+    const offset = this.ring.offset(this.writeIndex);
+    records[offset] = token.type;
+    records[offset + 1] = token.channel;
+    records[offset + 2] = token.start;
+    records[offset + 3] = token.stop;
+    records[offset + 4] = token.line;
+    records[offset + 5] = token.column;
+    records[offset + 6] = textCode(token);
+    this.writeIndex++;
+
+    if (++this.unpublished >= this.batchSize) {
+      this.flush();
+    }
+  }
+
+  flush(): void {
+    if (this.unpublished === 0) return;
+    this.unpublished = 0;
+    Atomics.store(this.ring.header, WRITE_INDEX, this.writeIndex);
+    Atomics.notify(this.ring.header, WRITE_INDEX);
+  }
+
+  close(): void {
+    this.flush();
+    Atomics.store(this.ring.header, STATE, STATE_DONE);
+    Atomics.notify(this.ring.header, WRITE_INDEX);
+  }
+
+  fail(): void {
+    this.flush();
+    Atomics.store(this.ring.header, STATE, STATE_FAILED);
+    Atomics.notify(this.ring.header, WRITE_INDEX);
+  }
+}
+
+function textCode(token: Token): number {
+  switch (token.type) {
+    case RclLexer.INDENT:
+      return TEXT_INDENT;
+    case RclLexer.DEDENT:
+      return TEXT_DEDENT;
+    case RclLexer.NEWLINE:
+      // The EOF newline is synthesized with start === stop at the end of input
+      return token.start >= (token.inputStream?.size ?? 0) ? TEXT_NEWLINE : TEXT_FROM_INPUT;
+    default:
+      return TEXT_FROM_INPUT;
+  }
+}
+
+/**
+ * Consumer side: a TokenSource that rebuilds tokens from ring records. Feed it to a
+ * CommonTokenStream, which buffers consumed tokens and so provides mark/seek for prediction.
+ */
+export class RingTokenSource implements TokenSource {
+  readonly sourceName: string;
+  tokenFactory: TokenFactory<Token> = CommonTokenFactory.DEFAULT;
+  line = 1;
+  column = 0;
+
+  private readIndex: number;
+  private unpublished = 0;
+  private finished = false;
+
+  constructor(
+    private readonly ring: TokenRing,
+    readonly inputStream: CharStream,
+    private readonly options: { batchSize?: number; timeoutMs?: number } = {},
+  ) {
+    this.sourceName = inputStream.getSourceName();
+    this.readIndex = Atomics.load(ring.header, READ_INDEX);
+  }
+
+  nextToken(): Token {
+    if (this.finished) {
+      throw new Error('Token ring already delivered EOF');
+    }
+
+    this.awaitToken();
+
+    const { records } = this.ring;
+    const offset = this.ring.offset(this.readIndex);
+    const type = records[offset];
+    const code = records[offset + 6];
+
+    const token = this.tokenFactory.create(
+      [this, this.inputStream],
+      type,
+      code === TEXT_FROM_INPUT ? undefined : SYNTHETIC_TEXT[code]!,
+      records[offset + 1],
+      records[offset + 2],
+      records[offset + 3],
+      records[offset + 4],
+      records[offset + 5],
+    );
+
+    this.readIndex++;
+    if (++this.unpublished >= (this.options.batchSize ?? 32)) {
+      this.publishRead();
+    }
+
+    this.line = token.line;
+    this.column = token.column;
+    if (type === Token.EOF) {
+      this.finished = true;
+      this.publishRead();
+    }
+    return token;
+  }
+
+  private awaitToken(): void {
+    const { header } = this.ring;
+    const deadline = Date.now() + (this.options.timeoutMs ?? 10_000);
+
+    for (;;) {
+      const writeIndex = Atomics.load(header, WRITE_INDEX);
+      if (this.readIndex < writeIndex) return;
+
+      const state = Atomics.load(header, STATE);
+      if (state === STATE_FAILED) {
+        throw new Error('Lexer worker failed');
+      }
+      if (state === STATE_DONE && this.readIndex >= Atomics.load(header, WRITE_INDEX)) {
+        throw new Error('Token ring closed before EOF');
+      }
+      if (Date.now() > deadline) {
+        throw new Error('Timed out waiting for the lexer worker');
+      }
+
+      // Empty: free consumed slots for the producer, then sleep until it publishes more
+      this.publishRead();
+      Atomics.wait(header, WRITE_INDEX, writeIndex, WAIT_SLICE_MS);
+    }
+  }
+
+  private publishRead(): void {
+    if (this.unpublished === 0) return;
+    this.unpublished = 0;
+    Atomics.store(this.ring.header, READ_INDEX, this.readIndex);
+    Atomics.notify(this.ring.header, READ_INDEX);
+  }
+}
+
+/**
+ * Run `lexer` to completion, writing every token into the ring
+ */
+export function pumpTokens(lexer: RclLexer, writer: TokenRingWriter): void {
+  try {
+    for (;;) {
+      const token = lexer.nextToken();
+      writer.write(token);
+      if (token.type === Token.EOF) break;
+    }
+    writer.close();
+  } catch (error) {
+    writer.fail();
+    throw error;
+  }
+}
@@ -0,0 +1,202 @@
+import { type Diagnostic, RCLErrorFactory, errorToDiagnostic } from '@rcs-lang/core';
+import {
+  type ErrorNode,
+  ParserATNSimulator,
+  type ParserRuleContext,
+  type ParseTreeListener,
+  type TerminalNode,
+  type Token,
+  type TokenStream,
+} from 'antlr4ng';
+
+/**
+ * Cooperative cancellation signal, polled while parsing.
+ *
+ * Parsing is synchronous, so nothing else on the parsing thread runs until it finishes. A token
+ * set by an event handler on that thread, such as a language server's request token, therefore
+ * only stops parses that have not started when it is set; bound running parses with `timeoutMs`.
+ * A token can only stop a parse midway when it is set from another thread, e.g. backed by a
+ * `SharedArrayBuffer` written from the main thread while a worker parses.
+ */
+export interface CancellationToken {
+  readonly isCancellationRequested: boolean;
+}
+
+/**
+ * Creates and controls a {@link CancellationToken}
+ */
+export class CancellationTokenSource implements CancellationToken {
+  private cancelled = false;
+
+  get token(): CancellationToken {
+    return this;
+  }
+
+  get isCancellationRequested(): boolean {
+    return this.cancelled;
+  }
+
+  cancel(): void {
+    this.cancelled = true;
+  }
+}
+
+/**
+ * Limits on the work a single parse may perform. Every limit is optional.
+ */
+export interface ParseBudget {
+  /** Maximum tokens produced by the lexer, hidden-channel tokens included */
+  maxTokens?: number;
+  /** Maximum rule nesting depth */
+  maxDepth?: number;
+  /** Maximum adaptivePredict invocations */
+  maxPredictions?: number;
+  /** Wall-clock time allowed for the parse, in milliseconds */
+  timeoutMs?: number;
+  /** Stops the parse at the next check once cancellation is requested */
+  cancellationToken?: CancellationToken;
+}
+
+export type ParseBudgetLimit = 'tokens' | 'depth' | 'predictions' | 'deadline' | 'cancelled';
+
+/**
+ * Thrown from inside the lexer or parser to unwind a parse that ran out of budget
+ */
+export class ParseBudgetExceededError extends Error {
+  constructor(
+    readonly limit: ParseBudgetLimit,
+    readonly max: number,
+    readonly token: Token | null,
+  ) {
+    super(
+      limit === 'cancelled' ? 'Parse cancelled' : `Parse stopped: ${limit} budget of ${max} exceeded`,
+    );
+    this.name = 'ParseBudgetExceededError';
+  }
+}
+
+/**
+ * Clock checks are comparatively expensive, so the deadline is only tested every N events
+ */
+const CLOCK_CHECK_INTERVAL = 64;
+
+/**
+ * Tracks the work done by one parse against a {@link ParseBudget}.
+ *
+ * Wire it up with {@link ParseBudgetTracker.attach}: the lexer reports each token, the parser
+ * reports rule entry/exit through a parse listener, and the prediction simulator reports each
+ * adaptivePredict call. Cancellation is checked at every rule entry.
+ */
+export class ParseBudgetTracker implements ParseTreeListener {
+  private readonly deadline: number;
+  private tokens = 0;
+  private depth = 0;
+  private predictions = 0;
+  private eventsSinceClockCheck = 0;
+  private lastToken: Token | null = null;
+
+  constructor(private readonly budget: ParseBudget) {
+    this.deadline = budget.timeoutMs !== undefined ? Date.now() + budget.timeoutMs : Infinity;
+  }
+
+  /**
+   * Hook this tracker into a lexer/parser pair that has not started parsing yet
+   */
+  attach(
+    lexer: { tokenListener: ((token: Token) => void) | null },
+    parser: {
+      addParseListener(listener: ParseTreeListener): void;
+      interpreter: ParserATNSimulator;
+    },
+  ): void {
+    lexer.tokenListener = (token) => this.onToken(token);
+    parser.addParseListener(this);
+    if (parser.interpreter instanceof BudgetedParserATNSimulator) {
+      parser.interpreter.tracker = this;
+    }
+  }
+
+  onToken(token: Token): void {
+    this.lastToken = token;
+    const max = this.budget.maxTokens;
+    if (max !== undefined && ++this.tokens > max) {
+      this.fail('tokens', max);
+    }
+    this.tick();
+  }
+
+  onPredict(): void {
+    const max = this.budget.maxPredictions;
+    if (max !== undefined && ++this.predictions > max) {
+      this.fail('predictions', max);
+    }
+    this.tick();
+  }
+
+  enterEveryRule(_ctx: ParserRuleContext): void {
+    if (this.budget.cancellationToken?.isCancellationRequested) {
+      this.fail('cancelled', 0);
+    }
+    const max = this.budget.maxDepth;
+    if (max !== undefined && ++this.depth > max) {
+      this.fail('depth', max);
+    }
+    this.tick();
+  }
+
+  exitEveryRule(_ctx: ParserRuleContext): void {
+    if (this.budget.maxDepth !== undefined) {
+      this.depth--;
+    }
+  }
+
+  visitTerminal(_node: TerminalNode): void {}
+
+  visitErrorNode(_node: ErrorNode): void {}
+
+  private tick(): void {
+    if (++this.eventsSinceClockCheck < CLOCK_CHECK_INTERVAL) return;
+    this.eventsSinceClockCheck = 0;
+
+    if (this.budget.cancellationToken?.isCancellationRequested) {
+      this.fail('cancelled', 0);
+    }
+    if (Date.now() > this.deadline) {
+      this.fail('deadline', this.budget.timeoutMs ?? 0);
+    }
+  }
+
+  private fail(limit: ParseBudgetLimit, max: number): never {
+    throw new ParseBudgetExceededError(limit, max, this.lastToken);
+  }
+}
+
+/**
+ * Prediction simulator that reports every adaptivePredict call to a {@link ParseBudgetTracker}
+ */
+export class BudgetedParserATNSimulator extends ParserATNSimulator {
+  tracker: ParseBudgetTracker | null = null;
+
+  override adaptivePredict(
+    input: TokenStream,
+    decision: number,
+    outerContext: ParserRuleContext | null,
+  ): number {
+    this.tracker?.onPredict();
+    return super.adaptivePredict(input, decision, outerContext);
+  }
+}
+
+/**
+ * Turn an aborted parse into a diagnostic positioned at the last token lexed
+ */
+export function budgetExceededDiagnostic(error: ParseBudgetExceededError): Diagnostic {
+  const position = error.token
+    ? { line: error.token.line - 1, character: error.token.column }
+    : undefined;
+  const rclError =
+    error.limit === 'cancelled'
+      ? RCLErrorFactory.parseCancelled(position)
+      : RCLErrorFactory.parseBudgetExceeded(error.limit, error.max, position);
+  return errorToDiagnostic(rclError);
+}
@@ -0,0 +1,287 @@
+import {
+  type ATN,
+  type CharStream,
+  DFA,
+  LexerATNSimulator,
+  ParserATNSimulator,
+  PredictionContextCache,
+  type TokenStream,
+} from 'antlr4ng';
+import { RclLexer } from '../generated/RclLexer.js';
+import { RclParser } from '../generated/RclParser.js';
+
+/**
+ * How lexer and parser instances share ATN prediction state.
+ *
+ * - `shared`: every parser created through {@link ParserCaches.shared} warms and reuses one set of
+ *   DFA tables and prediction-context caches. Best for a single long-lived isolate.
+ * - `isolated`: each {@link ParserCaches} owns private tables. Use one per worker (or per
+ *   independent parsing pipeline) so no two consumers ever insert into the same DFA.
+ */
+export type CacheConcurrencyMode = 'shared' | 'isolated';
+
+/**
+ * Upper bounds for the prediction caches. Sizes are counted in entries: DFA states across all
+ * decisions, and prediction contexts held by the context caches.
+ */
+export interface ParserCacheBudget {
+  /** Maximum DFA states (lexer + parser) before the caches are cleared */
+  maxDfaStates?: number;
+  /** Maximum prediction-context cache entries (lexer + parser) before the caches are cleared */
+  maxContextEntries?: number;
+  /** Measure the caches every N completed parses (default: 1) */
+  checkInterval?: number;
+}
+
+/**
+ * Snapshot of cache sizes and eviction activity
+ */
+export interface ParserCacheMetrics {
+  lexerDfaStates: number;
+  parserDfaStates: number;
+  lexerContextEntries: number;
+  parserContextEntries: number;
+  /** Parses currently holding a lease on these caches */
+  activeParses: number;
+  /** Number of times the caches have been cleared */
+  clearCount: number;
+  /** Epoch milliseconds of the most recent clear, if any */
+  lastClearedAt?: number;
+}
+
+/**
+ * Details passed to {@link ParserCaches.onClear} listeners
+ */
+export interface ParserCacheClearEvent {
+  reason: 'budget' | 'manual';
+  /** Sizes measured just before the clear */
+  before: ParserCacheMetrics;
+}
+
+/**
+ * Owns the DFA tables and prediction-context caches used by the ANTLR simulators.
+ *
+ * The generated `RclLexer`/`RclParser` keep their DFA in a static field and allocate a fresh
+ * `PredictionContextCache` per instance. Lexers and parsers created here are rebound to the
+ * tables held by this object instead, which makes cache ownership explicit and lets callers
+ * choose between one warm cache per isolate or one per worker.
+ */
+export class ParserCaches {
+  private static sharedInstance: ParserCaches | null = null;
+
+  readonly mode: CacheConcurrencyMode;
+
+  private lexerDecisionToDFA: DFA[];
+  private parserDecisionToDFA: DFA[];
+  private lexerContextCache = new PredictionContextCache();
+  private parserContextCache = new PredictionContextCache();
+
+  private budget: ParserCacheBudget | undefined;
+  private activeParses = 0;
+  private parsesSinceCheck = 0;
+  /** Reason for a clear deferred until the last lease is released */
+  private pendingReason: ParserCacheClearEvent['reason'] | undefined;
+  private clearCount = 0;
+  private lastClearedAt: number | undefined;
+  private clearListeners: Array<(event: ParserCacheClearEvent) => void> = [];
+
+  constructor(mode: CacheConcurrencyMode = 'isolated', budget?: ParserCacheBudget) {
+    this.mode = mode;
+    this.budget = budget;
+    this.lexerDecisionToDFA = ParserCaches.createDecisionTables(RclLexer._ATN.decisionToState);
+    this.parserDecisionToDFA = ParserCaches.createDecisionTables(RclParser._ATN.decisionToState);
+  }
+
+  /**
+   * Process-wide (per isolate) caches used by parsers in `shared` mode
+   */
+  static shared(): ParserCaches {
+    if (!ParserCaches.sharedInstance) {
+      ParserCaches.sharedInstance = new ParserCaches('shared');
+    }
+    return ParserCaches.sharedInstance;
+  }
+
+  /**
+   * Resolve the caches a parser should use for the given mode
+   */
+  static forMode(mode: CacheConcurrencyMode): ParserCaches {
+    return mode === 'shared' ? ParserCaches.shared() : new ParserCaches('isolated');
+  }
+
+  /**
+   * Create a lexer whose simulator uses these caches
+   */
+  createLexer(input: CharStream): RclLexer {
+    const lexer = new RclLexer(input);
+    this.bindLexer(lexer);
+    return lexer;
+  }
+
+  /**
+   * Create a parser whose simulator uses these caches
+   *
+   * @param Simulator - Prediction simulator class, for instrumented subclasses
+   */
+  createParser(
+    tokens: TokenStream,
+    Simulator: typeof ParserATNSimulator = ParserATNSimulator,
+  ): RclParser {
+    const parser = new RclParser(tokens);
+    this.bindParser(parser, Simulator);
+    return parser;
+  }
+
+  /**
+   * Rebind an existing lexer to these caches
+   */
+  bindLexer(lexer: RclLexer): void {
+    lexer.interpreter = new LexerATNSimulator(
+      lexer,
+      RclLexer._ATN,
+      this.lexerDecisionToDFA,
+      this.lexerContextCache,
+    );
+  }
+
+  /**
+   * Rebind an existing parser to these caches
+   */
+  bindParser(parser: RclParser, Simulator: typeof ParserATNSimulator = ParserATNSimulator): void {
+    parser.interpreter = new Simulator(
+      parser,
+      RclParser._ATN,
+      this.parserDecisionToDFA,
+      this.parserContextCache,
+    );
+  }
+
+  /**
+   * Set or remove the memory budget enforced by {@link release}
+   */
+  setBudget(budget: ParserCacheBudget | undefined): void {
+    this.budget = budget;
+    this.parsesSinceCheck = 0;
+  }
+
+  getBudget(): ParserCacheBudget | undefined {
+    return this.budget;
+  }
+
+  /**
+   * Register a listener that is notified whenever the caches are cleared
+   *
+   * @returns A function that removes the listener
+   */
+  onClear(listener: (event: ParserCacheClearEvent) => void): () => void {
+    this.clearListeners.push(listener);
+    return () => {
+      this.clearListeners = this.clearListeners.filter((l) => l !== listener);
+    };
+  }
+
+  /**
+   * Mark the start of a parse that uses these caches. Clears never run while a lease is held.
+   */
+  acquire(): void {
+    this.activeParses++;
+  }
+
+  /**
+   * Mark the end of a parse. When the last lease is released, the budget is checked and the
+   * caches are cleared if it has been exceeded.
+   */
+  release(): void {
+    if (this.activeParses > 0) {
+      this.activeParses--;
+    }
+
+    if (this.budget) {
+      const interval = Math.max(1, this.budget.checkInterval ?? 1);
+      if (++this.parsesSinceCheck >= interval) {
+        this.parsesSinceCheck = 0;
+        if (this.isOverBudget(this.metrics())) {
+          // A pending manual clear keeps its reason
+          this.pendingReason ??= 'budget';
+        }
+      }
+    }
+
+    if (this.pendingReason && this.activeParses === 0) {
+      this.clearNow(this.pendingReason);
+    }
+  }
+
+  /**
+   * Request a clear. Runs immediately when no parse holds a lease, otherwise after the last
+   * active parse releases the caches.
+   */
+  clear(): void {
+    if (this.activeParses === 0) {
+      this.clearNow('manual');
+    } else {
+      this.pendingReason = 'manual';
+    }
+  }
+
+  /**
+   * Measure the current cache sizes
+   */
+  metrics(): ParserCacheMetrics {
+    return {
+      lexerDfaStates: ParserCaches.countStates(this.lexerDecisionToDFA),
+      parserDfaStates: ParserCaches.countStates(this.parserDecisionToDFA),
+      lexerContextEntries: this.lexerContextCache.length,
+      parserContextEntries: this.parserContextCache.length,
+      activeParses: this.activeParses,
+      clearCount: this.clearCount,
+      lastClearedAt: this.lastClearedAt,
+    };
+  }
+
+  private isOverBudget(metrics: ParserCacheMetrics): boolean {
+    const budget = this.budget;
+    if (!budget) return false;
+
+    const dfaStates = metrics.lexerDfaStates + metrics.parserDfaStates;
+    const contextEntries = metrics.lexerContextEntries + metrics.parserContextEntries;
+
+    return (
+      (budget.maxDfaStates !== undefined && dfaStates > budget.maxDfaStates) ||
+      (budget.maxContextEntries !== undefined && contextEntries > budget.maxContextEntries)
+    );
+  }
+
+  /**
+   * Swap in fresh tables rather than emptying the current ones, so a simulator that still
+   * references the old tables keeps a consistent (if stale) view until it is discarded.
+   */
+  private clearNow(reason: ParserCacheClearEvent['reason']): void {
+    const before = this.metrics();
+
+    this.lexerDecisionToDFA = ParserCaches.createDecisionTables(RclLexer._ATN.decisionToState);
+    this.parserDecisionToDFA = ParserCaches.createDecisionTables(RclParser._ATN.decisionToState);
+    this.lexerContextCache = new PredictionContextCache();
+    this.parserContextCache = new PredictionContextCache();
+
+    this.pendingReason = undefined;
+    this.clearCount++;
+    this.lastClearedAt = Date.now();
+
+    for (const listener of this.clearListeners) {
+      listener({ reason, before });
+    }
+  }
+
+  private static countStates(tables: DFA[]): number {
+    let count = 0;
+    for (const dfa of tables) {
+      count += dfa.getStates().length;
+    }
+    return count;
+  }
+
+  private static createDecisionTables(decisionToState: ATN['decisionToState']): DFA[] {
+    return decisionToState.map((ds, index) => new DFA(ds, index));
+  }
+}
@@ -0,0 +1,373 @@
+import type { ImportStatement, RclFile, Section } from '@rcs-lang/ast';
+import type { Diagnostic, Result } from '@rcs-lang/core';
+import {
+  CharStream,
+  CommonTokenStream,
+  type ErrorNode,
+  type ParserRuleContext,
+  type ParseTreeListener,
+  type TerminalNode,
+} from 'antlr4ng';
+import { ASTVisitor } from './ast-visitor.js';
+import {
+  type Import_statementContext,
+  Rcl_fileContext,
+  RclParser,
+  type SectionContext,
+  type Section_headerContext,
+} from './generated/RclParser.js';
+import { ErrorListener } from './parser.js';
+import {
+  BudgetedParserATNSimulator,
+  type ParseBudget,
+  ParseBudgetExceededError,
+  ParseBudgetTracker,
+  budgetExceededDiagnostic,
+} from './runtime/parse-budget.js';
+import { ParserCaches } from './runtime/parser-caches.js';
+
+/**
+ * Receives each top-level construct as soon as it has been parsed. The context is detached from
+ * the file root afterwards, so it stays alive only as long as the handler keeps a reference.
+ */
+export interface TopLevelHandlers {
+  onImport?(ctx: Import_statementContext): void;
+  onSection?(ctx: SectionContext): void;
+}
+
+/**
+ * AST-level counterpart of {@link TopLevelHandlers}
+ */
+export interface TopLevelAstHandlers {
+  onImport?(importStatement: ImportStatement): void;
+  onSection?(section: Section): void;
+}
+
+export interface StreamingParseOptions {
+  caches?: ParserCaches;
+  budget?: ParseBudget;
+}
+
+export interface StreamingParseResult {
+  imports: number;
+  sections: number;
+  diagnostics: Diagnostic[];
+  parseTime: number;
+}
+
+/**
+ * Parse listener that hands completed top-level imports and sections to a consumer and then
+ * removes them (and top-level NEWLINE terminals) from the `rcl_file` root.
+ *
+ * The context is removed while the parser is still exiting it; the parser only follows the
+ * context's parent pointer afterwards, which is left intact.
+ */
+export class TopLevelEmitter implements ParseTreeListener {
+  imports = 0;
+  sections = 0;
+
+  constructor(private readonly handlers: TopLevelHandlers) {}
+
+  visitTerminal(node: TerminalNode): void {
+    const parent = node.parent as ParserRuleContext | null;
+    if (node.symbol.type === RclParser.NEWLINE && parent?.ruleIndex === RclParser.RULE_rcl_file) {
+      parent.removeLastChild();
+    }
+  }
+
+  visitErrorNode(_node: ErrorNode): void {}
+
+  enterEveryRule(_ctx: ParserRuleContext): void {}
+
+  exitEveryRule(ctx: ParserRuleContext): void {
+    const parent = ctx.parent as ParserRuleContext | null;
+    if (parent?.ruleIndex !== RclParser.RULE_rcl_file) return;
+
+    if (ctx.ruleIndex === RclParser.RULE_import_statement) {
+      this.imports++;
+      this.handlers.onImport?.(ctx as Import_statementContext);
+    } else if (ctx.ruleIndex === RclParser.RULE_section) {
+      this.sections++;
+      this.handlers.onSection?.(ctx as SectionContext);
+    } else {
+      return;
+    }
+
+    if (parent.children[parent.children.length - 1] === ctx) {
+      parent.removeLastChild();
+    }
+  }
+}
+
+/**
+ * Decides what happens to a completed section at any depth. `ancestors` holds the types of the
+ * enclosing sections, outermost first, and is only valid during the call. Return `true` to
+ * detach the section from the tree once the handler has consumed it.
+ */
+export type SectionHandler = (
+  ctx: SectionContext,
+  type: string,
+  ancestors: readonly string[],
+) => boolean;
+
+export interface SectionStreamResult {
+  /**
+   * The file with every detached section removed. When a budget stops the parse, only what
+   * was parsed up to that point.
+   */
+  tree: Rcl_fileContext;
+  /** Number of sections the handler detached */
+  detached: number;
+  diagnostics: Diagnostic[];
+  parseTime: number;
+}
+
+/**
+ * AST-level counterpart of {@link SectionHandler}. Only accepted sections are converted.
+ */
+export interface SectionAstHandlers {
+  accept(type: string, ancestors: readonly string[]): boolean;
+  onSection(section: Section, ancestors: readonly string[]): void;
+}
+
+export interface SectionStreamAstResult {
+  /** The file with every accepted section removed */
+  file: RclFile;
+  detached: number;
+  diagnostics: Diagnostic[];
+  parseTime: number;
+}
+
+/**
+ * Parse listener that offers every completed section, nested or not, to a {@link SectionHandler}
+ * and removes the ones it consumes, so the tree only ever holds the sections still being
+ * parsed plus those the handler chose to keep.
+ */
+export class SectionEmitter implements ParseTreeListener {
+  detached = 0;
+  /** The file root, once the parser has entered it */
+  root: Rcl_fileContext | null = null;
+  private readonly open: Array<{ ctx: ParserRuleContext; type: string }> = [];
+  private readonly types: string[] = [];
+
+  constructor(private readonly handler: SectionHandler) {}
+
+  visitTerminal(_node: TerminalNode): void {}
+
+  visitErrorNode(_node: ErrorNode): void {}
+
+  enterEveryRule(ctx: ParserRuleContext): void {
+    if (ctx.ruleIndex === RclParser.RULE_rcl_file) this.root = ctx as Rcl_fileContext;
+  }
+
+  exitEveryRule(ctx: ParserRuleContext): void {
+    switch (ctx.ruleIndex) {
+      case RclParser.RULE_section_header: {
+        const type = (ctx as Section_headerContext).section_type()?.getText() ?? '';
+        if (ctx.parent) this.open.push({ ctx: ctx.parent as ParserRuleContext, type });
+        break;
+      }
+      case RclParser.RULE_section:
+        this.exitSection(ctx as SectionContext);
+        break;
+      case RclParser.RULE_section_content: {
+        // Drop the wrapper left empty by a detached section
+        const parent = ctx.parent as ParserRuleContext | null;
+        if (ctx.getChildCount() === 0 && parent?.children[parent.children.length - 1] === ctx) {
+          parent.removeLastChild();
+        }
+        break;
+      }
+    }
+  }
+
+  private exitSection(ctx: SectionContext): void {
+    const top = this.open[this.open.length - 1];
+    if (top?.ctx !== ctx) return;
+    this.open.pop();
+
+    this.types.length = this.open.length;
+    for (let i = 0; i < this.open.length; i++) this.types[i] = this.open[i].type;
+
+    const parent = ctx.parent as ParserRuleContext | null;
+    if (!this.handler(ctx, top.type, this.types) || !parent) return;
+
+    if (parent.children[parent.children.length - 1] === ctx) {
+      parent.removeLastChild();
+      this.detached++;
+    }
+  }
+}
+
+/**
+ * Parse a file, handing every completed section to `onSection` and detaching those it
+ * consumes. Peak tree size is bounded by the kept sections plus the sections currently open.
+ */
+export function parseSectionStream(
+  source: string,
+  onSection: SectionHandler,
+  options: StreamingParseOptions = {},
+): Result<SectionStreamResult> {
+  const startTime = Date.now();
+  const caches = options.caches ?? ParserCaches.shared();
+  const errorListener = new ErrorListener();
+  const emitter = new SectionEmitter(onSection);
+
+  caches.acquire();
+  try {
+    const lexer = caches.createLexer(CharStream.fromString(source));
+    const parser = caches.createParser(
+      new CommonTokenStream(lexer),
+      options.budget ? BudgetedParserATNSimulator : undefined,
+    );
+
+    lexer.removeErrorListeners();
+    lexer.addErrorListener(errorListener);
+    parser.removeErrorListeners();
+    parser.addErrorListener(errorListener);
+    parser.addParseListener(emitter);
+
+    if (options.budget) {
+      new ParseBudgetTracker(options.budget).attach(lexer, parser);
+    }
+
+    const tree = parser.rcl_file();
+
+    return {
+      success: true,
+      value: {
+        tree,
+        detached: emitter.detached,
+        diagnostics: errorListener.getDiagnostics(),
+        parseTime: Date.now() - startTime,
+      },
+    };
+  } catch (error) {
+    if (error instanceof ParseBudgetExceededError) {
+      return {
+        success: true,
+        value: {
+          tree: emitter.root ?? new Rcl_fileContext(null, -1),
+          detached: emitter.detached,
+          diagnostics: [...errorListener.getDiagnostics(), budgetExceededDiagnostic(error)],
+          parseTime: Date.now() - startTime,
+        },
+      };
+    }
+    return {
+      success: false,
+      error: error instanceof Error ? error : new Error(String(error)),
+    };
+  } finally {
+    caches.release();
+  }
+}
+
+/**
+ * {@link parseSectionStream} that converts accepted sections, and the remaining file, to AST
+ */
+export function parseSectionStreamAst(
+  source: string,
+  handlers: SectionAstHandlers,
+  options: StreamingParseOptions = {},
+): Result<SectionStreamAstResult> {
+  const visitor = new ASTVisitor(source);
+  const result = parseSectionStream(
+    source,
+    (ctx, type, ancestors) => {
+      if (!handlers.accept(type, ancestors)) return false;
+      handlers.onSection(visitor.visitSection(ctx), ancestors);
+      return true;
+    },
+    options,
+  );
+  if (!result.success) return result;
+
+  const { tree, ...rest } = result.value;
+  return { success: true, value: { file: visitor.visitRcl_file(tree), ...rest } };
+}
+
+/**
+ * Parse a file, streaming each top-level import and section to `handlers` instead of building
+ * the whole tree. Peak tree size is bounded by the largest section; the token buffer still grows
+ * with the input.
+ */
+export function parseStreaming(
+  source: string,
+  handlers: TopLevelHandlers,
+  options: StreamingParseOptions = {},
+): Result<StreamingParseResult> {
+  const startTime = Date.now();
+  const caches = options.caches ?? ParserCaches.shared();
+  const errorListener = new ErrorListener();
+  const emitter = new TopLevelEmitter(handlers);
+
+  caches.acquire();
+  try {
+    const lexer = caches.createLexer(CharStream.fromString(source));
+    const parser = caches.createParser(
+      new CommonTokenStream(lexer),
+      options.budget ? BudgetedParserATNSimulator : undefined,
+    );
+
+    lexer.removeErrorListeners();
+    lexer.addErrorListener(errorListener);
+    parser.removeErrorListeners();
+    parser.addErrorListener(errorListener);
+    parser.addParseListener(emitter);
+
+    if (options.budget) {
+      new ParseBudgetTracker(options.budget).attach(lexer, parser);
+    }
+
+    parser.rcl_file();
+
+    return {
+      success: true,
+      value: {
+        imports: emitter.imports,
+        sections: emitter.sections,
+        diagnostics: errorListener.getDiagnostics(),
+        parseTime: Date.now() - startTime,
+      },
+    };
+  } catch (error) {
+    if (error instanceof ParseBudgetExceededError) {
+      return {
+        success: true,
+        value: {
+          imports: emitter.imports,
+          sections: emitter.sections,
+          diagnostics: [...errorListener.getDiagnostics(), budgetExceededDiagnostic(error)],
+          parseTime: Date.now() - startTime,
+        },
+      };
+    }
+    return {
+      success: false,
+      error: error instanceof Error ? error : new Error(String(error)),
+    };
+  } finally {
+    caches.release();
+  }
+}
+
+/**
+ * {@link parseStreaming} that converts each top-level construct to its AST node first
+ */
+export function parseStreamingAst(
+  source: string,
+  handlers: TopLevelAstHandlers,
+  options: StreamingParseOptions = {},
+): Result<StreamingParseResult> {
+  const visitor = new ASTVisitor(source);
+
+  return parseStreaming(
+    source,
+    {
+      onImport: handlers.onImport && ((ctx) => handlers.onImport?.(visitor.visitImport_statement(ctx))),
+      onSection: handlers.onSection && ((ctx) => handlers.onSection?.(visitor.visitSection(ctx))),
+    },
+    options,
+  );
+}
@@ -0,0 +1,52 @@
+import { InterpolationTemplate, type TemplateSlot } from '@rcs-lang/core';
+import { InterpolationContext, type Triple_quote_stringContext } from '../generated/RclParser.js';
+import { SourceText } from './source-text.js';
+
+export {
+  InterpolationTemplate,
+  compileTemplate,
+  type TemplateScope,
+  type TemplateSlot,
+} from '@rcs-lang/core';
+
+/**
+ * Compile a `triple_quote_string` parse tree node, taking slot paths from the
+ * INT_VARIABLE / INT_LOWER_NAME tokens instead of rescanning the text
+ */
+export function compileTripleQuoteString(
+  ctx: Triple_quote_stringContext,
+  source: SourceText | string,
+): InterpolationTemplate {
+  const text = typeof source === 'string' ? new SourceText(source) : source;
+  const literals: string[] = [];
+  const slots: TemplateSlot[] = [];
+
+  // Literal text runs from the end of the previous slot to the start of the next one
+  let literalStart = ctx.start ? text.tokenEnd(ctx.start) : 0;
+  let pending = '';
+
+  for (const child of ctx.children) {
+    if (!(child instanceof InterpolationContext) || !child.start || !child.stop) continue;
+
+    const start = text.tokenStart(child.start);
+    const end = text.tokenEnd(child.stop);
+    const expr = child.interpolation_expr();
+    const variable = expr ? expr.INT_VARIABLE() : null;
+
+    if (expr && variable && child.INT_RBRACE()) {
+      const path = [variable.getText().slice(1)];
+      for (const name of expr.INT_LOWER_NAME()) path.push(name.getText());
+      literals.push(pending + text.slice(literalStart, start));
+      slots.push({ path, source: text.slice(start, end) });
+      pending = '';
+    } else {
+      pending += text.slice(literalStart, end);
+    }
+    literalStart = end;
+  }
+
+  const stop = ctx.stop;
+  const literalEnd = stop && stop !== ctx.start ? text.tokenStart(stop) : text.text.length;
+  literals.push(pending + text.slice(literalStart, Math.max(literalStart, literalEnd)));
+  return new InterpolationTemplate(literals, slots);
+}
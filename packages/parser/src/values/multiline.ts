@@ -0,0 +1,159 @@
+import type { ParserRuleContext } from 'antlr4ng';
+import { RclLexer } from '../generated/RclLexer.js';
+import { SourceText } from './source-text.js';
+
+export type MultilineMode = 'clean' | 'trim' | 'preserve' | 'preserve_all';
+
+const SPACE = 0x20;
+const TAB = 0x09;
+const LF = 0x0a;
+const CR = 0x0d;
+const LF_STRING = '\n';
+
+/** fromCharCode spreads its arguments, so large buffers are converted in chunks */
+const CHUNK = 8192;
+
+/**
+ * Normalizes the body of a `|`, `|-`, `+|` or `+|+` block string.
+ *
+ * - `|` (clean): each line trimmed, trailing blank lines dropped, one newline at the end
+ * - `|-` (trim): as clean, without the trailing newline
+ * - `+|` (preserve): the common indent removed so relative indentation is kept, one newline at
+ *   the end
+ * - `+|+` (preserve_all): the body exactly as written, including the final line break
+ *
+ * The body is scanned once to record per-line offsets and the common indent in a reusable
+ * table; the result is then copied straight from the source into a buffer sized up front, so
+ * no per-line strings are created. Instances are not reentrant but can be reused across calls.
+ */
+export class MultilineNormalizer {
+  /** Three entries per line: start, first non-blank offset, end after the last non-blank */
+  private lines = new Int32Array(3 * 64);
+  private buffer = new Uint16Array(1024);
+
+  normalize(text: string, start: number, end: number, mode: MultilineMode): string {
+    if (mode === 'preserve_all') {
+      return start < end ? text.slice(start, end) + LF_STRING : '';
+    }
+
+    // Scan: split on CR, LF or CRLF and measure each line
+    let lineCount = 0;
+    let lastNonBlank = -1;
+    let commonIndent = Number.MAX_SAFE_INTEGER;
+    let lineStart = start;
+    let contentStart = -1;
+    let contentEnd = start;
+
+    for (let i = start; i <= end; i++) {
+      const code = i < end ? text.charCodeAt(i) : LF;
+      if (code === LF || code === CR) {
+        this.ensureLines(lineCount + 1);
+        const base = lineCount * 3;
+        if (contentStart < 0) {
+          this.lines[base] = lineStart;
+          this.lines[base + 1] = i;
+          this.lines[base + 2] = i;
+        } else {
+          this.lines[base] = lineStart;
+          this.lines[base + 1] = contentStart;
+          this.lines[base + 2] = contentEnd;
+          lastNonBlank = lineCount;
+          if (contentStart - lineStart < commonIndent) commonIndent = contentStart - lineStart;
+        }
+        lineCount++;
+
+        if (code === CR && i + 1 < end && text.charCodeAt(i + 1) === LF) i++;
+        lineStart = i + 1;
+        contentStart = -1;
+      } else if (code !== SPACE && code !== TAB) {
+        if (contentStart < 0) contentStart = i;
+        contentEnd = i + 1;
+      }
+    }
+
+    if (lastNonBlank < 0) return '';
+
+    // Size the output: kept characters plus one separator per line
+    const preserve = mode === 'preserve';
+    const lines = this.lines;
+    let length = mode === 'trim' ? lastNonBlank : lastNonBlank + 1;
+    for (let line = 0; line <= lastNonBlank; line++) {
+      const base = line * 3;
+      if (lines[base + 1] === lines[base + 2]) continue;
+      length += lines[base + 2] - (preserve ? lines[base] + commonIndent : lines[base + 1]);
+    }
+
+    // Copy
+    const buffer = this.ensureBuffer(length);
+    let out = 0;
+    for (let line = 0; line <= lastNonBlank; line++) {
+      const base = line * 3;
+      if (line > 0) buffer[out++] = LF;
+      if (lines[base + 1] === lines[base + 2]) continue;
+      const to = lines[base + 2];
+      for (let i = preserve ? lines[base] + commonIndent : lines[base + 1]; i < to; i++) {
+        buffer[out++] = text.charCodeAt(i);
+      }
+    }
+    if (mode !== 'trim') buffer[out++] = LF;
+
+    return decode(buffer, out);
+  }
+
+  /**
+   * Normalize a `multi_line_string` parse tree node using the token offsets into `source`
+   */
+  normalizeContext(ctx: ParserRuleContext, source: SourceText | string): string {
+    const text = typeof source === 'string' ? new SourceText(source) : source;
+    const marker = ctx.start;
+    const stop = ctx.stop;
+    if (!marker || !stop || stop === marker) return '';
+
+    const start = text.tokenEnd(marker);
+    // ML_END begins with the line break that ends the last content line
+    const end = stop.type === RclLexer.ML_END ? text.tokenStart(stop) : text.tokenEnd(stop);
+    return this.normalize(text.text, start, end, multilineMode(marker.type));
+  }
+
+  private ensureLines(count: number): void {
+    if (count * 3 <= this.lines.length) return;
+    const grown = new Int32Array(Math.max(count * 3, this.lines.length * 2));
+    grown.set(this.lines);
+    this.lines = grown;
+  }
+
+  private ensureBuffer(length: number): Uint16Array {
+    if (length > this.buffer.length) {
+      this.buffer = new Uint16Array(Math.max(length, this.buffer.length * 2));
+    }
+    return this.buffer;
+  }
+}
+
+/**
+ * Mode for a MULTILINE_STR_* marker token type
+ */
+export function multilineMode(tokenType: number): MultilineMode {
+  switch (tokenType) {
+    case RclLexer.MULTILINE_STR_TRIM:
+      return 'trim';
+    case RclLexer.MULTILINE_STR_PRESERVE:
+      return 'preserve';
+    case RclLexer.MULTILINE_STR_PRESERVE_ALL:
+      return 'preserve_all';
+    default:
+      return 'clean';
+  }
+}
+
+function decode(buffer: Uint16Array, length: number): string {
+  if (length <= CHUNK) {
+    return String.fromCharCode.apply(null, buffer.subarray(0, length) as unknown as number[]);
+  }
+  let result = '';
+  for (let i = 0; i < length; i += CHUNK) {
+    const chunk = buffer.subarray(i, Math.min(i + CHUNK, length));
+    result += String.fromCharCode.apply(null, chunk as unknown as number[]);
+  }
+  return result;
+}
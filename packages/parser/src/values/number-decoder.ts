@@ -0,0 +1,128 @@
+import type { Token } from 'antlr4ng';
+import type { SourceText } from './source-text.js';
+
+export type NumberKind = 'integer' | 'float';
+
+const ZERO = 0x30;
+const NINE = 0x39;
+const MINUS = 0x2d;
+const PLUS = 0x2b;
+const DOT = 0x2e;
+
+/** Exactly representable powers of ten */
+const POW10 = [
+  1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+  1e17, 1e18, 1e19, 1e20, 1e21, 1e22,
+];
+
+/**
+ * Decodes NUMBER tokens (`-? digits ('.' digits)? ([eE] [+-]? digits)?`) straight from the
+ * source string.
+ *
+ * Integers that fit in 53 bits are accumulated exactly. Fractions and exponents take the exact
+ * fast path (a 53-bit mantissa scaled by an exactly representable power of ten, which rounds
+ * once) and fall back to `Number.parseFloat` only for long mantissas or large exponents. Results
+ * are therefore always identical to `Number.parseFloat`. Apart from that fallback, decoding
+ * allocates nothing; the kind of the last number is reported through fields on the decoder.
+ */
+export class NumberDecoder {
+  /** Kind of the last decoded number */
+  kind: NumberKind = 'integer';
+
+  /**
+   * False when the last integer was outside the safe integer range and had to be rounded. Use
+   * {@link decodeBigInt} when such integers must be kept exactly.
+   */
+  exact = true;
+
+  decode(text: string, start = 0, end = text.length): number {
+    let i = start;
+    let negative = false;
+    if (text.charCodeAt(i) === MINUS) {
+      negative = true;
+      i++;
+    }
+
+    let mantissa = 0;
+    let exponent = 0;
+    let truncated = false;
+    let isInteger = true;
+
+    for (; i < end; i++) {
+      const digit = text.charCodeAt(i) - ZERO;
+      if (digit < 0 || digit > 9) break;
+      if (mantissa <= (Number.MAX_SAFE_INTEGER - digit) / 10) {
+        mantissa = mantissa * 10 + digit;
+      } else {
+        truncated = true;
+        exponent++;
+      }
+    }
+
+    if (i < end && text.charCodeAt(i) === DOT) {
+      isInteger = false;
+      for (i++; i < end; i++) {
+        const digit = text.charCodeAt(i) - ZERO;
+        if (digit < 0 || digit > 9) break;
+        if (mantissa <= (Number.MAX_SAFE_INTEGER - digit) / 10) {
+          mantissa = mantissa * 10 + digit;
+          exponent--;
+        } else if (digit !== 0) {
+          truncated = true;
+        }
+      }
+    }
+
+    if (i < end && (text.charCodeAt(i) | 0x20) === 0x65) {
+      isInteger = false;
+      i++;
+      let negativeExponent = false;
+      const sign = text.charCodeAt(i);
+      if (sign === MINUS || sign === PLUS) {
+        negativeExponent = sign === MINUS;
+        i++;
+      }
+      let explicit = 0;
+      for (; i < end; i++) {
+        const code = text.charCodeAt(i);
+        if (code < ZERO || code > NINE) break;
+        // Saturate; anything this large overflows or underflows anyway
+        if (explicit < 100_000) explicit = explicit * 10 + (code - ZERO);
+      }
+      exponent += negativeExponent ? -explicit : explicit;
+    }
+
+    this.kind = isInteger ? 'integer' : 'float';
+    this.exact = !(isInteger && truncated);
+
+    if (!truncated) {
+      if (exponent === 0) {
+        return negative ? -mantissa : mantissa;
+      }
+      if (exponent > 0 && exponent <= 22) {
+        const value = mantissa * POW10[exponent];
+        return negative ? -value : value;
+      }
+      if (exponent < 0 && exponent >= -22) {
+        const value = mantissa / POW10[-exponent];
+        return negative ? -value : value;
+      }
+    }
+
+    return Number.parseFloat(text.slice(start, end));
+  }
+
+  /**
+   * Decode a NUMBER token from the source it was lexed from
+   */
+  decodeToken(source: SourceText, token: Token): number {
+    return this.decode(source.text, source.tokenStart(token), source.tokenEnd(token));
+  }
+
+  /**
+   * Exact integer value of an integer literal of any size. Allocates.
+   */
+  decodeBigInt(text: string, start = 0, end = text.length): bigint {
+    return BigInt(text.slice(start, end));
+  }
+}
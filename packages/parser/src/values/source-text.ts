@@ -0,0 +1,59 @@
+import type { Token } from 'antlr4ng';
+
+/**
+ * Source string with a mapping from ANTLR character indices to string offsets.
+ *
+ * ANTLR token `start`/`stop` are code point indices, while JS strings are indexed in UTF-16 code
+ * units. The two only differ when the source contains astral characters, so the offset table is
+ * built lazily and only in that case.
+ */
+export class SourceText {
+  private offsets: Int32Array | null | undefined;
+
+  constructor(readonly text: string) {}
+
+  /**
+   * String offset of the character at code point index `index`
+   */
+  offset(index: number): number {
+    const offsets = this.getOffsets();
+    if (!offsets) return index;
+    return index < offsets.length ? offsets[index] : this.text.length;
+  }
+
+  /** String offset where `token` starts */
+  tokenStart(token: Token): number {
+    return this.offset(token.start);
+  }
+
+  /** String offset just past the end of `token` */
+  tokenEnd(token: Token): number {
+    return this.offset(token.stop + 1);
+  }
+
+  slice(start: number, end: number): string {
+    return this.text.slice(start, end);
+  }
+
+  private getOffsets(): Int32Array | null {
+    if (this.offsets !== undefined) return this.offsets;
+
+    const text = this.text;
+    if (!/[\uD800-\uDBFF]/.test(text)) {
+      this.offsets = null;
+      return null;
+    }
+
+    const offsets: number[] = [];
+    for (let i = 0; i < text.length; i++) {
+      offsets.push(i);
+      const code = text.charCodeAt(i);
+      if (code >= 0xd800 && code <= 0xdbff && i + 1 < text.length) {
+        const next = text.charCodeAt(i + 1);
+        if (next >= 0xdc00 && next <= 0xdfff) i++;
+      }
+    }
+    this.offsets = Int32Array.from(offsets);
+    return this.offsets;
+  }
+}
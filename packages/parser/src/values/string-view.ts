@@ -0,0 +1,156 @@
+import type { Token } from 'antlr4ng';
+import type { SourceText } from './source-text.js';
+
+const BACKSLASH = 0x5c;
+const HASH = 0x23;
+const LBRACE = 0x7b;
+
+/**
+ * Read-only window onto a range of a source string. Nothing is copied until `toString()`.
+ */
+export class StringView {
+  constructor(
+    readonly text: string,
+    readonly start: number,
+    readonly end: number,
+  ) {}
+
+  get length(): number {
+    return this.end - this.start;
+  }
+
+  charCodeAt(index: number): number {
+    return this.text.charCodeAt(this.start + index);
+  }
+
+  indexOf(char: string, from = 0): number {
+    const index = this.text.indexOf(char, this.start + from);
+    return index === -1 || index >= this.end ? -1 : index - this.start;
+  }
+
+  subview(start: number, end = this.length): StringView {
+    return new StringView(this.text, this.start + start, this.start + end);
+  }
+
+  equals(value: string): boolean {
+    return value.length === this.length && this.text.startsWith(value, this.start);
+  }
+
+  toString(): string {
+    return this.text.slice(this.start, this.end);
+  }
+
+  /**
+   * View over the text of `token`
+   */
+  static ofToken(source: SourceText, token: Token): StringView {
+    return new StringView(source.text, source.tokenStart(token), source.tokenEnd(token));
+  }
+}
+
+/**
+ * Piece of a string literal: literal text (escapes resolved) or an `#{...}` expression
+ */
+export type StringSegment =
+  | { kind: 'text'; value: string }
+  | { kind: 'interpolation'; expression: StringView };
+
+/**
+ * A `"..."` literal held as a view over its source. Escapes are resolved and `#{...}`
+ * interpolations split out only when a consumer asks for them, and nothing is cached, so
+ * untouched literals cost no more than their view.
+ */
+export class StringLiteralView {
+  /** Content between the quotes, escapes unresolved */
+  readonly raw: StringView;
+
+  constructor(raw: StringView) {
+    this.raw = raw;
+  }
+
+  /**
+   * View of a STRING token's content (quotes excluded)
+   */
+  static ofToken(source: SourceText, token: Token): StringLiteralView {
+    const start = source.tokenStart(token);
+    const end = source.tokenEnd(token);
+    return new StringLiteralView(new StringView(source.text, start + 1, end - 1));
+  }
+
+  get hasEscapes(): boolean {
+    return this.raw.indexOf('\\') !== -1;
+  }
+
+  get hasInterpolations(): boolean {
+    return this.raw.indexOf('#{') !== -1;
+  }
+
+  /**
+   * Content with `\x` escapes resolved to `x`. Interpolations are kept verbatim. Without escapes
+   * this is a plain slice of the source, which engines can share rather than copy.
+   */
+  get value(): string {
+    return this.hasEscapes ? unescape(this.raw, 0, this.raw.length) : this.raw.toString();
+  }
+
+  /**
+   * Split into literal text and `#{...}` interpolation segments
+   */
+  segments(): StringSegment[] {
+    const raw = this.raw;
+    const segments: StringSegment[] = [];
+    let textStart = 0;
+    let i = 0;
+
+    while (i < raw.length) {
+      const code = raw.charCodeAt(i);
+      if (code === BACKSLASH) {
+        i += 2;
+        continue;
+      }
+      if (code === HASH && raw.charCodeAt(i + 1) === LBRACE) {
+        const close = raw.indexOf('}', i + 2);
+        if (close === -1) break;
+        if (i > textStart) {
+          segments.push({ kind: 'text', value: unescape(raw, textStart, i) });
+        }
+        segments.push({ kind: 'interpolation', expression: raw.subview(i + 2, close) });
+        i = close + 1;
+        textStart = i;
+        continue;
+      }
+      i++;
+    }
+
+    if (textStart < raw.length) {
+      segments.push({ kind: 'text', value: unescape(raw, textStart, raw.length) });
+    }
+    return segments;
+  }
+
+  toString(): string {
+    return this.value;
+  }
+}
+
+function isLineTerminator(code: number): boolean {
+  return code === 0x0a || code === 0x0d || code === 0x2028 || code === 0x2029;
+}
+
+/**
+ * Resolve `\x` escapes in `view[start, end)`, matching `replace(/\\(.)/g, '$1')`
+ */
+function unescape(view: StringView, start: number, end: number): string {
+  let result = '';
+  let chunkStart = start;
+
+  for (let i = start; i < end - 1; i++) {
+    if (view.charCodeAt(i) === BACKSLASH && !isLineTerminator(view.charCodeAt(i + 1))) {
+      result += view.text.slice(view.start + chunkStart, view.start + i);
+      chunkStart = i + 1;
+      i++;
+    }
+  }
+
+  return result + view.text.slice(view.start + chunkStart, view.start + end);
+}
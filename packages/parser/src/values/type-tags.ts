@@ -0,0 +1,318 @@
+import type { TypeTag } from '@rcs-lang/ast';
+import { type RCLError, RCLErrorFactory, type Result, err, ok } from '@rcs-lang/core';
+
+export interface EmailValue {
+  readonly type: 'email';
+  readonly address: string;
+  readonly local: string;
+  readonly domain: string;
+}
+
+export interface PhoneValue {
+  readonly type: 'phone';
+  /** Digits with an optional leading `+`, separators removed */
+  readonly number: string;
+}
+
+export interface UrlValue {
+  readonly type: 'url';
+  readonly href: string;
+  readonly protocol: string;
+  readonly host: string;
+  /** Path, query and fragment */
+  readonly path: string;
+}
+
+export interface TimeValue {
+  readonly type: 'time';
+  readonly hours: number;
+  readonly minutes: number;
+  readonly seconds: number;
+  readonly timezone: string;
+}
+
+export interface DateTimeValue {
+  readonly type: 'datetime';
+  /** Absolute date or date-time as written (ISO 8601) */
+  readonly iso?: string;
+  /** Relative offset such as `+5m`, in seconds */
+  readonly offsetSeconds?: number;
+  /** Natural-language date kept as written (`Jul 4th`, `tomorrow`), resolved by the runtime */
+  readonly text?: string;
+  readonly timezone?: string;
+}
+
+export interface ZipCodeValue {
+  readonly type: 'zipcode';
+  readonly code: string;
+  readonly country?: string;
+}
+
+export interface DurationValue {
+  readonly type: 'duration';
+  /** Weeks, days, hours, minutes and seconds */
+  readonly seconds: number;
+  /** Calendar years and months (`P1Y2M` is 14), whose length in seconds varies */
+  readonly months?: number;
+}
+
+export interface MoneyValue {
+  readonly type: 'money';
+  readonly amount: number;
+  readonly currency: string;
+}
+
+export type TypedTagValue =
+  | EmailValue
+  | PhoneValue
+  | UrlValue
+  | TimeValue
+  | DateTimeValue
+  | ZipCodeValue
+  | DurationValue
+  | MoneyValue;
+
+/**
+ * Parses the content of one type tag. Returns an error message when the content is invalid.
+ * Converters must be pure: their results are cached and shared.
+ */
+export type TypeTagConverter<T = unknown> = (
+  content: string,
+  qualifier: string | undefined,
+) => Result<T, string>;
+
+export interface TypeTagCacheStats {
+  hits: number;
+  misses: number;
+  size: number;
+}
+
+/**
+ * Registry of converters keyed by type tag name (`<url ...>`, `<time ... | UTC>`, ...).
+ *
+ * Each distinct (type, content, qualifier) is parsed once into a frozen value. Results, errors
+ * included, are kept in a bounded LRU cache because the same logo URLs, phone numbers and
+ * times recur across agents.
+ */
+export class TypeTagRegistry {
+  private converters = new Map<string, TypeTagConverter>();
+  private cache = new Map<string, Result<unknown, RCLError>>();
+  private hits = 0;
+  private misses = 0;
+
+  constructor(private readonly maxCacheEntries = 1024) {}
+
+  /**
+   * Registry with converters for the built-in tag types
+   */
+  static createDefault(maxCacheEntries?: number): TypeTagRegistry {
+    const registry = new TypeTagRegistry(maxCacheEntries);
+    registry.register('email', convertEmail);
+    registry.register(['phone', 'msisdn'], convertPhone);
+    registry.register('url', convertUrl);
+    registry.register(['time', 't'], convertTime);
+    registry.register(['datetime', 'date', 'dt'], convertDateTime);
+    registry.register(['zipcode', 'zip'], convertZipCode);
+    registry.register(['duration', 'ttl'], convertDuration);
+    registry.register('money', convertMoney);
+    return registry;
+  }
+
+  register(names: string | string[], converter: TypeTagConverter): void {
+    for (const name of Array.isArray(names) ? names : [names]) {
+      this.converters.set(name.toLowerCase(), converter);
+    }
+    this.cache.clear();
+  }
+
+  has(name: string): boolean {
+    return this.converters.has(name.toLowerCase());
+  }
+
+  convert<T = TypedTagValue>(
+    tagName: string,
+    content: string,
+    qualifier?: string,
+  ): Result<T, RCLError> {
+    const key = `${tagName}\u0000${content}\u0000${qualifier ?? ''}`;
+    const cached = this.cache.get(key);
+    if (cached) {
+      this.hits++;
+      // Move to the most recently used position
+      this.cache.delete(key);
+      this.cache.set(key, cached);
+      return cached as Result<T, RCLError>;
+    }
+
+    this.misses++;
+    const result = this.convertUncached(tagName, content, qualifier);
+    if (this.maxCacheEntries > 0) {
+      if (this.cache.size >= this.maxCacheEntries) {
+        this.cache.delete(this.cache.keys().next().value as string);
+      }
+      this.cache.set(key, result);
+    }
+    return result as Result<T, RCLError>;
+  }
+
+  /**
+   * Convert a parsed `TypeTag` AST node
+   */
+  convertTag<T = TypedTagValue>(tag: TypeTag): Result<T, RCLError> {
+    return this.convert<T>(tag.tagName, String(tag.value), tag.qualifier);
+  }
+
+  cacheStats(): TypeTagCacheStats {
+    return { hits: this.hits, misses: this.misses, size: this.cache.size };
+  }
+
+  clearCache(): void {
+    this.cache.clear();
+    this.hits = 0;
+    this.misses = 0;
+  }
+
+  private convertUncached(
+    tagName: string,
+    content: string,
+    qualifier: string | undefined,
+  ): Result<unknown, RCLError> {
+    const converter = this.converters.get(tagName.toLowerCase());
+    if (!converter) {
+      return err(RCLErrorFactory.invalidTypeTag(tagName));
+    }
+
+    const result = converter(content.trim(), qualifier?.trim() || undefined);
+    if (!result.success) {
+      return err({ ...RCLErrorFactory.invalidTypeTagValue(tagName, content), hint: result.error });
+    }
+    return ok(Object.freeze(result.value));
+  }
+}
+
+const EMAIL = /^([^\s@]+)@([^\s@]+\.[^\s@]+)$/;
+const PHONE_SEPARATORS = /[\s().-]/g;
+const PHONE = /^\+?\d{3,15}$/;
+const URL_PATTERN = /^([a-z][a-z0-9+.-]*):\/\/([^/?#\s]+)(\S*)$/i;
+const TIME = /^(\d{1,2})(?::(\d{2}))?(?::(\d{2}))?\s*([ap]m)?$/i;
+const ISO_DATE = /^\d{4}-\d{2}-\d{2}(?:[T ]\d{2}:\d{2}(?::\d{2}(?:\.\d+)?)?(?:Z|[+-]\d{2}:?\d{2})?)?$/;
+const RELATIVE = /^([+-])(\d+)\s*([smhdw])$/i;
+const ZIP = /^[A-Za-z0-9][A-Za-z0-9 -]{1,9}$/;
+const ISO_DURATION =
+  /^P(?:(\d+)Y)?(?:(\d+)M)?(?:(\d+)W)?(?:(\d+)D)?(?:T(?:(\d+)H)?(?:(\d+)M)?(?:(\d+(?:\.\d+)?)S)?)?$/i;
+const UNIT_DURATION = /^(\d+(?:\.\d+)?)\s*([smhdw])?$/i;
+const MONEY = /^[^\d-]?(-?[\d,]*\.?\d+)$/;
+const CURRENCY = /^[A-Z]{3}$/;
+
+const UNIT_SECONDS: Record<string, number> = { s: 1, m: 60, h: 3600, d: 86_400, w: 604_800 };
+
+function convertEmail(content: string): Result<EmailValue, string> {
+  const match = EMAIL.exec(content);
+  if (!match) return err('Expected an email address like name@example.com');
+  return ok({ type: 'email', address: content, local: match[1], domain: match[2].toLowerCase() });
+}
+
+function convertPhone(content: string): Result<PhoneValue, string> {
+  const number = content.replace(PHONE_SEPARATORS, '');
+  if (!PHONE.test(number)) return err('Expected a phone number like +1-555-0123');
+  return ok({ type: 'phone', number });
+}
+
+function convertUrl(content: string): Result<UrlValue, string> {
+  const match = URL_PATTERN.exec(content);
+  if (!match) return err('Expected an absolute URL like https://example.com');
+  return ok({
+    type: 'url',
+    href: content,
+    protocol: match[1].toLowerCase(),
+    host: match[2].toLowerCase(),
+    path: match[3],
+  });
+}
+
+function convertTime(content: string, qualifier: string | undefined): Result<TimeValue, string> {
+  const match = TIME.exec(content);
+  if (!match) return err('Expected a time like 4pm, 4:30 PM or 16:30');
+
+  let hours = Number(match[1]);
+  const minutes = Number(match[2] ?? 0);
+  const seconds = Number(match[3] ?? 0);
+  const meridiem = match[4]?.toLowerCase();
+
+  if (meridiem) {
+    if (hours < 1 || hours > 12) return err('Hours must be between 1 and 12 with am/pm');
+    hours = (hours % 12) + (meridiem === 'pm' ? 12 : 0);
+  }
+  if (hours > 23 || minutes > 59 || seconds > 59) return err('Time is out of range');
+
+  return ok({ type: 'time', hours, minutes, seconds, timezone: qualifier ?? 'UTC' });
+}
+
+function convertDateTime(
+  content: string,
+  qualifier: string | undefined,
+): Result<DateTimeValue, string> {
+  const relative = RELATIVE.exec(content);
+  if (relative) {
+    const amount = Number(relative[2]) * UNIT_SECONDS[relative[3].toLowerCase()];
+    return ok({
+      type: 'datetime',
+      offsetSeconds: relative[1] === '-' ? -amount : amount,
+      timezone: qualifier,
+    });
+  }
+
+  if (ISO_DATE.test(content)) {
+    if (Number.isNaN(Date.parse(content.replace(' ', 'T')))) {
+      return err('Expected a valid ISO 8601 date like 2024-07-26T10:00');
+    }
+    return ok({ type: 'datetime', iso: content, timezone: qualifier });
+  }
+
+  // Natural-language dates are resolved at send time, relative to the conversation
+  if (content.length === 0) return err('Expected a date like 2024-07-26, +5m or Jul 4th');
+  return ok({ type: 'datetime', text: content, timezone: qualifier });
+}
+
+function convertZipCode(
+  content: string,
+  qualifier: string | undefined,
+): Result<ZipCodeValue, string> {
+  if (!ZIP.test(content)) return err('Expected a postal code like 94103');
+  return ok({ type: 'zipcode', code: content.toUpperCase(), country: qualifier?.toUpperCase() });
+}
+
+function convertDuration(content: string): Result<DurationValue, string> {
+  const unit = UNIT_DURATION.exec(content);
+  if (unit) {
+    const seconds = Number(unit[1]) * UNIT_SECONDS[(unit[2] ?? 's').toLowerCase()];
+    return ok({ type: 'duration', seconds });
+  }
+
+  const iso = ISO_DURATION.exec(content);
+  if (!iso || content.length < 2 || content.toUpperCase().endsWith('T')) {
+    return err('Expected an ISO 8601 duration (P1DT2H, PT30M) or an amount like 3600s or 24h');
+  }
+  const [, years, months, weeks, days, hours, minutes, secs] = iso;
+  const calendarMonths = Number(years ?? 0) * 12 + Number(months ?? 0);
+  return ok({
+    type: 'duration',
+    seconds:
+      Number(weeks ?? 0) * UNIT_SECONDS.w +
+      Number(days ?? 0) * UNIT_SECONDS.d +
+      Number(hours ?? 0) * UNIT_SECONDS.h +
+      Number(minutes ?? 0) * UNIT_SECONDS.m +
+      Number(secs ?? 0),
+    ...(calendarMonths > 0 ? { months: calendarMonths } : {}),
+  });
+}
+
+function convertMoney(content: string, qualifier: string | undefined): Result<MoneyValue, string> {
+  const match = MONEY.exec(content.replace(/\s/g, ''));
+  if (!match) return err('Expected an amount like 9.99');
+
+  const currency = (qualifier ?? 'USD').toUpperCase();
+  if (!CURRENCY.test(currency)) return err('Currency must be a 3-letter ISO 4217 code');
+
+  return ok({ type: 'money', amount: Number(match[1].replace(/,/g, '')), currency });
+}
@@ -0,0 +1,74 @@
+import { describe, expect, test } from 'bun:test';
+import {
+  FragmentParser,
+  parseAttributeFragment,
+  parseMatchBlockFragment,
+  parseSectionFragment,
+  parseValueFragment,
+} from '../src/fragment-parser.js';
+
+describe('Fragment parsing', () => {
+  test('parses a string value', () => {
+    const result = parseValueFragment('"Hello world"');
+    if (!result.success) throw result.error;
+
+    expect(result.value.diagnostics).toHaveLength(0);
+    expect(result.value.node).toMatchObject({ type: 'StringLiteral', value: 'Hello world' });
+  });
+
+  test('parses a type tag value', () => {
+    const result = parseValueFragment('<url https://example.com>');
+    if (!result.success) throw result.error;
+
+    expect(result.value.diagnostics).toHaveLength(0);
+    expect(result.value.node).toMatchObject({ type: 'TypeTag', tagName: 'url' });
+  });
+
+  test('parses an attribute assignment', () => {
+    const result = parseAttributeFragment('displayName: "Coffee Bot"');
+    if (!result.success) throw result.error;
+
+    expect(result.value.diagnostics).toHaveLength(0);
+    expect(result.value.node.key).toBe('displayName');
+  });
+
+  test('parses an indented section cut from a document', () => {
+    const snippet = ['    on Welcome', '      match @reply.text', '        "Hi" -> Greeting', '        :default -> Welcome'].join('\n');
+    const result = parseSectionFragment(snippet);
+    if (!result.success) throw result.error;
+
+    expect(result.value.diagnostics).toHaveLength(0);
+    expect(result.value.node.sectionType).toBe('on');
+    expect(result.value.node.identifier?.value).toBe('Welcome');
+  });
+
+  test('parses a match block', () => {
+    const snippet = 'match @reply.text\n  "Yes" -> Confirmed\n  :default -> Ask Again';
+    const result = parseMatchBlockFragment(snippet);
+    if (!result.success) throw result.error;
+
+    expect(result.value.diagnostics).toHaveLength(0);
+    expect(result.value.node.cases).toHaveLength(2);
+  });
+
+  test('reports trailing input', () => {
+    const result = parseValueFragment('"one" "two"');
+    if (!result.success) throw result.error;
+
+    expect(result.value.diagnostics.length).toBeGreaterThan(0);
+  });
+
+  test('reuses one parser instance across fragments', () => {
+    const parser = new FragmentParser();
+
+    const first = parser.parse('value', '42');
+    expect(first.diagnostics).toHaveLength(0);
+    expect(first.context.getText()).toBe('42');
+
+    const broken = parser.parse('attribute_assignment', 'displayName: ');
+    const second = parser.parse('value', '"again"');
+    expect(second.diagnostics).toHaveLength(0);
+    expect(second.context.getText()).toBe('"again"');
+    expect(broken.context).not.toBe(second.context);
+  });
+});
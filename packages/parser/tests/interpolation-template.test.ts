@@ -0,0 +1,81 @@
+import { describe, expect, test } from 'bun:test';
+import { FragmentParser, parseValueFragment } from '../src/fragment-parser.js';
+import {
+  InterpolationTemplate,
+  compileTemplate,
+  compileTripleQuoteString,
+} from '../src/values/interpolation-template.js';
+
+describe('InterpolationTemplate', () => {
+  const scope = {
+    user: { name: 'Ana', address: { city: 'Lisbon' } },
+    order: { quantity: 2, item: 'lattes' },
+  };
+
+  test('splits literals and variable slots', () => {
+    const template = compileTemplate('Hi #{@user.name}, your #{@order.item}!');
+
+    expect(template.literals).toEqual(['Hi ', ', your ', '!']);
+    expect(template.slots.map((slot) => slot.path)).toEqual([
+      ['user', 'name'],
+      ['order', 'item'],
+    ]);
+    expect(template.literalLength).toBe(11);
+  });
+
+  test('renders nested paths and non-string values', () => {
+    const template = compileTemplate(
+      '#{@order.quantity} #{@order.item} to #{ @user.address.city }',
+    );
+    expect(template.render(scope)).toBe('2 lattes to Lisbon');
+  });
+
+  test('renders missing values as empty text', () => {
+    const template = compileTemplate('[#{@user.phone}][#{@missing.deep.path}]');
+    expect(template.render(scope)).toBe('[][]');
+    expect(template.render()).toBe('[][]');
+  });
+
+  test('keeps non-variable placeholders and unclosed braces as literal text', () => {
+    const template = compileTemplate('a #{"quoted"} b #{@user.name} c #{open');
+
+    expect(template.slots).toHaveLength(1);
+    expect(template.literals).toEqual(['a #{"quoted"} b ', ' c #{open']);
+    expect(template.render(scope)).toBe('a #{"quoted"} b Ana c #{open');
+  });
+
+  test('round-trips to its source form', () => {
+    const text = 'Thanks #{@user.name}!\n  Order: #{@order.item}';
+    expect(compileTemplate(text).toString()).toBe(text);
+  });
+
+  test('is immutable', () => {
+    const template = compileTemplate('#{@user.name}');
+
+    expect(template.isConstant).toBe(false);
+    expect(compileTemplate('plain').isConstant).toBe(true);
+    expect(Object.isFrozen(template)).toBe(true);
+    expect(Object.isFrozen(template.slots[0].path)).toBe(true);
+    expect(() => new InterpolationTemplate(['a'], template.slots)).toThrow();
+  });
+
+  test('compiles from the parse tree', () => {
+    const text = '"""Hello #{@user.name}, #{@order.quantity} ready"""';
+    const { context, diagnostics } = new FragmentParser().parse('value', text);
+    const triple = context.primitive_value()?.triple_quote_string();
+    if (!triple) throw new Error('Expected a triple-quoted string');
+
+    expect(diagnostics).toHaveLength(0);
+    const template = compileTripleQuoteString(triple, text);
+    expect(template.literals).toEqual(['Hello ', ', ', ' ready']);
+    expect(template.render(scope)).toBe('Hello Ana, 2 ready');
+    expect(template.toString()).toEqual(compileTemplate(template.toString()).toString());
+  });
+
+  test('keeps placeholders in the AST value', () => {
+    const result = parseValueFragment('"""Hi #{@user.name}!"""');
+    if (!result.success) throw result.error;
+
+    expect(result.value.node).toMatchObject({ type: 'StringLiteral', value: 'Hi #{@user.name}!' });
+  });
+});
@@ -0,0 +1,113 @@
+import { readFileSync } from 'node:fs';
+import { resolve } from 'node:path';
+import {
+  CharStream,
+  CommonTokenStream,
+  type ErrorNode,
+  ParserRuleContext,
+  ParseTreeWalker,
+  type TerminalNode,
+} from 'antlr4ng';
+import { describe, expect, test } from 'bun:test';
+import { RclLexer } from '../src/generated/RclLexer.js';
+import { type Attribute_assignmentContext, RclParser } from '../src/generated/RclParser.js';
+import { RclParserListener } from '../src/generated/RclParserListener.js';
+import { IterativeParseTreeVisitor, IterativeParseTreeWalker } from '../src/iterative-walker.js';
+
+const source = readFileSync(resolve(__dirname, 'fixtures', 'coffee-shop.rcl'), 'utf-8');
+
+function parseTree() {
+  const lexer = new RclLexer(CharStream.fromString(source));
+  const parser = new RclParser(new CommonTokenStream(lexer));
+  parser.removeErrorListeners();
+  return parser.rcl_file();
+}
+
+class RecordingListener extends RclParserListener {
+  events: string[] = [];
+
+  override enterEveryRule(ctx: ParserRuleContext): void {
+    this.events.push(`enter:${ctx.ruleIndex}`);
+  }
+  override exitEveryRule(ctx: ParserRuleContext): void {
+    this.events.push(`exit:${ctx.ruleIndex}`);
+  }
+  override visitTerminal(node: TerminalNode): void {
+    this.events.push(`terminal:${node.symbol.tokenIndex}`);
+  }
+  override visitErrorNode(node: ErrorNode): void {
+    this.events.push(`error:${node.symbol.tokenIndex}`);
+  }
+  override exitAttribute_assignment = (ctx: Attribute_assignmentContext): void => {
+    this.events.push(`attribute:${ctx.start?.text}`);
+  };
+}
+
+class TerminalCounter extends IterativeParseTreeVisitor<number> {
+  protected defaultResult(): number {
+    return 0;
+  }
+  protected override aggregateResult(aggregate: number, next: number): number {
+    return aggregate + next;
+  }
+  override visitTerminal(): number {
+    return 1;
+  }
+}
+
+describe('IterativeParseTreeWalker', () => {
+  test('fires the same callbacks in the same order as ParseTreeWalker', () => {
+    const tree = parseTree();
+    const recursive = new RecordingListener();
+    const iterative = new RecordingListener();
+
+    ParseTreeWalker.DEFAULT.walk(recursive, tree);
+    IterativeParseTreeWalker.DEFAULT.walk(iterative, tree);
+
+    expect(iterative.events.length).toBeGreaterThan(0);
+    expect(iterative.events).toEqual(recursive.events);
+  });
+
+  test('walks trees deeper than the call stack allows', () => {
+    const root = new ParserRuleContext(null);
+    let current = root;
+    for (let i = 0; i < 200_000; i++) {
+      const child = new ParserRuleContext(current);
+      current.addChild(child);
+      current = child;
+    }
+
+    let entered = 0;
+    let exited = 0;
+    IterativeParseTreeWalker.DEFAULT.walk(
+      {
+        enterEveryRule: () => entered++,
+        exitEveryRule: () => exited++,
+        visitTerminal: () => {},
+        visitErrorNode: () => {},
+      },
+      root,
+    );
+
+    expect(entered).toBe(200_001);
+    expect(exited).toBe(200_001);
+  });
+});
+
+describe('IterativeParseTreeVisitor', () => {
+  test('folds child results like visitChildren', () => {
+    const tree = parseTree();
+    let terminals = 0;
+    ParseTreeWalker.DEFAULT.walk(
+      {
+        enterEveryRule: () => {},
+        exitEveryRule: () => {},
+        visitTerminal: () => terminals++,
+        visitErrorNode: () => {},
+      },
+      tree,
+    );
+
+    expect(new TerminalCounter().visit(tree)).toBe(terminals);
+  });
+});
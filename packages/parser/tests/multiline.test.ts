@@ -0,0 +1,62 @@
+import { describe, expect, test } from 'bun:test';
+import { parseValueFragment } from '../src/fragment-parser.js';
+import { MultilineNormalizer, type MultilineMode } from '../src/values/multiline.js';
+
+describe('MultilineNormalizer', () => {
+  const normalizer = new MultilineNormalizer();
+  const body = '    Hello   \n      indented\n\n    world\t\n   \n';
+
+  function normalize(text: string, mode: MultilineMode): string {
+    return normalizer.normalize(text, 0, text.length, mode);
+  }
+
+  test('clean trims every line and ends with one newline', () => {
+    expect(normalize(body, 'clean')).toBe('Hello\nindented\n\nworld\n');
+  });
+
+  test('trim drops the trailing newline', () => {
+    expect(normalize(body, 'trim')).toBe('Hello\nindented\n\nworld');
+  });
+
+  test('preserve keeps indentation relative to the common indent', () => {
+    expect(normalize(body, 'preserve')).toBe('Hello\n  indented\n\nworld\n');
+  });
+
+  test('preserve_all keeps the body exactly', () => {
+    expect(normalize(body, 'preserve_all')).toBe(`${body}\n`);
+  });
+
+  test('handles CRLF line breaks', () => {
+    expect(normalize('  a\r\n    b\r\n  c', 'preserve')).toBe('a\n  b\nc\n');
+  });
+
+  test('returns an empty string for blank bodies', () => {
+    for (const mode of ['clean', 'trim', 'preserve', 'preserve_all'] as const) {
+      expect(normalize('', mode)).toBe('');
+    }
+    expect(normalize('   \n\t\n', 'clean')).toBe('');
+  });
+
+  test('normalizes only the requested span', () => {
+    const text = 'text: |\n  one\n  two\n|\n';
+    expect(normalizer.normalize(text, 8, text.indexOf('\n|'), 'trim')).toBe('one\ntwo');
+  });
+
+  test('grows its buffers for large bodies', () => {
+    const line = `  ${'x'.repeat(100)}\n`;
+    const text = line.repeat(1000);
+    expect(normalize(text, 'clean')).toBe(`${'x'.repeat(100)}\n`.repeat(1000));
+  });
+
+  test.each([
+    ['|', 'Hello\nworld\n'],
+    ['|-', 'Hello\nworld'],
+    ['+|', 'Hello\n  world\n'],
+    ['+|+', '  Hello\n    world\n'],
+  ])('normalizes %s blocks in the AST', (marker, expected) => {
+    const result = parseValueFragment(`${marker}\n  Hello\n    world\n|\n`);
+    if (!result.success) throw result.error;
+
+    expect(result.value.node).toMatchObject({ type: 'StringLiteral', value: expected });
+  });
+});
@@ -0,0 +1,74 @@
+import { describe, expect, test } from 'bun:test';
+import { NumberDecoder } from '../src/values/number-decoder.js';
+
+describe('NumberDecoder', () => {
+  const decoder = new NumberDecoder();
+
+  test.each([
+    '0',
+    '-0',
+    '42',
+    '-17',
+    '3.50',
+    '-0.0',
+    '0.1',
+    '0.3',
+    '123.456',
+    '1e3',
+    '1E-3',
+    '2.5e+10',
+    '-6.02e23',
+    '9007199254740991',
+    '9007199254740993',
+    '123456789012345678901234567890',
+    '0.000000000000000000000000001',
+    '1.7976931348623157e308',
+    '1e400',
+    '5e-324',
+    '0.30000000000000004',
+    '2.2250738585072014e-308',
+  ])('decodes %s exactly like parseFloat', (text) => {
+    expect(Object.is(decoder.decode(text), Number.parseFloat(text))).toBe(true);
+  });
+
+  test('reports integer and float kinds', () => {
+    decoder.decode('12');
+    expect(decoder.kind).toBe('integer');
+    expect(decoder.exact).toBe(true);
+
+    decoder.decode('12.0');
+    expect(decoder.kind).toBe('float');
+
+    decoder.decode('1e2');
+    expect(decoder.kind).toBe('float');
+  });
+
+  test('flags integers beyond the safe range as inexact', () => {
+    decoder.decode('9007199254740993');
+    expect(decoder.kind).toBe('integer');
+    expect(decoder.exact).toBe(false);
+    expect(decoder.decodeBigInt('9007199254740993')).toBe(9007199254740993n);
+  });
+
+  test('decodes a range inside a larger string', () => {
+    const text = 'price: 4.50, qty: 3';
+    expect(decoder.decode(text, 7, 11)).toBe(4.5);
+    expect(decoder.decode(text, 18)).toBe(3);
+  });
+
+  test('matches parseFloat on random inputs', () => {
+    let seed = 1;
+    const random = () => {
+      seed = (seed * 16807) % 2147483647;
+      return seed / 2147483647;
+    };
+
+    for (let i = 0; i < 10_000; i++) {
+      const integer = Math.floor(random() * 10 ** Math.floor(random() * 18));
+      const fraction = Math.floor(random() * 10 ** Math.floor(random() * 12));
+      const exponent = Math.floor(random() * 60) - 30;
+      const text = `${random() < 0.5 ? '-' : ''}${integer}.${fraction}e${exponent}`;
+      expect(decoder.decode(text)).toBe(Number.parseFloat(text));
+    }
+  });
+});
@@ -0,0 +1,94 @@
+import { readFileSync } from 'node:fs';
+import { resolve } from 'node:path';
+import { describe, expect, test } from 'bun:test';
+import { AntlrRclParser } from '../src/parser.js';
+import { CancellationTokenSource } from '../src/runtime/parse-budget.js';
+
+const source = readFileSync(resolve(__dirname, 'fixtures', 'coffee-shop.rcl'), 'utf-8');
+
+async function createParser() {
+  const parser = new AntlrRclParser({ cacheMode: 'isolated' });
+  await parser.initialize();
+  return parser;
+}
+
+describe('Parse budgets', () => {
+  test('parses normally within a generous budget', async () => {
+    const parser = await createParser();
+    const result = parser.parseSync(source, undefined, {
+      budget: { maxTokens: 1_000_000, maxDepth: 1_000, maxPredictions: 1_000_000, timeoutMs: 60_000 },
+    });
+
+    expect(result.success).toBe(true);
+    if (result.success) {
+      expect(result.value.ast).not.toBeNull();
+      expect(result.value.diagnostics.some((d) => d.code === 'RCL903')).toBe(false);
+    }
+  });
+
+  test.each([
+    ['tokens', { maxTokens: 10 }],
+    ['depth', { maxDepth: 3 }],
+    ['predictions', { maxPredictions: 5 }],
+  ])('stops early when the %s budget is exceeded', async (limit, budget) => {
+    const parser = await createParser();
+    const result = parser.parseSync(source, undefined, { budget });
+
+    expect(result.success).toBe(true);
+    if (result.success) {
+      expect(result.value.ast).toBeNull();
+      const diagnostic = result.value.diagnostics.find((d) => d.code === 'RCL903');
+      expect(diagnostic?.message).toContain(limit);
+    }
+  });
+
+  test('stops when cancellation has been requested', async () => {
+    const parser = await createParser();
+    const cancellation = new CancellationTokenSource();
+    cancellation.cancel();
+
+    const result = parser.parseSync(source, undefined, {
+      budget: { cancellationToken: cancellation.token },
+    });
+
+    expect(result.success).toBe(true);
+    if (result.success) {
+      expect(result.value.ast).toBeNull();
+      expect(result.value.diagnostics.map((d) => d.code)).toContain('RCL904');
+    }
+  });
+
+  test('observes cancellation requested while parsing', async () => {
+    const parser = await createParser();
+    // Stands in for a flag written from another thread: set after a few polls
+    let polls = 0;
+    const cancellationToken = {
+      get isCancellationRequested() {
+        return ++polls > 5;
+      },
+    };
+
+    const result = parser.parseSync(source, undefined, { budget: { cancellationToken } });
+    expect(result.success && result.value.diagnostics.map((d) => d.code)).toContain('RCL904');
+  });
+
+  test('passes budgets through parseDocument', async () => {
+    const parser = await createParser();
+    const cancellation = new CancellationTokenSource();
+    cancellation.cancel();
+
+    const document = await parser.parseDocument(source, 'test.rcl', 1, {
+      budget: { cancellationToken: cancellation.token },
+    });
+    expect(document.ast).toBeNull();
+    expect(document.diagnostics.map((d: { code?: string }) => d.code)).toContain('RCL904');
+  });
+
+  test('uses the default budget from parser options', async () => {
+    const parser = new AntlrRclParser({ cacheMode: 'isolated', budget: { maxDepth: 2 } });
+    await parser.initialize();
+
+    const result = parser.parseSync(source);
+    expect(result.success && result.value.ast).toBeNull();
+  });
+});
@@ -0,0 +1,61 @@
+import { readFileSync } from 'node:fs';
+import { resolve } from 'node:path';
+import { describe, expect, test } from 'bun:test';
+import { collectSymbols } from '../src/parse-time-symbols.js';
+
+const source = readFileSync(resolve(__dirname, 'fixtures', 'coffee-shop.rcl'), 'utf-8');
+
+describe('Parse-time symbol collection', () => {
+  test('collects sections, messages and flow states without building a tree', () => {
+    const result = collectSymbols(source);
+    expect(result.success).toBe(true);
+    if (!result.success) return;
+
+    const { symbols, tree } = result.value;
+    expect(tree).toBeNull();
+
+    expect(symbols.getSection('agent', 'Coffee Shop')).toBeDefined();
+    expect(symbols.getSection('flow', 'Order Flow')?.parent?.name).toBe('Coffee Shop');
+
+    const states = symbols.flowStates.get('Order Flow')?.map((s) => s.state) ?? [];
+    expect(states).toContain('Welcome');
+    expect(states).toContain('StoreInfo');
+
+    expect(symbols.messages.get('Choose Size')?.messageType).toBe('text');
+    expect(symbols.messages.get('Show Menu')?.messageType).toBe('carousel');
+  });
+
+  test('records variables with ranges', () => {
+    const result = collectSymbols(source);
+    if (!result.success) throw result.error;
+
+    const size = result.value.symbols.variables.find((v) => v.name === 'size');
+    expect(size).toBeDefined();
+    expect(size!.range.end.character).toBeGreaterThan(size!.range.start.character);
+  });
+
+  test('collects imports', () => {
+    const result = collectSymbols('import Shared/Common Messages as Common\n\nagent Bot\n');
+    if (!result.success) throw result.error;
+
+    expect(result.value.symbols.imports).toEqual([
+      {
+        path: ['Shared', 'Common Messages'],
+        alias: 'Common',
+        range: expect.any(Object),
+      },
+    ]);
+  });
+
+  test('produces the same table with tree building enabled', () => {
+    const withoutTree = collectSymbols(source);
+    const withTree = collectSymbols(source, { buildParseTree: true });
+    if (!withoutTree.success || !withTree.success) throw new Error('parse failed');
+
+    expect(withTree.value.tree).not.toBeNull();
+    expect(withTree.value.symbols.sections.map((s) => `${s.type}:${s.name}`)).toEqual(
+      withoutTree.value.symbols.sections.map((s) => `${s.type}:${s.name}`),
+    );
+    expect(withTree.value.symbols.variables.length).toBe(withoutTree.value.symbols.variables.length);
+  });
+});
@@ -0,0 +1,97 @@
+import { readFileSync } from 'node:fs';
+import { resolve } from 'node:path';
+import { describe, expect, test } from 'bun:test';
+import { AntlrRclParser } from '../src/parser.js';
+import { ParserCaches } from '../src/runtime/parser-caches.js';
+
+const source = readFileSync(resolve(__dirname, 'fixtures', 'coffee-shop.rcl'), 'utf-8');
+
+describe('ParserCaches', () => {
+  test('shared mode reuses one cache instance', () => {
+    expect(ParserCaches.forMode('shared')).toBe(ParserCaches.shared());
+    expect(ParserCaches.forMode('shared').mode).toBe('shared');
+  });
+
+  test('isolated mode creates private caches', () => {
+    const first = ParserCaches.forMode('isolated');
+    const second = ParserCaches.forMode('isolated');
+    expect(first).not.toBe(second);
+    expect(first.mode).toBe('isolated');
+  });
+
+  test('shared and isolated parsers produce the same AST', async () => {
+    const shared = new AntlrRclParser({ cacheMode: 'shared' });
+    const isolated = new AntlrRclParser({ cacheMode: 'isolated' });
+    await shared.initialize();
+    await isolated.initialize();
+
+    const sharedResult = shared.parseSync(source);
+    const isolatedResult = isolated.parseSync(source);
+
+    expect(sharedResult.success).toBe(true);
+    expect(isolatedResult.success).toBe(true);
+    if (sharedResult.success && isolatedResult.success) {
+      expect(JSON.stringify(isolatedResult.value.ast)).toBe(JSON.stringify(sharedResult.value.ast));
+    }
+  });
+});
+
+describe('ParserCaches budget', () => {
+  test('reports sizes after parsing', async () => {
+    const caches = new ParserCaches('isolated');
+    const parser = new AntlrRclParser({ caches });
+    await parser.initialize();
+
+    expect(caches.metrics().parserDfaStates).toBe(0);
+    parser.parseSync(source);
+
+    const metrics = caches.metrics();
+    expect(metrics.parserDfaStates).toBeGreaterThan(0);
+    expect(metrics.activeParses).toBe(0);
+    expect(metrics.clearCount).toBe(0);
+  });
+
+  test('clears when the budget is exceeded', async () => {
+    const caches = new ParserCaches('isolated', { maxDfaStates: 1 });
+    const events: string[] = [];
+    caches.onClear((event) => events.push(event.reason));
+
+    const parser = new AntlrRclParser({ caches });
+    await parser.initialize();
+    const result = parser.parseSync(source);
+
+    expect(result.success).toBe(true);
+    expect(events).toEqual(['budget']);
+    expect(caches.metrics().clearCount).toBe(1);
+    expect(caches.metrics().parserDfaStates).toBe(0);
+  });
+
+  test('defers a clear until active parses release the caches', () => {
+    const caches = new ParserCaches('isolated');
+    const events: string[] = [];
+    caches.onClear((event) => events.push(event.reason));
+    caches.acquire();
+    caches.clear();
+    expect(caches.metrics().clearCount).toBe(0);
+
+    caches.release();
+    expect(caches.metrics().clearCount).toBe(1);
+    expect(events).toEqual(['manual']);
+  });
+
+  test('reports a deferred manual clear as manual even when over budget', async () => {
+    const caches = new ParserCaches('isolated', { maxDfaStates: 1 });
+    const events: string[] = [];
+    caches.onClear((event) => events.push(event.reason));
+
+    const parser = new AntlrRclParser({ caches });
+    await parser.initialize();
+    caches.acquire();
+    parser.parseSync(source);
+    caches.clear();
+    expect(events).toEqual([]);
+
+    caches.release();
+    expect(events).toEqual(['manual']);
+  });
+});
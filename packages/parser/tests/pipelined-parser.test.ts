@@ -0,0 +1,63 @@
+import { readFileSync } from 'node:fs';
+import { resolve } from 'node:path';
+import { CharStream, CommonTokenStream } from 'antlr4ng';
+import { describe, expect, test } from 'bun:test';
+import { RclLexer } from '../src/generated/RclLexer.js';
+import { RclParser } from '../src/generated/RclParser.js';
+import { parseRcl } from '../src/index.js';
+import { type PipelineWorker, parsePipelined } from '../src/pipeline/pipelined-parser.js';
+import {
+  RingTokenSource,
+  TokenRing,
+  TokenRingWriter,
+  pumpTokens,
+} from '../src/pipeline/token-ring.js';
+
+const source = readFileSync(resolve(__dirname, 'fixtures', 'coffee-shop.rcl'), 'utf-8');
+
+function directTree() {
+  return new RclParser(new CommonTokenStream(new RclLexer(CharStream.fromString(source)))).rcl_file();
+}
+
+describe('Token ring', () => {
+  test('round-trips lexer tokens, including synthetic indentation tokens', () => {
+    const ring = TokenRing.create(1 << 14);
+    pumpTokens(new RclLexer(CharStream.fromString(source)), new TokenRingWriter(ring));
+
+    const expected = new CommonTokenStream(new RclLexer(CharStream.fromString(source)));
+    expected.fill();
+    const actual = new CommonTokenStream(new RingTokenSource(ring, CharStream.fromString(source)));
+    actual.fill();
+
+    const describeTokens = (stream: CommonTokenStream) =>
+      stream.getTokens().map((t) => `${t.type}:${t.line}:${t.column}:${t.text}`);
+    expect(describeTokens(actual)).toEqual(describeTokens(expected));
+  });
+
+  test('supports seek for prediction lookahead', () => {
+    const ring = TokenRing.create(1 << 14);
+    pumpTokens(new RclLexer(CharStream.fromString(source)), new TokenRingWriter(ring));
+
+    const tokens = new CommonTokenStream(new RingTokenSource(ring, CharStream.fromString(source)));
+    const tree = new RclParser(tokens).rcl_file();
+    expect(tree.getText()).toBe(directTree().getText());
+
+    tokens.seek(0);
+    expect(tokens.LT(1)?.text).toBe('agent');
+  });
+});
+
+describe('parsePipelined', () => {
+  test('parses with the lexer on a worker', async () => {
+    const result = await parsePipelined(source, {
+      capacity: 64,
+      createWorker: () =>
+        new Worker(new URL('../src/pipeline/lexer-worker.ts', import.meta.url), {
+          type: 'module',
+        }) as unknown as PipelineWorker,
+    });
+
+    if (!result.success) throw result.error;
+    expect(JSON.stringify(result.value.ast)).toBe(JSON.stringify(parseRcl(source).ast));
+  });
+});
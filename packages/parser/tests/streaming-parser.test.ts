@@ -0,0 +1,77 @@
+import { readFileSync } from 'node:fs';
+import { resolve } from 'node:path';
+import { describe, expect, test } from 'bun:test';
+import type { Section } from '@rcs-lang/ast';
+import { parseRcl } from '../src/index.js';
+import {
+  parseSectionStream,
+  parseStreaming,
+  parseStreamingAst,
+} from '../src/streaming-parser.js';
+
+const source = readFileSync(resolve(__dirname, 'fixtures', 'coffee-shop.rcl'), 'utf-8');
+
+describe('Streaming parser', () => {
+  test('emits the same top-level sections as a full parse', () => {
+    const sections: Section[] = [];
+    const result = parseStreamingAst(source, { onSection: (section) => sections.push(section) });
+
+    expect(result.success).toBe(true);
+    const full = parseRcl(source);
+    expect(sections.map((s) => s.identifier?.value)).toEqual(
+      full.ast.sections.map((s: Section) => s.identifier?.value),
+    );
+    expect(JSON.stringify(sections)).toBe(JSON.stringify(full.ast.sections));
+  });
+
+  test('detaches each section from the file root', () => {
+    const parents: number[] = [];
+    const result = parseStreaming(source, {
+      onSection: (ctx) => {
+        parents.push(ctx.parent?.getChildCount() ?? -1);
+      },
+    });
+
+    expect(result.success).toBe(true);
+    if (result.success) {
+      expect(result.value.sections).toBe(parents.length);
+    }
+    // At emission time the section is the only child retained by the root
+    expect(parents.every((count) => count === 1)).toBe(true);
+  });
+
+  test('emits imports before the sections that follow them', () => {
+    const events: string[] = [];
+    const result = parseStreaming(
+      'import Shared/Common as Common\n\nagent Bot\n  displayName: "Bot"\n',
+      {
+        onImport: () => events.push('import'),
+        onSection: () => events.push('section'),
+      },
+    );
+
+    expect(result.success).toBe(true);
+    expect(events).toEqual(['import', 'section']);
+  });
+
+  test('keeps detached sections when a budget stops a section stream', () => {
+    for (const maxTokens of [10, Math.floor(source.length / 4)]) {
+      let consumed = 0;
+      const result = parseSectionStream(
+        source,
+        () => {
+          consumed++;
+          return true;
+        },
+        { budget: { maxTokens } },
+      );
+
+      expect(result.success).toBe(true);
+      if (result.success) {
+        expect(result.value.tree).toBeDefined();
+        expect(result.value.detached).toBe(consumed);
+        expect(result.value.diagnostics.map((d) => d.code)).toContain('RCL903');
+      }
+    }
+  });
+});
@@ -0,0 +1,58 @@
+import { CharStream, CommonTokenStream } from 'antlr4ng';
+import { describe, expect, test } from 'bun:test';
+import { RclLexer } from '../src/generated/RclLexer.js';
+import { SourceText } from '../src/values/source-text.js';
+import { StringLiteralView, StringView } from '../src/values/string-view.js';
+
+function stringTokens(source: string) {
+  const tokens = new CommonTokenStream(new RclLexer(CharStream.fromString(source)));
+  tokens.fill();
+  return tokens.getTokens().filter((t) => t.type === RclLexer.STRING);
+}
+
+describe('StringView', () => {
+  test('exposes a range of the source without copying it', () => {
+    const view = new StringView('agent Bot', 6, 9);
+    expect(view.length).toBe(3);
+    expect(view.equals('Bot')).toBe(true);
+    expect(view.toString()).toBe('Bot');
+    expect(view.indexOf('o')).toBe(1);
+  });
+});
+
+describe('StringLiteralView', () => {
+  test('matches the previous escape handling', () => {
+    const raw = 'Say \\"hi\\" and \\\\ done';
+    const view = new StringLiteralView(new StringView(raw, 0, raw.length));
+    expect(view.value).toBe(raw.replace(/\\(.)/g, '$1'));
+  });
+
+  test('returns the plain slice when there is nothing to unescape', () => {
+    const view = new StringLiteralView(new StringView('"Hello"', 1, 6));
+    expect(view.hasEscapes).toBe(false);
+    expect(view.value).toBe('Hello');
+  });
+
+  test('splits interpolations lazily', () => {
+    const source = 'text Hi "Hello #{@user.name}, \\"welcome\\""\n';
+    const [token] = stringTokens(source);
+    const view = StringLiteralView.ofToken(new SourceText(source), token);
+
+    expect(view.hasInterpolations).toBe(true);
+    const segments = view.segments();
+    expect(segments.map((s) => (s.kind === 'text' ? s.value : `{${s.expression}}`))).toEqual([
+      'Hello ',
+      '{@user.name}',
+      ', "welcome"',
+    ]);
+  });
+
+  test('maps token offsets when the source has astral characters', () => {
+    const source = 'text A "😀 one"\ntext B "two"\n';
+    const tokens = stringTokens(source);
+    const sourceText = new SourceText(source);
+
+    expect(StringLiteralView.ofToken(sourceText, tokens[0]).value).toBe('😀 one');
+    expect(StringLiteralView.ofToken(sourceText, tokens[1]).value).toBe('two');
+  });
+});
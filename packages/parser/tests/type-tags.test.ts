@@ -0,0 +1,147 @@
+import { describe, expect, test } from 'bun:test';
+import { ErrorCode, ok } from '@rcs-lang/core';
+import { TypeTagRegistry } from '../src/values/type-tags.js';
+
+describe('TypeTagRegistry', () => {
+  const registry = TypeTagRegistry.createDefault();
+
+  test('converts built-in tag types', () => {
+    expect(registry.convert('email', 'Help@Example.com')).toEqual(
+      ok({ type: 'email', address: 'Help@Example.com', local: 'Help', domain: 'example.com' }),
+    );
+    expect(registry.convert('phone', '+1 (555) 012-3456')).toEqual(
+      ok({ type: 'phone', number: '+15550123456' }),
+    );
+    expect(registry.convert('url', 'https://Example.com/logo.png?v=2')).toEqual(
+      ok({
+        type: 'url',
+        href: 'https://Example.com/logo.png?v=2',
+        protocol: 'https',
+        host: 'example.com',
+        path: '/logo.png?v=2',
+      }),
+    );
+    expect(registry.convert('zip', '94103', 'us')).toEqual(
+      ok({ type: 'zipcode', code: '94103', country: 'US' }),
+    );
+    expect(registry.convert('money', '$1,299.50')).toEqual(
+      ok({ type: 'money', amount: 1299.5, currency: 'USD' }),
+    );
+  });
+
+  test('parses times with meridiem and timezone', () => {
+    expect(registry.convert('time', '4pm')).toEqual(
+      ok({ type: 'time', hours: 16, minutes: 0, seconds: 0, timezone: 'UTC' }),
+    );
+    expect(registry.convert('t', '12:30 AM', 'America/New_York')).toEqual(
+      ok({ type: 'time', hours: 0, minutes: 30, seconds: 0, timezone: 'America/New_York' }),
+    );
+    expect(registry.convert('time', '25:00').success).toBe(false);
+  });
+
+  test('parses absolute and relative datetimes', () => {
+    expect(registry.convert('datetime', '+5m')).toEqual(
+      ok({ type: 'datetime', offsetSeconds: 300, timezone: undefined }),
+    );
+    expect(registry.convert('date', '2024-07-26')).toEqual(
+      ok({ type: 'datetime', iso: '2024-07-26', timezone: undefined }),
+    );
+    expect(registry.convert('dt', '2024-13-45').success).toBe(false);
+  });
+
+  test('keeps natural-language dates as written', () => {
+    // Grammar doc: <dt Jul 4th>
+    expect(registry.convert('dt', 'Jul 4th')).toEqual(
+      ok({ type: 'datetime', text: 'Jul 4th', timezone: undefined }),
+    );
+    expect(registry.convert('dt', 'tomorrow', 'UTC')).toEqual(
+      ok({ type: 'datetime', text: 'tomorrow', timezone: 'UTC' }),
+    );
+  });
+
+  test('parses ISO and unit durations', () => {
+    expect(registry.convert('duration', 'PT1H30M')).toEqual(
+      ok({ type: 'duration', seconds: 5400 }),
+    );
+    expect(registry.convert('ttl', '3600s')).toEqual(ok({ type: 'duration', seconds: 3600 }));
+    expect(registry.convert('duration', 'PT').success).toBe(false);
+    expect(registry.convert('duration', '24x').success).toBe(false);
+  });
+
+  test('parses the durations used in examples and docs', () => {
+    // examples/travel-assistant.rcl: ttl: <duration 24h>
+    expect(registry.convert('duration', '24h')).toEqual(ok({ type: 'duration', seconds: 86_400 }));
+    // Extension README: 30s, 5m
+    expect(registry.convert('duration', '30s')).toEqual(ok({ type: 'duration', seconds: 30 }));
+    expect(registry.convert('duration', '5m')).toEqual(ok({ type: 'duration', seconds: 300 }));
+    expect(registry.convert('ttl', '2w')).toEqual(ok({ type: 'duration', seconds: 1_209_600 }));
+    expect(registry.convert('ttl', '1d')).toEqual(ok({ type: 'duration', seconds: 86_400 }));
+    // Grammar doc: <ttl P1Y2M3DT4H5M6S>
+    expect(registry.convert('ttl', 'P1Y2M3DT4H5M6S')).toEqual(
+      ok({ type: 'duration', seconds: 3 * 86_400 + 4 * 3600 + 5 * 60 + 6, months: 14 }),
+    );
+    expect(registry.convert('duration', 'P2W')).toEqual(
+      ok({ type: 'duration', seconds: 1_209_600 }),
+    );
+  });
+
+  test('accepts the tag values used in examples', () => {
+    // examples/travel-assistant.rcl
+    expect(registry.convert('phone', '+1-555-0123').success).toBe(true);
+    expect(registry.convert('datetime', '2024-06-15T10:00:00Z')).toEqual(
+      ok({ type: 'datetime', iso: '2024-06-15T10:00:00Z', timezone: undefined }),
+    );
+    // Grammar doc: <time 4pm | Z>, <t 09:15am>, <zip 25585-460 | BR>
+    expect(registry.convert('time', '4pm', 'Z').success).toBe(true);
+    expect(registry.convert('t', '09:15am').success).toBe(true);
+    expect(registry.convert('zip', '25585-460', 'BR').success).toBe(true);
+  });
+
+  test('reports unknown tags and invalid values', () => {
+    const unknown = registry.convert('colour', 'red');
+    expect(unknown.success).toBe(false);
+    if (!unknown.success) expect(unknown.error.code).toBe(ErrorCode.INVALID_TYPE_TAG);
+
+    const invalid = registry.convert('email', 'not-an-email');
+    expect(invalid.success).toBe(false);
+    if (!invalid.success) {
+      expect(invalid.error.code).toBe(ErrorCode.INVALID_TYPE_TAG_VALUE);
+      expect(invalid.error.hint).toContain('email address');
+    }
+  });
+
+  test('returns frozen values shared through the cache', () => {
+    const cached = new TypeTagRegistry(2);
+    cached.register('url', (content) => ok({ href: content }));
+
+    const first = cached.convert('url', 'https://a.example');
+    const second = cached.convert('url', 'https://a.example');
+    expect(second).toBe(first);
+    if (first.success) expect(Object.isFrozen(first.value)).toBe(true);
+    expect(cached.cacheStats()).toEqual({ hits: 1, misses: 1, size: 1 });
+  });
+
+  test('evicts the least recently used entry when full', () => {
+    const cached = TypeTagRegistry.createDefault(2);
+    const a = cached.convert('time', '4pm');
+    cached.convert('time', '5pm');
+    cached.convert('time', '4pm');
+    cached.convert('time', '6pm');
+
+    expect(cached.cacheStats().size).toBe(2);
+    expect(cached.convert('time', '4pm')).toBe(a);
+    expect(cached.cacheStats().misses).toBe(3);
+  });
+
+  test('accepts custom converters', () => {
+    const custom = TypeTagRegistry.createDefault();
+    custom.register(['color', 'colour'], (content) =>
+      /^#[0-9a-f]{6}$/i.test(content)
+        ? ok(content.toLowerCase())
+        : { success: false, error: 'hex' },
+    );
+
+    expect(custom.has('Colour')).toBe(true);
+    expect(custom.convert<string>('colour', '#FF0000')).toEqual(ok('#ff0000'));
+  });
+});